@@ -0,0 +1,184 @@
+package com.agile.ecommerce.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Properties;
+
+/**
+ * Order creation as Hibernate issues it under identity ids (one round trip per row) versus pooled-lo sequence ids
+ * (one sequence call per allocation block, lines sent as JDBC batches). Needs a reachable PostgreSQL, by default the
+ * one from {@code application.properties}; override with {@code -p url=... -p user=... -p password=...}. Runs against
+ * scratch tables that are dropped afterwards.
+ */
+@State(Scope.Benchmark)
+public class BulkOrderInsertBenchmark {
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"identity", "pooled"})
+    public String idStrategy;
+
+    @Param({"10", "100"})
+    public int lines;
+
+    @Param({"jdbc:postgresql://localhost:5432/ecommerce"})
+    public String url;
+
+    @Param({"postgres"})
+    public String user;
+
+    @Param({"admin"})
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement insertOrder;
+    private PreparedStatement insertItem;
+    private final IdBlock orderIds = new IdBlock("bench_orders_seq");
+    private final IdBlock itemIds = new IdBlock("bench_order_items_seq");
+
+    @Setup
+    public void setUp() throws SQLException {
+        var properties = new Properties();
+        properties.setProperty("user", user);
+        properties.setProperty("password", password);
+        properties.setProperty("reWriteBatchedInserts", "true");
+        connection = DriverManager.getConnection(url, properties);
+        var identity = isIdentity();
+        var idColumn = identity ? "id bigint generated by default as identity primary key" : "id bigint primary key";
+        try (var statement = connection.createStatement()) {
+            dropScratchSchema(statement);
+            statement.execute("create table bench_orders (" + idColumn
+                    + ", order_date timestamp not null, customer_name varchar(255) not null,"
+                    + " customer_address varchar(255) not null)");
+            statement.execute("create table bench_order_items (" + idColumn
+                    + ", order_id bigint not null references bench_orders, product_id bigint not null,"
+                    + " quantity integer not null, price numeric(38,2) not null)");
+            statement.execute("create sequence bench_orders_seq increment by " + ALLOCATION_SIZE);
+            statement.execute("create sequence bench_order_items_seq increment by " + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+        if (identity) {
+            insertOrder = connection.prepareStatement("insert into bench_orders (order_date, customer_name, customer_address)"
+                    + " values (?, ?, ?) returning id");
+            insertItem = connection.prepareStatement("insert into bench_order_items (order_id, product_id, quantity, price)"
+                    + " values (?, ?, ?, ?) returning id");
+        } else {
+            insertOrder = connection.prepareStatement("insert into bench_orders (order_date, customer_name, customer_address, id)"
+                    + " values (?, ?, ?, ?)");
+            insertItem = connection.prepareStatement("insert into bench_order_items (order_id, product_id, quantity, price, id)"
+                    + " values (?, ?, ?, ?, ?)");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.rollback();
+        connection.setAutoCommit(true);
+        try (var statement = connection.createStatement()) {
+            dropScratchSchema(statement);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long createOrder() throws SQLException {
+        var orderId = isIdentity() ? insertWithIdentity() : insertWithPooledSequence();
+        connection.commit();
+        return orderId;
+    }
+
+    private long insertWithIdentity() throws SQLException {
+        bindOrder();
+        var orderId = returnedId(insertOrder);
+        for (int line = 1; line <= lines; line++) {
+            bindItem(orderId, line);
+            returnedId(insertItem);
+        }
+        return orderId;
+    }
+
+    private long insertWithPooledSequence() throws SQLException {
+        var orderId = orderIds.next();
+        bindOrder();
+        insertOrder.setLong(4, orderId);
+        insertOrder.executeUpdate();
+        for (int line = 1; line <= lines; line++) {
+            bindItem(orderId, line);
+            insertItem.setLong(5, itemIds.next());
+            insertItem.addBatch();
+            if (line % BATCH_SIZE == 0) {
+                insertItem.executeBatch();
+            }
+        }
+        insertItem.executeBatch();
+        return orderId;
+    }
+
+    private void bindOrder() throws SQLException {
+        insertOrder.setTimestamp(1, Timestamp.valueOf(Fixtures.ORDER_DATE));
+        insertOrder.setString(2, "Customer");
+        insertOrder.setString(3, "Street 1, City");
+    }
+
+    private void bindItem(long orderId, int line) throws SQLException {
+        insertItem.setLong(1, orderId);
+        insertItem.setLong(2, line);
+        insertItem.setInt(3, line);
+        insertItem.setBigDecimal(4, BigDecimal.valueOf(1000 + line, 2));
+    }
+
+    private static long returnedId(PreparedStatement statement) throws SQLException {
+        try (var resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private boolean isIdentity() {
+        return "identity".equals(idStrategy);
+    }
+
+    private static void dropScratchSchema(Statement statement) throws SQLException {
+        statement.execute("drop table if exists bench_order_items");
+        statement.execute("drop table if exists bench_orders");
+        statement.execute("drop sequence if exists bench_orders_seq");
+        statement.execute("drop sequence if exists bench_order_items_seq");
+    }
+
+    /**
+     * Pooled-lo allocation as Hibernate does it: each sequence call reserves the next {@link #ALLOCATION_SIZE} ids.
+     */
+    private final class IdBlock {
+        private final String sequence;
+        private long next;
+        private long limit;
+
+        IdBlock(String sequence) {
+            this.sequence = sequence;
+        }
+
+        long next() throws SQLException {
+            if (next == limit) {
+                try (var statement = connection.prepareStatement("select nextval('" + sequence + "')");
+                     var resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    next = resultSet.getLong(1);
+                    limit = next + ALLOCATION_SIZE;
+                }
+            }
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.agile.ecommerce.benchmark;
+
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.product.domain.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic entities and dtos shared by the benchmarks.
+ */
+final class Fixtures {
+    static final LocalDateTime ORDER_DATE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    private Fixtures() {
+    }
+
+    static Product product(long id) {
+        var product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setPrice(BigDecimal.valueOf(1000 + id, 2));
+        product.setQuantity(100);
+        return product;
+    }
+
+    static List<Product> products(int count) {
+        var products = new ArrayList<Product>(count);
+        for (long id = 1; id <= count; id++) {
+            products.add(product(id));
+        }
+        return products;
+    }
+
+    static Order order(long id, int lines) {
+        var order = new Order();
+        order.setId(id);
+        order.setOrderDate(ORDER_DATE);
+        order.setCustomerName("Customer " + id);
+        order.setCustomerAddress("Street " + id + ", City");
+        var items = new ArrayList<OrderItem>(lines);
+        for (int i = 1; i <= lines; i++) {
+            var product = product(i);
+            items.add(new OrderItem(id * 1000 + i, order, product, i, product.getPrice()));
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+
+    static OrderDto newOrderDto(int lines) {
+        var items = new ArrayList<OrderItemDto>(lines);
+        for (int i = 1; i <= lines; i++) {
+            items.add(new OrderItemDto(i, "Product " + i, i, BigDecimal.valueOf(1000 + i, 2), 0));
+        }
+        return new OrderDto(null, ORDER_DATE, "Customer", "Street 1, City", items);
+    }
+}
@@ -0,0 +1,99 @@
+package com.agile.ecommerce.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test of a running application: many concurrent clients, more than Tomcat's 200 platform request threads, each
+ * fetching random orders by id. Run it once against the app in each mode and compare throughput and, with
+ * {@code -PjmhModes=sample}, the p0.99 latency (see the README). Works against both the servlet and the reactive API;
+ * point it elsewhere with {@code -p baseUrl=...}.
+ */
+@State(Scope.Benchmark)
+@Threads(400)
+public class HttpLoadBenchmark {
+
+    @Param({"http://localhost:8080"})
+    public String baseUrl;
+
+    @Param({"100"})
+    public int orders;
+
+    private HttpClient client;
+    private HttpRequest[] requests;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        var ids = orderIds();
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No orders to load test at " + baseUrl);
+        }
+        requests = ids.stream()
+                .map(id -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/" + id))
+                        .timeout(Duration.ofSeconds(60))
+                        .build())
+                .toArray(HttpRequest[]::new);
+    }
+
+    /**
+     * Ids of the first {@link #orders} orders, from the keyset endpoint of the servlet API or else from the NDJSON
+     * stream of the reactive one.
+     */
+    private List<Long> orderIds() throws IOException, InterruptedException {
+        var json = new ObjectMapper();
+        var page = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/scroll?size=" + orders)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (page.statusCode() == 200) {
+            var ids = new ArrayList<Long>();
+            json.readTree(page.body()).get("content").forEach(order -> ids.add(order.get("id").asLong()));
+            return ids;
+        }
+        var stream = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders"))
+                .header("Accept", "application/x-ndjson")
+                .build(), HttpResponse.BodyHandlers.ofLines());
+        try (var lines = stream.body()) {
+            return lines.limit(orders).map(line -> readId(json, line)).toList();
+        }
+    }
+
+    private static long readId(ObjectMapper json, String line) {
+        try {
+            return json.readTree(line).get("id").asLong();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public int getOrderById() throws IOException, InterruptedException {
+        var request = requests[ThreadLocalRandom.current().nextInt(requests.length)];
+        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,76 @@
+package com.agile.ecommerce.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories, so service code can be benchmarked without a database.
+ * Only the basic CRUD methods are implemented; anything else fails loudly. With {@code retainSaved} off, saved
+ * entities get an id but are not kept, so write benchmarks run in constant memory.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R, T> R create(Class<R> repositoryType, Function<T, Long> idGetter, BiConsumer<T, Long> idSetter,
+                           Collection<T> initial, boolean retainSaved) {
+        var store = new ConcurrentHashMap<Long, T>();
+        var sequence = new AtomicLong();
+        for (var entity : initial) {
+            store.put(idGetter.apply(entity), entity);
+            sequence.accumulateAndGet(idGetter.apply(entity), Math::max);
+        }
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save", "saveAndFlush" -> save(store, sequence, idGetter, idSetter, (T) args[0], retainSaved);
+                    case "saveAll" -> {
+                        var saved = new ArrayList<T>();
+                        for (var entity : (Iterable<T>) args[0]) {
+                            saved.add(save(store, sequence, idGetter, idSetter, entity, retainSaved));
+                        }
+                        yield saved;
+                    }
+                    case "findById" -> Optional.ofNullable(store.get((Long) args[0]));
+                    case "findAllById" -> {
+                        var found = new ArrayList<T>();
+                        for (var id : (Iterable<Long>) args[0]) {
+                            var entity = store.get(id);
+                            if (entity != null) {
+                                found.add(entity);
+                            }
+                        }
+                        yield found;
+                    }
+                    case "existsById" -> store.containsKey((Long) args[0]);
+                    case "count" -> (long) store.size();
+                    case "deleteById" -> {
+                        store.remove((Long) args[0]);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemory" + repositoryType.getSimpleName();
+                    default -> throw new UnsupportedOperationException(method.toString());
+                });
+    }
+
+    private static <T> T save(Map<Long, T> store, AtomicLong sequence, Function<T, Long> idGetter,
+                              BiConsumer<T, Long> idSetter, T entity, boolean retainSaved) {
+        if (idGetter.apply(entity) == null) {
+            idSetter.accept(entity, sequence.incrementAndGet());
+        }
+        if (retainSaved) {
+            store.put(idGetter.apply(entity), entity);
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,75 @@
+package com.agile.ecommerce.benchmark;
+
+import com.agile.ecommerce.config.ModelMapperConfig;
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.mapper.DirectOrderMapper;
+import com.agile.ecommerce.orderItem.mapper.DirectOrderItemMapper;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.mapper.DirectProductMapper;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Entity to dto conversion through the {@link ModelMapperConfig} converters versus the direct mappers. The converters
+ * get a registry with nothing attached, so their timers record nothing, as the direct mappers here are not proxied.
+ */
+public class MappingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class OrderState {
+        @Param({"1", "10", "100"})
+        public int lines;
+
+        ModelMapper modelMapper;
+        DirectOrderMapper mapper;
+        Order order;
+
+        @Setup
+        public void setUp() {
+            modelMapper = new ModelMapperConfig().modelMapper(new CompositeMeterRegistry());
+            mapper = new DirectOrderMapper(new DirectOrderItemMapper());
+            order = Fixtures.order(1, lines);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProductState {
+        ModelMapper modelMapper;
+        DirectProductMapper mapper;
+        Product product;
+
+        @Setup
+        public void setUp() {
+            modelMapper = new ModelMapperConfig().modelMapper(new CompositeMeterRegistry());
+            mapper = new DirectProductMapper();
+            product = Fixtures.product(1);
+        }
+    }
+
+    @Benchmark
+    public OrderDto orderViaModelMapper(OrderState state) {
+        return state.modelMapper.map(state.order, OrderDto.class);
+    }
+
+    @Benchmark
+    public OrderDto orderViaDirectMapper(OrderState state) {
+        return state.mapper.toDto(state.order);
+    }
+
+    @Benchmark
+    public ProductDto productViaModelMapper(ProductState state) {
+        return state.modelMapper.map(state.product, ProductDto.class);
+    }
+
+    @Benchmark
+    public ProductDto productViaDirectMapper(ProductState state) {
+        return state.mapper.toDto(state.product);
+    }
+}
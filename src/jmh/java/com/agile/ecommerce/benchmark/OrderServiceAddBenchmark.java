@@ -0,0 +1,66 @@
+package com.agile.ecommerce.benchmark;
+
+import com.agile.ecommerce.order.core.OrderService;
+import com.agile.ecommerce.order.data.OrderRepository;
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.mapper.DirectOrderMapper;
+import com.agile.ecommerce.orderItem.mapper.DirectOrderItemMapper;
+import com.agile.ecommerce.product.core.ProductCache;
+import com.agile.ecommerce.product.core.ProductCacheProperties;
+import com.agile.ecommerce.product.core.StockService;
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * {@link OrderService#add} against in-memory repositories, isolating the service and mapping cost from the database.
+ */
+@State(Scope.Benchmark)
+public class OrderServiceAddBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private OrderService service;
+    private OrderDto request;
+
+    @Setup
+    public void setUp() {
+        OrderRepository orderRepository = InMemoryRepositories.create(OrderRepository.class,
+                Order::getId, Order::setId, List.of(), false);
+        ProductRepository productRepository = InMemoryRepositories.create(ProductRepository.class,
+                Product::getId, Product::setId, Fixtures.products(lines), true);
+        var productCache = new ProductCache(productRepository, new ProductCacheProperties(10_000, Duration.ofMinutes(10)));
+        service = new OrderService(orderRepository, productCache, new UnlimitedStock(),
+                new DirectOrderMapper(new DirectOrderItemMapper()));
+        request = Fixtures.newOrderDto(lines);
+    }
+
+    @Benchmark
+    public OrderDto add() throws Exception {
+        return service.add(request);
+    }
+
+    /**
+     * Stock reservation is a database round trip; leave it out so the benchmark keeps measuring the in-process work.
+     */
+    private static final class UnlimitedStock extends StockService {
+        UnlimitedStock() {
+            super(null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public List<Long> reserve(SortedMap<Long, Integer> quantities) {
+            return List.of();
+        }
+    }
+}
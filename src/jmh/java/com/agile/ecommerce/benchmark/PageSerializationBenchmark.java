@@ -0,0 +1,59 @@
+package com.agile.ecommerce.benchmark;
+
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.mapper.DirectOrderMapper;
+import com.agile.ecommerce.orderItem.mapper.DirectOrderItemMapper;
+import com.agile.ecommerce.product.domain.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+
+/**
+ * Jackson serialization of the paged responses, wrapped in {@link PagedModel} as the application does with
+ * {@code PageSerializationMode.VIA_DTO}.
+ */
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    @Param({"5"})
+    public int linesPerOrder;
+
+    private ObjectMapper objectMapper;
+    private PagedModel<OrderDto> orderPage;
+    private PagedModel<Product> productPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var mapper = new DirectOrderMapper(new DirectOrderItemMapper());
+        var orders = new ArrayList<OrderDto>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            orders.add(mapper.toDto(Fixtures.order(id, linesPerOrder)));
+        }
+        var pageable = PageRequest.of(0, pageSize);
+        orderPage = new PagedModel<>(new PageImpl<>(orders, pageable, pageSize * 10L));
+        productPage = new PagedModel<>(new PageImpl<>(Fixtures.products(pageSize), pageable, pageSize * 10L));
+    }
+
+    @Benchmark
+    public byte[] orderPage() throws Exception {
+        return objectMapper.writeValueAsBytes(orderPage);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws Exception {
+        return objectMapper.writeValueAsBytes(productPage);
+    }
+}
@@ -0,0 +1,56 @@
+package com.agile.ecommerce.benchmark;
+
+import com.agile.ecommerce.product.core.NameInitial;
+import com.agile.ecommerce.product.core.PriceRange;
+import com.agile.ecommerce.product.core.ProductFacetIndex;
+import com.agile.ecommerce.product.core.StockStatus;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductFacetPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Facet queries against the in-memory {@link ProductFacetIndex}, over a catalog of random prices, stock and name
+ * initials: the first page and all counts without a selection, and a deep page of a selection in every facet.
+ */
+@State(Scope.Benchmark)
+public class ProductFacetBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    public int products;
+
+    private ProductFacetIndex index;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        index = new ProductFacetIndex(null);
+        for (long id = 1; id <= products; id++) {
+            var product = new Product();
+            product.setId(id);
+            product.setName((char) ('a' + random.nextInt(26)) + "roduct " + id);
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(20_000), 2));
+            product.setQuantity(random.nextInt(5));
+            index.put(product);
+        }
+    }
+
+    @Benchmark
+    public ProductFacetPage unfiltered() {
+        return index.find(List.of(), List.of(), List.of(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ProductFacetPage everyFacetSelected() {
+        return index.find(List.of(PriceRange.UNDER_10, PriceRange.FROM_25_TO_50), List.of(StockStatus.IN_STOCK),
+                List.of(NameInitial.A_TO_E, NameInitial.P_TO_T), 10, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,78 @@
+package com.agile.ecommerce.benchmark;
+
+import com.agile.ecommerce.product.core.ProductSearchIndex;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductSearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Queries against the in-memory {@link ProductSearchIndex}, over a catalog of made-up names and descriptions drawn from
+ * a 2,000-word vocabulary: a single word, two words with a price and stock filter, and a prefix of the shortest length
+ * that is expanded, which matches a large share of the catalog.
+ */
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "te", "vo", "bi", "da", "fe", "go"};
+
+    @Param({"10000", "100000"})
+    public int products;
+
+    private ProductSearchIndex index;
+    private String word;
+    private String twoWords;
+    private String prefix;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var vocabulary = IntStream.range(0, 2_000)
+                .mapToObj(i -> IntStream.range(0, 3 + random.nextInt(2))
+                        .mapToObj(s -> SYLLABLES[random.nextInt(SYLLABLES.length)])
+                        .collect(Collectors.joining()))
+                .toList();
+        index = new ProductSearchIndex(null);
+        for (long id = 1; id <= products; id++) {
+            var product = new Product();
+            product.setId(id);
+            product.setName(words(vocabulary, random, 3));
+            product.setDescription(words(vocabulary, random, 12));
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            product.setQuantity(random.nextInt(5));
+            index.put(product);
+        }
+        word = vocabulary.get(7);
+        twoWords = vocabulary.get(7) + " " + vocabulary.get(11);
+        prefix = vocabulary.get(3).substring(0, ProductSearchIndex.MIN_PREFIX_LENGTH);
+    }
+
+    @Benchmark
+    public List<ProductSearchHit> singleWord() {
+        return index.search(word, null, null, null, ProductSearchIndex.DEFAULT_LIMIT);
+    }
+
+    @Benchmark
+    public List<ProductSearchHit> twoWordsFiltered() {
+        return index.search(twoWords, BigDecimal.TEN, new BigDecimal("500"), true, ProductSearchIndex.DEFAULT_LIMIT);
+    }
+
+    @Benchmark
+    public List<ProductSearchHit> shortPrefix() {
+        return index.search(prefix, null, null, null, ProductSearchIndex.DEFAULT_LIMIT);
+    }
+
+    private static String words(List<String> vocabulary, Random random, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> vocabulary.get(random.nextInt(vocabulary.size())))
+                .collect(Collectors.joining(" "));
+    }
+}
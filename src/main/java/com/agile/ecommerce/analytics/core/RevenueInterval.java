@@ -0,0 +1,22 @@
+package com.agile.ecommerce.analytics.core;
+
+/**
+ * Length of the periods revenue is reported over. Weeks start on Monday.
+ */
+public enum RevenueInterval {
+    DAY("day"),
+    WEEK("week");
+
+    private final String field;
+
+    RevenueInterval(String field) {
+        this.field = field;
+    }
+
+    /**
+     * The PostgreSQL {@code date_trunc} field for the interval.
+     */
+    public String field() {
+        return field;
+    }
+}
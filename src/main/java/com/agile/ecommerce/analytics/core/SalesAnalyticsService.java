@@ -0,0 +1,47 @@
+package com.agile.ecommerce.analytics.core;
+
+import com.agile.ecommerce.analytics.data.SalesAnalyticsRepository;
+import com.agile.ecommerce.analytics.dto.OrderValueDto;
+import com.agile.ecommerce.analytics.dto.ProductSalesDto;
+import com.agile.ecommerce.analytics.dto.RevenuePeriodDto;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sales reports over the orders placed in a date range. Every bound is optional: {@code from} is inclusive and
+ * {@code to} exclusive, like the order export.
+ */
+@Component
+@AllArgsConstructor
+@Timed("ecommerce.service")
+public class SalesAnalyticsService {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private final SalesAnalyticsRepository repository;
+
+    /**
+     * The best-selling products, at most {@code limit} clamped to {@code [1, MAX_LIMIT]}.
+     */
+    public List<ProductSalesDto> topProducts(LocalDateTime from, LocalDateTime to, SalesRanking ranking, int limit) {
+        return repository.findTopProducts(from, to, ranking, Math.clamp(limit, 1, MAX_LIMIT));
+    }
+
+    public List<RevenuePeriodDto> revenue(LocalDateTime from, LocalDateTime to, RevenueInterval interval) {
+        return repository.findRevenueByPeriod(from, to, interval);
+    }
+
+    public OrderValueDto orderValue(LocalDateTime from, LocalDateTime to) {
+        var totals = repository.findOrderTotals(from, to);
+        var average = totals.orderCount() == 0
+                ? BigDecimal.ZERO
+                : totals.revenue().divide(BigDecimal.valueOf(totals.orderCount()), 2, RoundingMode.HALF_UP);
+        return new OrderValueDto(totals.orderCount(), totals.revenue(), average);
+    }
+}
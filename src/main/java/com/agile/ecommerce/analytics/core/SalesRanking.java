@@ -0,0 +1,9 @@
+package com.agile.ecommerce.analytics.core;
+
+/**
+ * What top products are ranked by.
+ */
+public enum SalesRanking {
+    REVENUE,
+    UNITS
+}
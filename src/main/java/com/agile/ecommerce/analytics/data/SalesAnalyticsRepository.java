@@ -0,0 +1,108 @@
+package com.agile.ecommerce.analytics.data;
+
+import com.agile.ecommerce.analytics.core.RevenueInterval;
+import com.agile.ecommerce.analytics.core.SalesRanking;
+import com.agile.ecommerce.analytics.dto.ProductSalesDto;
+import com.agile.ecommerce.analytics.dto.RevenuePeriodDto;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sales reports computed by aggregate queries in the database, which sends back one row per product or period rather
+ * than the orders themselves. Written in plain SQL for {@code date_trunc}, and so that each date bound is only in the
+ * query when it is given: an {@code is null or} condition would keep PostgreSQL from planning on the
+ * {@code orders(order_date, ...)} indexes once it switches to a generic plan.
+ * <p>
+ * Only orders with items count. Order revenue is read from the totals kept on {@code orders}, which the
+ * {@code idx_orders_order_date_totals} index covers, so the period and order value reports never touch
+ * {@code order_items}.
+ */
+@Repository
+@Timed("ecommerce.repository")
+public class SalesAnalyticsRepository {
+    private static final String TOP_PRODUCTS_SQL = """
+            with sales as (
+                select oi.product_id, sum(oi.quantity) as units, sum(oi.price * oi.quantity) as revenue
+                from order_items oi join orders o on o.id = oi.order_id
+                where true%s
+                group by oi.product_id
+                order by %s desc, oi.product_id
+                limit ?)
+            select s.product_id, p.name, s.units, s.revenue
+            from sales s join products p on p.id = s.product_id
+            order by s.%s desc, s.product_id""";
+    private static final String REVENUE_BY_PERIOD_SQL = """
+            select cast(date_trunc('%s', o.order_date) as date) as period, count(*) as orders, sum(o.total_amount) as revenue
+            from orders o
+            where o.item_count > 0%s
+            group by period
+            order by period""";
+    private static final String ORDER_VALUE_SQL = """
+            select count(*) as orders, coalesce(sum(o.total_amount), 0) as revenue
+            from orders o
+            where o.item_count > 0%s""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalesAnalyticsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The {@code limit} products that sold most in {@code [from, to)}, best first; ties go to the lowest id.
+     */
+    public List<ProductSalesDto> findTopProducts(LocalDateTime from, LocalDateTime to, SalesRanking ranking, int limit) {
+        var args = new ArrayList<>();
+        var column = ranking == SalesRanking.UNITS ? "units" : "revenue";
+        var sql = TOP_PRODUCTS_SQL.formatted(orderDateBetween(from, to, args), column, column);
+        args.add(limit);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new ProductSalesDto(
+                rs.getLong("product_id"), rs.getString("name"), rs.getLong("units"), rs.getBigDecimal("revenue")),
+                args.toArray());
+    }
+
+    /**
+     * Orders and revenue per {@code interval} in {@code [from, to)}, oldest first. Periods without orders are left
+     * out.
+     */
+    public List<RevenuePeriodDto> findRevenueByPeriod(LocalDateTime from, LocalDateTime to, RevenueInterval interval) {
+        var args = new ArrayList<>();
+        var sql = REVENUE_BY_PERIOD_SQL.formatted(interval.field(), orderDateBetween(from, to, args));
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new RevenuePeriodDto(
+                rs.getDate("period").toLocalDate(), rs.getLong("orders"), rs.getBigDecimal("revenue")),
+                args.toArray());
+    }
+
+    /**
+     * Number of orders in {@code [from, to)} and their revenue.
+     */
+    public OrderTotals findOrderTotals(LocalDateTime from, LocalDateTime to) {
+        var args = new ArrayList<>();
+        var sql = ORDER_VALUE_SQL.formatted(orderDateBetween(from, to, args));
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new OrderTotals(
+                rs.getLong("orders"), rs.getBigDecimal("revenue")), args.toArray());
+    }
+
+    private static String orderDateBetween(LocalDateTime from, LocalDateTime to, List<Object> args) {
+        var condition = new StringBuilder();
+        if (from != null) {
+            condition.append(" and o.order_date >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            condition.append(" and o.order_date < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        return condition.toString();
+    }
+
+    public record OrderTotals(long orderCount, BigDecimal revenue) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.agile.ecommerce.analytics.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Orders placed over a date range, their revenue and the average order value, rounded to cents; zero without orders.
+ */
+public record OrderValueDto(
+        long orderCount,
+        BigDecimal revenue,
+        BigDecimal averageOrderValue) {
+}
@@ -0,0 +1,14 @@
+package com.agile.ecommerce.analytics.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * What a product sold over a date range: units across all its order lines, and revenue at the prices they were sold
+ * at.
+ */
+public record ProductSalesDto(
+        long productId,
+        String productName,
+        long unitsSold,
+        BigDecimal revenue) {
+}
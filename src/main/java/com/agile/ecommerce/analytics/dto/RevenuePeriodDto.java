@@ -0,0 +1,13 @@
+package com.agile.ecommerce.analytics.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders placed and their revenue over one day or week, starting on {@code periodStart}.
+ */
+public record RevenuePeriodDto(
+        LocalDate periodStart,
+        long orderCount,
+        BigDecimal revenue) {
+}
@@ -0,0 +1,64 @@
+package com.agile.ecommerce.analytics.rest;
+
+import com.agile.ecommerce.analytics.core.RevenueInterval;
+import com.agile.ecommerce.analytics.core.SalesAnalyticsService;
+import com.agile.ecommerce.analytics.core.SalesRanking;
+import com.agile.ecommerce.analytics.dto.OrderValueDto;
+import com.agile.ecommerce.analytics.dto.ProductSalesDto;
+import com.agile.ecommerce.analytics.dto.RevenuePeriodDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/analytics")
+@Tag(name = "Analytics", description = "API for sales reports")
+public final class SalesAnalyticsController {
+    private final SalesAnalyticsService service;
+
+    @Operation(summary = "Get top products",
+            description = "The products that sold most in [from, to), by revenue or by units")
+    @ApiResponse(responseCode = "200", description = "Products ranked")
+    @GetMapping("/top-products")
+    public ResponseEntity<List<ProductSalesDto>> getTopProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "REVENUE") SalesRanking by,
+            @RequestParam(defaultValue = "" + SalesAnalyticsService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(service.topProducts(from, to, by, limit));
+    }
+
+    @Operation(summary = "Get revenue per period",
+            description = "Orders placed and revenue per day or week in [from, to), oldest first")
+    @ApiResponse(responseCode = "200", description = "Revenue computed")
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenuePeriodDto>> getRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") RevenueInterval interval) {
+        return ResponseEntity.ok(service.revenue(from, to, interval));
+    }
+
+    @Operation(summary = "Get average order value",
+            description = "Orders placed in [from, to), their revenue and average value")
+    @ApiResponse(responseCode = "200", description = "Average computed")
+    @GetMapping("/order-value")
+    public ResponseEntity<OrderValueDto> getOrderValue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.orderValue(from, to));
+    }
+}
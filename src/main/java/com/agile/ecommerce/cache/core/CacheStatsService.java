@@ -0,0 +1,44 @@
+package com.agile.ecommerce.cache.core;
+
+import com.agile.ecommerce.cache.dto.CacheRegionStats;
+import com.agile.ecommerce.config.SecondLevelCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@AllArgsConstructor
+@Timed("ecommerce.service")
+public class CacheStatsService {
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager secondLevelCacheManager;
+    private final SecondLevelCacheProperties properties;
+
+    /**
+     * One entry per configured region, in name order. Hit, miss and put counts stay at zero until Hibernate first
+     * uses the region.
+     */
+    public List<CacheRegionStats> regions() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return properties.regions().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> {
+                    var name = entry.getKey();
+                    var regionStatistics = statistics.getCacheRegionStatistics(name);
+                    var cache = secondLevelCacheManager.getCache(name);
+                    var size = cache == null ? 0 : cache.unwrap(Cache.class).estimatedSize();
+                    return regionStatistics == null
+                            ? new CacheRegionStats(name, size, entry.getValue().maximumSize(), 0, 0, 0)
+                            : new CacheRegionStats(name, size, entry.getValue().maximumSize(),
+                            regionStatistics.getHitCount(), regionStatistics.getMissCount(), regionStatistics.getPutCount());
+                })
+                .toList();
+    }
+}
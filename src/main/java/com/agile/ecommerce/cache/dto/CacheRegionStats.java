@@ -0,0 +1,19 @@
+package com.agile.ecommerce.cache.dto;
+
+/**
+ * Counters of one Hibernate second-level cache region since startup.
+ *
+ * @param size        entries currently held, approximately
+ * @param maximumSize configured bound on {@code size}
+ * @param hitCount    lookups served by the region
+ * @param missCount   lookups that went to the database
+ * @param putCount    entries written to the region
+ */
+public record CacheRegionStats(
+        String region,
+        long size,
+        long maximumSize,
+        long hitCount,
+        long missCount,
+        long putCount) {
+}
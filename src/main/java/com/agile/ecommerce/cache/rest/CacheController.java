@@ -0,0 +1,30 @@
+package com.agile.ecommerce.cache.rest;
+
+import com.agile.ecommerce.cache.core.CacheStatsService;
+import com.agile.ecommerce.cache.dto.CacheRegionStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Cache", description = "Second-level cache statistics")
+public final class CacheController {
+    private final CacheStatsService service;
+
+    @Operation(summary = "Get second-level cache region statistics",
+            description = "Size, bound and hit, miss and put counts of every Hibernate cache region")
+    @ApiResponse(responseCode = "200", description = "Statistics of every configured region")
+    @GetMapping("/regions")
+    public ResponseEntity<List<CacheRegionStats>> getRegions() {
+        return ResponseEntity.ok(service.regions());
+    }
+}
@@ -1,9 +1,19 @@
 package com.agile.ecommerce.config;
 
+import com.agile.ecommerce.idempotency.exception.IdempotencyKeyReusedException;
+import com.agile.ecommerce.idempotency.exception.IdempotentRequestInProgressException;
+import com.agile.ecommerce.idempotency.exception.InvalidIdempotencyKeyException;
+import com.agile.ecommerce.order.exception.OrderIntakeFullException;
+import com.agile.ecommerce.order.exception.OrderIntakeNotFoundException;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
 import com.agile.ecommerce.orderItem.exception.OrderItemNotFoundException;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
+import com.agile.ecommerce.product.exception.ProductImportException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -33,6 +43,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(OrderIntakeNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleOrderIntakeNotFoundException(OrderIntakeNotFoundException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(OrderIntakeFullException.class)
+    public ResponseEntity<Map<String, String>> handleOrderIntakeFullException(OrderIntakeFullException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+
     @ExceptionHandler(OrderItemNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleOrderItemNotFoundException(OrderItemNotFoundException ex) {
         var error = new HashMap<String, String>();
@@ -46,4 +70,53 @@ public class GlobalExceptionHandler {
         error.put("error", ex.getMessage());
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursorException(InvalidCursorException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ProductImportException.class)
+    public ResponseEntity<Map<String, String>> handleProductImportException(ProductImportException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, String>> handleInsufficientStockException(InsufficientStockException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidIdempotencyKeyException(InvalidIdempotencyKeyException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotentRequestInProgressException(IdempotentRequestInProgressException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        var error = new HashMap<String, String>();
+        error.put("error", "The resource was modified concurrently, please retry");
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
 }
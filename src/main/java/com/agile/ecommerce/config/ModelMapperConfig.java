@@ -6,6 +6,8 @@ import com.agile.ecommerce.orderItem.domain.OrderItem;
 import com.agile.ecommerce.orderItem.dto.OrderItemDto;
 import com.agile.ecommerce.product.domain.Product;
 import com.agile.ecommerce.product.dto.ProductDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.modelmapper.Converter;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
@@ -15,49 +17,84 @@ import org.springframework.context.annotation.Configuration;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * The reflective {@link ModelMapper}, used when {@code ecommerce.mapping.model-mapper-fallback=true}. Its converters
+ * are timed as {@value #MAPPER_TIMER}, with the same tags the direct order and product mappers' {@code @Timed} gets.
+ */
 @Configuration
 public class ModelMapperConfig {
+    static final String MAPPER_TIMER = "ecommerce.mapper";
 
     @Bean
-    public ModelMapper modelMapper() {
+    public ModelMapper modelMapper(MeterRegistry meterRegistry) {
         var modelMapper = new ModelMapper();
         modelMapper.getConfiguration()
                 .setMatchingStrategy(MatchingStrategies.STRICT)
                 .setFieldMatchingEnabled(true)
                 .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
 
-        modelMapper.addConverter(orderItemToOrderItemDtoConverter());
-        modelMapper.addConverter(orderToOrderDtoConverter(modelMapper));
-        modelMapper.addConverter(productToProductDtoConverter());
+        // Types are given explicitly: ModelMapper cannot resolve them from a lambda.
+        modelMapper.addConverter(timed(meterRegistry, "orderItemToOrderItemDto", orderItemToOrderItemDtoConverter()),
+                OrderItem.class, OrderItemDto.class);
+        modelMapper.addConverter(timed(meterRegistry, "orderToOrderDto", orderToOrderDtoConverter()),
+                Order.class, OrderDto.class);
+        modelMapper.addConverter(timed(meterRegistry, "productToProductDto", productToProductDtoConverter()),
+                Product.class, ProductDto.class);
 
         return modelMapper;
     }
 
-    private Converter<OrderItem, OrderItemDto> orderItemToOrderItemDtoConverter() {
+    // The timer for successful conversions is built once; one per exception type only when a conversion fails.
+    private static <S, D> Converter<S, D> timed(MeterRegistry meterRegistry, String method, Converter<S, D> converter) {
+        var timer = mapperTimer(meterRegistry, method, "none");
         return context -> {
-            var source = context.getSource();
-            return new OrderItemDto(
-                    source.getProduct().getId(),
-                    source.getProduct().getName(),
-                    source.getQuantity(),
-                    source.getPrice(),
-                    source.getOrder().getId()
-            );
+            var sample = Timer.start(meterRegistry);
+            try {
+                var result = converter.convert(context);
+                sample.stop(timer);
+                return result;
+            } catch (RuntimeException e) {
+                sample.stop(mapperTimer(meterRegistry, method, e.getClass().getSimpleName()));
+                throw e;
+            }
         };
     }
 
-    private Converter<Order, OrderDto> orderToOrderDtoConverter(ModelMapper modelMapper) {
+    private static Timer mapperTimer(MeterRegistry meterRegistry, String method, String exception) {
+        return Timer.builder(MAPPER_TIMER)
+                .tags("class", ModelMapperConfig.class.getName(), "method", method, "exception", exception)
+                .register(meterRegistry);
+    }
+
+    private Converter<OrderItem, OrderItemDto> orderItemToOrderItemDtoConverter() {
+        return context -> toOrderItemDto(context.getSource());
+    }
+
+    private static OrderItemDto toOrderItemDto(OrderItem source) {
+        return new OrderItemDto(
+                source.getProduct().getId(),
+                source.getProduct().getName(),
+                source.getQuantity(),
+                source.getPrice(),
+                source.getOrder().getId()
+        );
+    }
+
+    // Lines are converted directly rather than re-entering modelMapper.map once per item.
+    private Converter<Order, OrderDto> orderToOrderDtoConverter() {
         return context -> {
             var source = context.getSource();
             List<OrderItemDto> orderItemDtos = source.getOrderItems().stream()
-                    .map(item -> modelMapper.map(item, OrderItemDto.class))
+                    .map(ModelMapperConfig::toOrderItemDto)
                     .collect(Collectors.toList());
             return new OrderDto(
                     source.getId(),
                     source.getOrderDate(),
                     source.getCustomerName(),
                     source.getCustomerAddress(),
-                    orderItemDtos
+                    orderItemDtos,
+                    source.getTotalAmount(),
+                    source.getItemCount()
             );
         };
     }
@@ -0,0 +1,78 @@
+package com.agile.ecommerce.config;
+
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.mapper.OrderMapper;
+import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.orderItem.mapper.OrderItemMapper;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.mapper.ProductMapper;
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Routes all dto mapping back through the reflective {@link ModelMapper} when
+ * {@code ecommerce.mapping.model-mapper-fallback=true}. Off by default.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ecommerce.mapping", name = "model-mapper-fallback", havingValue = "true")
+public class ModelMapperFallbackConfig {
+
+    @Bean
+    @Primary
+    public ProductMapper modelMapperProductMapper(ModelMapper modelMapper) {
+        return new ProductMapper() {
+            @Override
+            public ProductDto toDto(Product product) {
+                return modelMapper.map(product, ProductDto.class);
+            }
+
+            @Override
+            public Product toEntity(ProductDto dto) {
+                return modelMapper.map(dto, Product.class);
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public OrderItemMapper modelMapperOrderItemMapper(ModelMapper modelMapper) {
+        return new OrderItemMapper() {
+            @Override
+            public OrderItemDto toDto(OrderItem orderItem) {
+                return modelMapper.map(orderItem, OrderItemDto.class);
+            }
+
+            @Override
+            public OrderItem toEntity(OrderItemDto dto) {
+                return modelMapper.map(dto, OrderItem.class);
+            }
+
+            @Override
+            public void copyInto(OrderItemDto dto, OrderItem orderItem) {
+                modelMapper.map(dto, orderItem);
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public OrderMapper modelMapperOrderMapper(ModelMapper modelMapper) {
+        return new OrderMapper() {
+            @Override
+            public OrderDto toDto(Order order) {
+                return modelMapper.map(order, OrderDto.class);
+            }
+
+            @Override
+            public Order toEntity(OrderDto dto) {
+                return modelMapper.map(dto, Order.class);
+            }
+        };
+    }
+}
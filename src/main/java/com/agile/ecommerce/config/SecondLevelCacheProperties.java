@@ -0,0 +1,22 @@
+package com.agile.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache regions, by region name. Every region Hibernate uses must be listed: a missing one
+ * fails startup rather than silently growing without bound.
+ */
+@ConfigurationProperties(prefix = "ecommerce.second-level-cache")
+public record SecondLevelCacheProperties(@DefaultValue Map<String, Region> regions) {
+
+    /**
+     * @param maximumSize      entries kept before the least valuable are evicted
+     * @param expireAfterWrite how long an entry lives, or {@code null} to keep it until evicted for size
+     */
+    public record Region(@DefaultValue("1000") long maximumSize, Duration expireAfterWrite) {
+    }
+}
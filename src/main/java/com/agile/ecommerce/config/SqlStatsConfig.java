@@ -0,0 +1,36 @@
+package com.agile.ecommerce.config;
+
+import com.agile.ecommerce.sqlstats.core.StatementStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's data source in a {@link StatementStatisticsDataSource} feeding {@link StatementStatistics},
+ * unless {@code ecommerce.sql-stats.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.sql-stats.enabled", matchIfMissing = true)
+public class SqlStatsConfig {
+
+    @Bean
+    public static BeanPostProcessor statementStatisticsRecorder(ObjectProvider<StatementStatistics> statistics) {
+        // looked up on the first statement, as the data source is wrapped before the statistics can be created
+        var recorder = SingletonSupplier.of(statistics::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementStatisticsDataSource)) {
+                    return new StatementStatisticsDataSource(dataSource,
+                            execution -> recorder.obtain().record(execution));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,261 @@
+package com.agile.ecommerce.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Reports every statement run on the target's connections to {@code listener}, once it is done: its SQL, how long it
+ * took to execute, the rows it returned or changed, and the size of its batch. Rows of a query are counted as they are
+ * read and reported when its result set or statement is closed; the time is that of the execute call alone.
+ * <p>
+ * The SQL reported is the text prepared, whose bind parameters are placeholders; the literals of plain statements are
+ * replaced with {@code ?} as well, so that no value reaches the listener and statements differing in values alone are
+ * reported alike. Work done on the unwrapped driver connection, such as {@code COPY}, is not seen.
+ */
+public class StatementStatisticsDataSource extends DelegatingDataSource {
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    private final Consumer<Execution> listener;
+
+    public StatementStatisticsDataSource(DataSource target, Consumer<Execution> listener) {
+        super(target);
+        this.listener = listener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * {@code sql} with its string and number literals replaced with {@code ?}.
+     */
+    static String redact(String sql) {
+        return LITERALS.matcher(sql).replaceAll("?");
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            var result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> new Tracker(null).proxy(Statement.class, (Statement) result);
+                case "prepareStatement" ->
+                        new Tracker((String) args[0]).proxy(PreparedStatement.class, (Statement) result);
+                case "prepareCall" -> new Tracker((String) args[0]).proxy(CallableStatement.class, (Statement) result);
+                default -> result;
+            };
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, args)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * A statement run, as reported to the listener.
+     *
+     * @param sql            the statement, without values
+     * @param elapsedNanos   time spent in the execute call
+     * @param rows           rows read from its result, or the rows it inserted, updated or deleted
+     * @param batchSize      statements sent in one batch, or 0 if it was not batched
+     * @param parameterCount bind parameters set, the highest index for a prepared statement
+     */
+    public record Execution(String sql, long elapsedNanos, long rows, int batchSize, int parameterCount) {
+    }
+
+    /**
+     * Follows one statement through its batches, executions and result sets. Statements are used by one thread at a
+     * time, so it needs no locking.
+     */
+    private final class Tracker {
+        private final String preparedSql;
+        private final List<String> batchedSql = new ArrayList<>();
+        private int batched;
+        private int parameterCount;
+        // the execution whose result set is still being read
+        private Pending pending;
+
+        Tracker(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        <T extends Statement> T proxy(Class<T> type, Statement target) {
+            return StatementStatisticsDataSource.proxy(type, target, (method, args) -> {
+                var name = method.getName();
+                if (name.startsWith("execute")) {
+                    return execute(target, method, args);
+                }
+                switch (name) {
+                    case "addBatch" -> {
+                        if (args == null) {
+                            batched++;
+                        } else {
+                            batchedSql.add(redact((String) args[0]));
+                        }
+                    }
+                    case "clearBatch" -> clearBatch();
+                    case "getResultSet" -> {
+                        var resultSet = (ResultSet) invoke(target, method, args);
+                        return pending == null || resultSet == null ? resultSet : pending.count(resultSet);
+                    }
+                    case "close" -> finishPending();
+                    default -> {
+                        // setInt(1, ...), setNull(2, ...) and the like; setFetchSize(n) and other settings take one
+                        if (name.startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer index) {
+                            parameterCount = Math.max(parameterCount, index);
+                        }
+                    }
+                }
+                return invoke(target, method, args);
+            });
+        }
+
+        private Object execute(Statement target, Method method, Object[] args) throws Throwable {
+            finishPending();
+            boolean batch = method.getName().endsWith("Batch");
+            String sql;
+            int batchSize;
+            if (batch) {
+                sql = preparedSql != null ? preparedSql : String.join("; ", new LinkedHashSet<>(batchedSql));
+                batchSize = preparedSql != null ? batched : batchedSql.size();
+                clearBatch();
+            } else {
+                sql = args != null && args.length > 0 ? redact((String) args[0]) : preparedSql;
+                batchSize = 0;
+            }
+            int parameters = preparedSql == null ? 0 : parameterCount;
+            long began = System.nanoTime();
+            Object result;
+            try {
+                result = invoke(target, method, args);
+            } catch (Throwable e) {
+                listener.accept(new Execution(sql, System.nanoTime() - began, 0, batchSize, parameters));
+                throw e;
+            }
+            long elapsed = System.nanoTime() - began;
+            return switch (result) {
+                case ResultSet resultSet -> {
+                    pending = new Pending(sql, elapsed, parameters);
+                    yield pending.count(resultSet);
+                }
+                case Boolean hasResultSet when hasResultSet -> {
+                    pending = new Pending(sql, elapsed, parameters);
+                    yield true;
+                }
+                case Boolean ignored -> {
+                    listener.accept(new Execution(sql, elapsed, Math.max(target.getUpdateCount(), 0), 0, parameters));
+                    yield false;
+                }
+                case int[] counts -> {
+                    long rows = 0;
+                    for (int count : counts) {
+                        rows += Math.max(count, 0);
+                    }
+                    listener.accept(new Execution(sql, elapsed, rows, batchSize, parameters));
+                    yield counts;
+                }
+                case long[] counts -> {
+                    long rows = 0;
+                    for (long count : counts) {
+                        rows += Math.max(count, 0);
+                    }
+                    listener.accept(new Execution(sql, elapsed, rows, batchSize, parameters));
+                    yield counts;
+                }
+                case Number count -> {
+                    listener.accept(new Execution(sql, elapsed, Math.max(count.longValue(), 0), 0, parameters));
+                    yield count;
+                }
+                case null, default -> result;
+            };
+        }
+
+        private void clearBatch() {
+            batched = 0;
+            batchedSql.clear();
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.finish();
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * A query whose rows are still being read.
+     */
+    private final class Pending {
+        private final String sql;
+        private final long elapsedNanos;
+        private final int parameterCount;
+        private long rows;
+        private boolean finished;
+
+        Pending(String sql, long elapsedNanos, int parameterCount) {
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.parameterCount = parameterCount;
+        }
+
+        ResultSet count(ResultSet target) {
+            return proxy(ResultSet.class, target, (method, args) -> {
+                var result = invoke(target, method, args);
+                switch (method.getName()) {
+                    case "next" -> {
+                        if ((Boolean) result) {
+                            rows++;
+                        }
+                    }
+                    case "close" -> finish();
+                    default -> {
+                    }
+                }
+                return result;
+            });
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                listener.accept(new Execution(sql, elapsedNanos, rows, 0, parameterCount));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+}
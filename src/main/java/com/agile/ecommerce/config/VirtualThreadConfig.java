@@ -0,0 +1,51 @@
+package com.agile.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Applies when {@code spring.threads.virtual.enabled=true}. Spring Boot then serves requests, {@code @Async} methods,
+ * streamed responses and {@code @Scheduled} tasks on virtual threads; with no thread pool left to bound them, the
+ * Hikari data source is wrapped in a {@link ConcurrencyLimitingDataSource} sized to the pool, so that thousands of
+ * virtual threads queue for a connection in order instead of timing out against the pool all at once.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BeanPostProcessor jdbcConcurrencyLimiter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // the data source may already be wrapped, see SqlStatsConfig
+                if (bean instanceof DataSource dataSource && innermost(dataSource) instanceof HikariDataSource hikari) {
+                    if (hikari.getMaximumPoolSize() < 1) {
+                        // Hikari fills in its default only once the pool starts; settle it now so both limits agree
+                        hikari.setMaximumPoolSize(HIKARI_DEFAULT_POOL_SIZE);
+                    }
+                    return new ConcurrencyLimitingDataSource(dataSource, hikari.getMaximumPoolSize(),
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static DataSource innermost(DataSource dataSource) {
+        var target = dataSource;
+        while (target instanceof DelegatingDataSource delegating) {
+            target = delegating.getTargetDataSource();
+        }
+        return target;
+    }
+}
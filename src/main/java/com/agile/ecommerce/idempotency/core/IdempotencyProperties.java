@@ -0,0 +1,20 @@
+package com.agile.ecommerce.idempotency.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of {@link IdempotencyService}.
+ *
+ * @param retention       how long a key is remembered after its request completed
+ * @param maximumSize     responses kept in memory; older ones are read back from the database when retried
+ * @param inFlightTimeout how long a duplicate waits for the request it repeats before answering that it is in progress
+ */
+@ConfigurationProperties(prefix = "ecommerce.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("24h") Duration retention,
+        @DefaultValue("100000") long maximumSize,
+        @DefaultValue("30s") Duration inFlightTimeout) {
+}
@@ -0,0 +1,296 @@
+package com.agile.ecommerce.idempotency.core;
+
+import com.agile.ecommerce.idempotency.data.IdempotencyRecordRepository;
+import com.agile.ecommerce.idempotency.domain.IdempotencyRecordId;
+import com.agile.ecommerce.idempotency.exception.IdempotencyKeyReusedException;
+import com.agile.ecommerce.idempotency.exception.IdempotentRequestInProgressException;
+import com.agile.ecommerce.idempotency.exception.InvalidIdempotencyKeyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Remembers the response to each request sent with an {@code Idempotency-Key}, so that a client retrying after a
+ * timeout gets the original response rather than a second order. Responses are kept in memory and in the
+ * {@code idempotency_keys} table, which answers retries that reach an instance that does not have them in memory, for
+ * instance after a restart. Duplicates that arrive while the first request is still running wait for its response
+ * instead of running too.
+ * <p>
+ * A claim inserts the key's row in a transaction that the request's work joins, and the response is filled in before
+ * that transaction commits: the key and what the request did are committed together or not at all. Only successful
+ * responses are therefore remembered, and a request that fails may be retried with the same key. A duplicate on
+ * another instance waits on the row until the first request commits or rolls back.
+ */
+@Slf4j
+@Component
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final Clock clock;
+    private final Cache<IdempotencyRecordId, StoredResponse> completed;
+    private final ConcurrentHashMap<IdempotencyRecordId, CompletableFuture<StoredResponse>> inFlight =
+            new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              IdempotencyProperties properties, PlatformTransactionManager transactionManager) {
+        this(repository, objectMapper, properties, transactionManager, Clock.systemUTC());
+    }
+
+    IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                       IdempotencyProperties properties, PlatformTransactionManager transactionManager, Clock clock) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.transactionManager = transactionManager;
+        this.clock = clock;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new RetentionExpiry())
+                .build();
+    }
+
+    /**
+     * Claims {@code key} for running {@code request} in {@code scope}. The result is either a replay of the response
+     * already given to the key, or a claim that the caller must {@link IdempotentRequest#complete complete} with its
+     * response or close to release. A claim opens the transaction that the request's work joins, on the calling
+     * thread. A duplicate of a request still running waits for its response. Without a key, every request runs.
+     *
+     * @throws IdempotencyKeyReusedException        if the key was used for a request with a different body
+     * @throws IdempotentRequestInProgressException if the request it repeats is still running after the in-flight
+     *                                              timeout
+     */
+    @Timed("ecommerce.service")
+    public IdempotentRequest claim(String scope, String key, Object request)
+            throws InvalidIdempotencyKeyException, IdempotencyKeyReusedException, IdempotentRequestInProgressException {
+        if (key == null) {
+            return IdempotentRequest.untracked();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters long.");
+        }
+        var id = new IdempotencyRecordId(scope, key);
+        var fingerprint = fingerprint(request);
+        long deadline = System.nanoTime() + properties.inFlightTimeout().toNanos();
+        while (true) {
+            var stored = find(id);
+            if (stored != null) {
+                return replay(stored, key, fingerprint);
+            }
+            var claim = new CompletableFuture<StoredResponse>();
+            var running = inFlight.putIfAbsent(id, claim);
+            if (running == null) {
+                // the previous owner may have completed between the lookup and the claim
+                stored = completed.getIfPresent(id);
+                if (stored != null) {
+                    release(id, claim);
+                    return replay(stored, key, fingerprint);
+                }
+                TransactionStatus transaction;
+                try {
+                    transaction = begin(id, fingerprint);
+                } catch (RuntimeException e) {
+                    release(id, claim);
+                    claim.completeExceptionally(e);
+                    throw e;
+                }
+                if (transaction != null) {
+                    return new IdempotentRequest(this, id, fingerprint, claim, transaction);
+                }
+                // another instance answered the key since the lookup: the next one finds its response
+                release(id, claim);
+                claim.completeExceptionally(new IllegalStateException("Idempotency key " + key + " answered elsewhere"));
+                continue;
+            }
+            stored = await(running, key, deadline);
+            if (stored != null) {
+                return replay(stored, key, fingerprint);
+            }
+            // the request failed and released the key: try to claim it for this one
+        }
+    }
+
+    /**
+     * Deletes the keys older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.idempotency.purge-interval:PT10M}")
+    @Timed("ecommerce.service")
+    public void purgeExpired() {
+        var purged = repository.deleteCreatedBefore(clock.instant().minus(properties.retention()));
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Fills in the response of the claimed key and commits the claim's transaction, or rolls it back if the response
+     * cannot be stored.
+     */
+    StoredResponse store(IdempotencyRecordId id, String fingerprint, HttpStatus status, Object body,
+                         TransactionStatus transaction) {
+        var createdAt = clock.instant();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+            repository.complete(id, status.value(), json, createdAt);
+        } catch (JsonProcessingException e) {
+            transactionManager.rollback(transaction);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+        transactionManager.commit(transaction);
+        var stored = new StoredResponse(fingerprint, status.value(), json, createdAt);
+        completed.put(id, stored);
+        return stored;
+    }
+
+    void release(IdempotencyRecordId id, CompletableFuture<StoredResponse> claim) {
+        inFlight.remove(id, claim);
+    }
+
+    void rollback(TransactionStatus transaction) {
+        transactionManager.rollback(transaction);
+    }
+
+    <T> T read(StoredResponse stored, Class<T> type) {
+        try {
+            return objectMapper.readValue(stored.body(), type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StoredResponse find(IdempotencyRecordId id) {
+        var stored = completed.getIfPresent(id);
+        if (stored != null) {
+            return stored;
+        }
+        var retainedSince = clock.instant().minus(properties.retention());
+        stored = repository.findById(id)
+                .filter(record -> record.getCreatedAt().isAfter(retainedSince))
+                .map(record -> new StoredResponse(record.getRequestFingerprint(), record.getStatus(), record.getBody(),
+                        record.getCreatedAt()))
+                .orElse(null);
+        if (stored != null) {
+            completed.put(id, stored);
+        }
+        return stored;
+    }
+
+    /**
+     * Starts the transaction for a claim and inserts the key's row in it, taking over a row that has expired. Returns
+     * null if the key holds a response retained, which may have been committed by another instance only just now.
+     */
+    private TransactionStatus begin(IdempotencyRecordId id, String fingerprint) {
+        var transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        int claimed;
+        try {
+            var now = clock.instant();
+            claimed = repository.claim(id, fingerprint, now, now.minus(properties.retention()));
+        } catch (RuntimeException e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+        if (claimed == 0) {
+            transactionManager.rollback(transaction);
+            return null;
+        }
+        return transaction;
+    }
+
+    private IdempotentRequest replay(StoredResponse stored, String key, String fingerprint)
+            throws IdempotencyKeyReusedException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        return IdempotentRequest.replay(this, stored);
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> running, String key, long deadline)
+            throws IdempotentRequestInProgressException {
+        try {
+            return running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(key);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * SHA-256 of the request as JSON, to tell a retry from a different request that reuses the key.
+     */
+    String fingerprint(Object request) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record StoredResponse(String fingerprint, int status, String body, Instant createdAt) {
+    }
+
+    /**
+     * Keeps a response in memory until the key expires, counting from when it was first stored rather than from when
+     * it was loaded back from the database.
+     */
+    private final class RetentionExpiry implements Expiry<IdempotencyRecordId, StoredResponse> {
+        @Override
+        public long expireAfterCreate(IdempotencyRecordId id, StoredResponse stored, long currentTime) {
+            var left = Duration.between(clock.instant(), stored.createdAt().plus(properties.retention()));
+            return Math.max(0, left.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(IdempotencyRecordId id, StoredResponse stored, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(id, stored, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(IdempotencyRecordId id, StoredResponse stored, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.agile.ecommerce.idempotency.core;
+
+import com.agile.ecommerce.idempotency.domain.IdempotencyRecordId;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A request's hold on its {@code Idempotency-Key}, from {@link IdempotencyService#claim}. Either a replay of the
+ * response already given to the key, or a claim to run the request and {@link #complete} it with the response; a claim
+ * closed without completing rolls back what the request did and releases the key for a retry. The request's work runs
+ * in the claim's transaction, so it must run on the thread that claimed. Meant for try-with-resources:
+ * <pre>{@code
+ * try (var request = idempotencyService.claim("orders", key, dto)) {
+ *     if (request.isReplay()) {
+ *         return request.replay(OrderDto.class);
+ *     }
+ *     return request.complete(HttpStatus.CREATED, service.add(dto));
+ * }
+ * }</pre>
+ */
+public final class IdempotentRequest implements AutoCloseable {
+    private final IdempotencyService service;
+    private final IdempotencyRecordId id;
+    private final String fingerprint;
+    private final CompletableFuture<IdempotencyService.StoredResponse> claim;
+    private final IdempotencyService.StoredResponse replayed;
+    // the claim's transaction until it is committed or rolled back
+    private TransactionStatus transaction;
+
+    IdempotentRequest(IdempotencyService service, IdempotencyRecordId id, String fingerprint,
+                      CompletableFuture<IdempotencyService.StoredResponse> claim, TransactionStatus transaction) {
+        this(service, id, fingerprint, claim, transaction, null);
+    }
+
+    private IdempotentRequest(IdempotencyService service, IdempotencyRecordId id, String fingerprint,
+                              CompletableFuture<IdempotencyService.StoredResponse> claim, TransactionStatus transaction,
+                              IdempotencyService.StoredResponse replayed) {
+        this.service = service;
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.claim = claim;
+        this.transaction = transaction;
+        this.replayed = replayed;
+    }
+
+    static IdempotentRequest untracked() {
+        return new IdempotentRequest(null, null, null, null, null, null);
+    }
+
+    static IdempotentRequest replay(IdempotencyService service, IdempotencyService.StoredResponse replayed) {
+        return new IdempotentRequest(service, null, null, null, null, replayed);
+    }
+
+    public boolean isReplay() {
+        return replayed != null;
+    }
+
+    /**
+     * The response first given to the key, flagged with the {@value IdempotencyService#REPLAYED_HEADER} header.
+     *
+     * @throws IllegalStateException if this is not a replay
+     */
+    public <T> ResponseEntity<T> replay(Class<T> type) {
+        if (replayed == null) {
+            throw new IllegalStateException("Not a replay");
+        }
+        return ResponseEntity.status(replayed.status())
+                .header(IdempotencyService.REPLAYED_HEADER, "true")
+                .body(service.read(replayed, type));
+    }
+
+    /**
+     * Stores the response for the key and commits it with the request's work, then hands it to the duplicates waiting
+     * for it and returns it.
+     */
+    public <T> ResponseEntity<T> complete(HttpStatus status, T body) {
+        if (claim != null && !claim.isDone()) {
+            var claimed = transaction;
+            // committed or rolled back by the store, whichever way it ends
+            transaction = null;
+            var stored = service.store(id, fingerprint, status, body, claimed);
+            service.release(id, claim);
+            claim.complete(stored);
+        }
+        return ResponseEntity.status(status).body(body);
+    }
+
+    /**
+     * Rolls back and releases the key if the request was not completed, so that a waiting duplicate or a later retry
+     * runs it.
+     */
+    @Override
+    public void close() {
+        if (claim != null && !claim.isDone()) {
+            try {
+                if (transaction != null) {
+                    service.rollback(transaction);
+                    transaction = null;
+                }
+            } finally {
+                service.release(id, claim);
+                claim.completeExceptionally(new IllegalStateException("Request with idempotency key " + id.key() + " failed"));
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.agile.ecommerce.idempotency.data;
+
+import com.agile.ecommerce.idempotency.domain.IdempotencyRecord;
+import com.agile.ecommerce.idempotency.domain.IdempotencyRecordId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecordId> {
+
+    /**
+     * Claims the key for a request about to run in the caller's transaction: inserts its row without a response, or
+     * takes over a row created before {@code retainedSince}. Waits while another transaction holds a claim on the key,
+     * in one statement rather than the select and insert of {@code save} with an assigned id.
+     *
+     * @return 1 if claimed, 0 if the key holds a retained response
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = """
+            insert into idempotency_keys (scope, idempotency_key, request_fingerprint, created_at)
+            values (:#{#id.scope}, :#{#id.key}, :fingerprint, :createdAt)
+            on conflict (scope, idempotency_key) do update
+                set request_fingerprint = excluded.request_fingerprint, status = null, body = null,
+                    created_at = excluded.created_at
+                where idempotency_keys.created_at < :retainedSince""", nativeQuery = true)
+    int claim(IdempotencyRecordId id, String fingerprint, Instant createdAt, Instant retainedSince);
+
+    /**
+     * Fills in the response of a key claimed in the caller's transaction.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("update IdempotencyRecord r set r.status = :status, r.body = :body, r.createdAt = :createdAt where r.id = :id")
+    int complete(IdempotencyRecordId id, int status, String body, Instant createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(Instant before);
+}
@@ -0,0 +1,30 @@
+package com.agile.ecommerce.idempotency.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The response given to a request sent with an {@code Idempotency-Key}, kept so that a retry of the request gets the
+ * same response instead of doing the work again. The response is missing only while the claim that inserted the row
+ * has not committed.
+ */
+@Entity
+@Data
+@Table(name = "idempotency_keys")
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+    @EmbeddedId
+    private IdempotencyRecordId id;
+    @Column(nullable = false, length = 44)
+    private String requestFingerprint;
+    private Integer status;
+    @Column(columnDefinition = "text")
+    private String body;
+    @Column(nullable = false)
+    private Instant createdAt;
+}
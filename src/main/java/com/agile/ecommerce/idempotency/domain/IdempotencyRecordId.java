@@ -0,0 +1,16 @@
+package com.agile.ecommerce.idempotency.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+
+/**
+ * An {@code Idempotency-Key} within the endpoint it was sent to, so that the same key may be used for an order and an
+ * order item.
+ */
+@Embeddable
+public record IdempotencyRecordId(
+        @Column(nullable = false, length = 32) String scope,
+        @Column(name = "idempotency_key", nullable = false) String key) implements Serializable {
+}
@@ -0,0 +1,7 @@
+package com.agile.ecommerce.idempotency.exception;
+
+public class IdempotencyKeyReusedException extends Exception{
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key " + key + " was already used for a different request.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.agile.ecommerce.idempotency.exception;
+
+public class IdempotentRequestInProgressException extends Exception{
+    public IdempotentRequestInProgressException(String key) {
+        super("A request with idempotency key " + key + " is still being processed, please retry.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.agile.ecommerce.idempotency.exception;
+
+public class InvalidIdempotencyKeyException extends Exception{
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.agile.ecommerce.order.core;
+
+public enum OrderExportFormat {
+    /** One {@code OrderDto} JSON object per line, items included. */
+    NDJSON,
+    /** A header row, then one record per order line with the order's columns repeated. */
+    CSV;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+}
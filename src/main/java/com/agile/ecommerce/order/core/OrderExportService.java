@@ -0,0 +1,117 @@
+package com.agile.ecommerce.order.core;
+
+import com.agile.ecommerce.order.data.OrderRepository;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.dto.OrderExportRow;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes orders placed in a date range in one pass over a database cursor. Memory use is bounded by the cursor's
+ * fetch size and a single order, however many orders are exported.
+ */
+@Component
+@AllArgsConstructor
+@Timed("ecommerce.service")
+public class OrderExportService {
+    static final String CSV_HEADER =
+            "order_id,order_date,customer_name,customer_address,product_id,product_name,quantity,price";
+
+    private final OrderRepository repository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param from inclusive lower bound on the order date, or {@code null}
+     * @param to   exclusive upper bound on the order date, or {@code null}
+     */
+    @Transactional(readOnly = true)
+    public void export(LocalDateTime from, LocalDateTime to, OrderExportFormat format, OutputStream output)
+            throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (var rows = repository.streamExportRows(from, to)) {
+            switch (format) {
+                case NDJSON -> writeNdjson(rows.iterator(), writer);
+                case CSV -> writeCsv(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        OrderExportRow order = null;
+        var items = new ArrayList<OrderItemDto>();
+        while (rows.hasNext()) {
+            var row = rows.next();
+            if (order != null && order.orderId() != row.orderId()) {
+                writeOrder(order, items, writer);
+                items.clear();
+                order = null;
+            }
+            if (order == null) {
+                order = row;
+            }
+            if (row.productId() != null) {
+                items.add(new OrderItemDto(row.productId(), row.productName(), row.quantity(), row.price(), row.orderId()));
+            }
+        }
+        if (order != null) {
+            writeOrder(order, items, writer);
+        }
+    }
+
+    private void writeOrder(OrderExportRow order, List<OrderItemDto> items, Writer writer) throws IOException {
+        var dto = new OrderDto(order.orderId(), order.orderDate(), order.customerName(), order.customerAddress(), items);
+        writer.write(objectMapper.writeValueAsString(dto));
+        writer.write('\n');
+    }
+
+    private static void writeCsv(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            var row = rows.next();
+            writer.write(String.valueOf(row.orderId()));
+            writer.write(',');
+            writer.write(row.orderDate().toString());
+            writer.write(',');
+            writer.write(csvField(row.customerName()));
+            writer.write(',');
+            writer.write(csvField(row.customerAddress()));
+            writer.write(',');
+            writer.write(Objects.toString(row.productId(), ""));
+            writer.write(',');
+            writer.write(csvField(row.productName()));
+            writer.write(',');
+            writer.write(Objects.toString(row.quantity(), ""));
+            writer.write(',');
+            writer.write(row.price() == null ? "" : row.price().toPlainString());
+            writer.write('\n');
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,24 @@
+package com.agile.ecommerce.order.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of {@link OrderIntakeService}.
+ *
+ * @param capacity          orders queued before intake answers that it is full
+ * @param batchSize         orders placed per transaction
+ * @param statusRetention   how long the outcome of an order can be polled after it was last updated
+ * @param statusMaximumSize outcomes kept before the oldest are dropped early
+ * @param drainTimeout      how long shutdown waits for the queued orders to be placed
+ */
+@ConfigurationProperties(prefix = "ecommerce.order-intake")
+public record OrderIntakeProperties(
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("10m") Duration statusRetention,
+        @DefaultValue("100000") long statusMaximumSize,
+        @DefaultValue("30s") Duration drainTimeout) {
+}
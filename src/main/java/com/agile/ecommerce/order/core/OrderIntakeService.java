@@ -0,0 +1,232 @@
+package com.agile.ecommerce.order.core;
+
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.dto.OrderIntakeStatus;
+import com.agile.ecommerce.order.exception.OrderIntakeFullException;
+import com.agile.ecommerce.order.exception.OrderIntakeNotFoundException;
+import com.agile.ecommerce.product.core.ProductCache;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
+import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Valid;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FlushModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous order intake. {@link #submit} validates the order and checks that the ordered products exist, queues
+ * it and returns a handle at once; a single writer thread drains the queue and places up to {@code batchSize} orders per transaction, so
+ * that a burst of orders costs one commit per batch rather than one per order. An order short of stock leaves nothing
+ * behind, so it is rejected without undoing the rest of its batch; a batch that fails as a whole is retried order by
+ * order. Outcomes are kept to be polled through {@link #status}.
+ * <p>
+ * Queued orders live in memory only. On shutdown intake closes first and the writer places whatever is queued, for up
+ * to {@code drainTimeout}, before the database goes away.
+ */
+@Slf4j
+@Component
+@Validated
+public class OrderIntakeService implements SmartLifecycle {
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final OrderService orderService;
+    private final ProductCache productCache;
+    private final OrderIntakeProperties properties;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate batchTransaction;
+    private final BlockingQueue<Intake> queue;
+    private final Cache<UUID, OrderIntakeStatus> statuses;
+    // submit holds the read lock from the accepting check to the offer, so that no order slips into the queue after
+    // stop has closed intake and the writer may be about to finish
+    private final ReadWriteLock intakeLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting;
+    private Thread writer;
+
+    public OrderIntakeService(OrderService orderService, ProductCache productCache,
+                              EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager,
+                              OrderIntakeProperties properties) {
+        this.orderService = orderService;
+        this.productCache = productCache;
+        this.properties = properties;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.statusMaximumSize())
+                .expireAfterWrite(properties.statusRetention())
+                .build();
+    }
+
+    /**
+     * Queues the order for placing. Invalid orders and unknown products are refused right away, so that none of them
+     * fails, and rolls back, the batch it would be written in; stock is only checked when the order is written, so
+     * the outcome has to be polled.
+     */
+    @Timed("ecommerce.service")
+    public OrderIntakeStatus submit(@Valid OrderDto dto) throws ProductNotFoundException, OrderIntakeFullException {
+        checkProducts(dto);
+        var status = OrderIntakeStatus.queued(UUID.randomUUID());
+        // recorded before the offer, so that the writer's outcome cannot be overwritten by it
+        statuses.put(status.handle(), status);
+        intakeLock.readLock().lock();
+        try {
+            if (!accepting) {
+                statuses.invalidate(status.handle());
+                throw new OrderIntakeFullException("Order intake is shut down");
+            }
+            if (!queue.offer(new Intake(status.handle(), dto))) {
+                statuses.invalidate(status.handle());
+                throw new OrderIntakeFullException("Order intake is full, please retry");
+            }
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+        return status;
+    }
+
+    @Timed("ecommerce.service")
+    public OrderIntakeStatus status(UUID handle) throws OrderIntakeNotFoundException {
+        var status = statuses.getIfPresent(handle);
+        if (status == null) {
+            throw new OrderIntakeNotFoundException(handle);
+        }
+        return status;
+    }
+
+    /**
+     * Orders waiting to be written.
+     */
+    public int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+        writer = Thread.ofPlatform().name("order-intake-writer").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        intakeLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            intakeLock.writeLock().unlock();
+        }
+        try {
+            if (!writer.join(properties.drainTimeout())) {
+                log.warn("Order intake writer still busy after {}, {} orders left unplaced",
+                        properties.drainTimeout(), queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null && writer.isAlive();
+    }
+
+    /**
+     * Below the web server's phases: started before it takes requests and stopped only after it has finished them.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void checkProducts(OrderDto dto) throws ProductNotFoundException {
+        if (dto.orderItems() == null || dto.orderItems().isEmpty()) {
+            return;
+        }
+        var ids = dto.orderItems().stream()
+                .map(item -> item.productId)
+                .collect(TreeSet<Long>::new, TreeSet::add, TreeSet::addAll);
+        ids.removeAll(productCache.getAll(ids).keySet());
+        if (!ids.isEmpty()) {
+            throw new ProductNotFoundException(ids);
+        }
+    }
+
+    private void drain() {
+        var batch = new ArrayList<Intake>(properties.batchSize());
+        while (true) {
+            Intake first;
+            try {
+                first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                if (!accepting) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, properties.batchSize() - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Intake> batch) {
+        List<OrderIntakeStatus> outcomes;
+        try {
+            outcomes = batchTransaction.execute(status -> {
+                // Nothing an order reads depends on the orders before it in the batch, so they can all be flushed
+                // in one go at commit; otherwise each product lookup would flush, and dirty check, the batch so far.
+                Objects.requireNonNull(EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory))
+                        .setFlushMode(FlushModeType.COMMIT);
+                return batch.stream().map(this::placeInBatch).toList();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Placing a batch of {} orders failed, placing them one by one", batch.size(), e);
+            outcomes = batch.stream().map(this::placeAlone).toList();
+        }
+        Objects.requireNonNull(outcomes).forEach(outcome -> statuses.put(outcome.handle(), outcome));
+    }
+
+    private OrderIntakeStatus placeInBatch(Intake intake) {
+        try {
+            return OrderIntakeStatus.placed(intake.handle(), orderService.place(intake.order()).id());
+        } catch (ProductNotFoundException | InsufficientStockException e) {
+            return OrderIntakeStatus.rejected(intake.handle(), e.getMessage());
+        }
+    }
+
+    private OrderIntakeStatus placeAlone(Intake intake) {
+        try {
+            return OrderIntakeStatus.placed(intake.handle(), orderService.add(intake.order()).id());
+        } catch (ProductNotFoundException | InsufficientStockException e) {
+            return OrderIntakeStatus.rejected(intake.handle(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Placing order {} failed", intake.handle(), e);
+            return OrderIntakeStatus.failed(intake.handle(), "The order could not be placed");
+        }
+    }
+
+    private record Intake(UUID handle, OrderDto order) {
+    }
+}
@@ -1,75 +1,137 @@
 package com.agile.ecommerce.order.core;
 
+import com.agile.ecommerce.order.data.OrderKey;
 import com.agile.ecommerce.order.data.OrderRepository;
 import com.agile.ecommerce.order.domain.Order;
 import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.dto.OrderSummaryDto;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
+import com.agile.ecommerce.order.mapper.OrderMapper;
 import com.agile.ecommerce.orderItem.domain.OrderItem;
-import com.agile.ecommerce.orderItem.dto.OrderItemDto;
-import com.agile.ecommerce.product.data.ProductRepository;
-import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.pagination.PageCursor;
+import com.agile.ecommerce.product.core.ProductCache;
+import com.agile.ecommerce.product.core.StockService;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import com.agile.ecommerce.versioning.EntityVersion;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Component
 @AllArgsConstructor
+@Timed("ecommerce.service")
 public class OrderService {
+    static final String CURSOR_SCOPE = "orders";
+
     private final OrderRepository repository;
-    private final ProductRepository productRepository;
-    private final ModelMapper mapper;
+    private final ProductCache productCache;
+    private final StockService stockService;
+    private final OrderMapper mapper;
 
+    @Transactional(readOnly = true)
     public Page<OrderDto> getAll(Pageable pageable) {
-        return repository.findAll(pageable).map(it->mapper.map(it, OrderDto.class));
+        var ids = repository.findIds(pageable);
+        var content = fetchInOrder(ids.getContent());
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
 
-    public OrderDto getById(long id) throws OrderNotFoundException {
-        return mapper.map(repository.findById(id).orElseThrow(() -> new OrderNotFoundException(id)), OrderDto.class);
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> scroll(String cursor, int size) throws InvalidCursorException {
+        var limit = CursorPage.limit(size);
+        List<OrderKey> keys;
+        if (cursor == null) {
+            keys = repository.findNewestKeys(Limit.of(limit + 1));
+        } else {
+            var after = PageCursor.decode(CURSOR_SCOPE, cursor, 2);
+            keys = repository.findKeysBefore(after.dateTimeKey(0), after.longKey(1), Limit.of(limit + 1));
+        }
+        var pageKeys = keys.subList(0, Math.min(limit, keys.size()));
+        var content = fetchInOrder(pageKeys.stream().map(OrderKey::id).toList());
+        String next = null;
+        if (keys.size() > limit) {
+            // From the key, not the fetched order: the cursor still holds if that order is deleted meanwhile.
+            var last = pageKeys.getLast();
+            next = PageCursor.encode(CURSOR_SCOPE, last.orderDate(), last.id());
+        }
+        return new CursorPage<>(content, limit, next);
     }
 
-    @Transactional
-    public OrderDto add(OrderDto dto) throws ProductNotFoundException {
-        var order = mapper.map(dto, Order.class);
-        if (dto.orderItems() != null) {
-            for (var item : dto.orderItems()) {
-                var product = productRepository.findById(item.productId)
-                        .orElseThrow(() -> new ProductNotFoundException(item.productId));
-                order.getOrderItems().clear();
-                order.getOrderItems().add(new OrderItem(null, order, product, item.quantity, item.price));
-            }
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDto> summaries(String cursor, int size) throws InvalidCursorException {
+        var limit = CursorPage.limit(size);
+        List<OrderSummaryDto> rows;
+        if (cursor == null) {
+            rows = repository.findNewestSummaries(Limit.of(limit + 1));
+        } else {
+            var after = PageCursor.decode(CURSOR_SCOPE, cursor, 2);
+            rows = repository.findSummariesBefore(after.dateTimeKey(0), after.longKey(1), Limit.of(limit + 1));
         }
-        var sv = repository.save(order);
-        return new OrderDto(sv.getId(),
-                sv.getOrderDate(),
-                sv.getCustomerName(),
-                sv.getCustomerAddress(),
-                sv.getOrderItems().stream().map(it-> mapper.map(it, OrderItemDto.class)).toList());
+        var content = rows.subList(0, Math.min(limit, rows.size()));
+        String next = null;
+        if (rows.size() > limit) {
+            var last = content.getLast();
+            next = PageCursor.encode(CURSOR_SCOPE, last.orderDate(), last.id());
+        }
+        return new CursorPage<>(content, limit, next);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderDto getById(long id) throws OrderNotFoundException {
+        return mapper.toDto(repository.findWithItemsById(id).orElseThrow(() -> new OrderNotFoundException(id)));
+    }
+
+    @Transactional(readOnly = true)
+    public EntityVersion getVersion(long id) throws OrderNotFoundException {
+        return repository.findEntityVersionById(id).orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    @Transactional(rollbackFor = InsufficientStockException.class)
+    public OrderDto add(OrderDto dto) throws ProductNotFoundException, InsufficientStockException {
+        return place(dto);
+    }
+
+    /**
+     * {@link #add} within the caller's transaction. Its failures are checked exceptions that do not mark the
+     * transaction rollback-only, so the caller may go on to place other orders in it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderDto place(OrderDto dto) throws ProductNotFoundException, InsufficientStockException {
+        var order = mapper.toEntity(dto);
+        order.setId(null);
+        order.getOrderItems().forEach(item -> item.setOrder(order));
+        resolveProducts(order.getOrderItems());
+        reserveStock(order.getOrderItems());
+        order.recalculateTotals();
+        return mapper.toDto(repository.save(order));
     }
 
     @Transactional
     public OrderDto update(OrderDto dto) throws OrderNotFoundException, ProductNotFoundException {
-        if (!repository.existsById(dto.id())) {
-            throw new OrderNotFoundException(dto.id());
-        }
-        var order = mapper.map(dto, Order.class);
-        if (order.getOrderItems() != null) {
-            for (var item : order.getOrderItems()) {
-                Product product = productRepository.findById(item.getProduct().getId())
-                        .orElseThrow(() -> new ProductNotFoundException(item.getProduct().getId()));
-                item.setProduct(product);
-                item.setOrder(order);
-            }
-        }
-        var sv = repository.save(order);
-        return new OrderDto(sv.getId(),
-                sv.getOrderDate(),
-                sv.getCustomerName(),
-                sv.getCustomerAddress(),
-                sv.getOrderItems().stream().map(it-> mapper.map(it, OrderItemDto.class)).toList());
+        var version = repository.findEntityVersionById(dto.id()).orElseThrow(() -> new OrderNotFoundException(dto.id()));
+        var order = mapper.toEntity(dto);
+        order.setVersion(version.version());
+        order.getOrderItems().forEach(item -> item.setOrder(order));
+        resolveProducts(order.getOrderItems());
+        order.recalculateTotals();
+        return mapper.toDto(repository.save(order));
     }
 
     @Transactional
@@ -79,4 +141,44 @@ public class OrderService {
         }
         repository.deleteById(id);
     }
+
+    // an order deleted since its id was read is left out rather than failing the page
+    private List<OrderDto> fetchInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Order> orders = repository.findAllWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream().map(orders::get).filter(Objects::nonNull).map(mapper::toDto).toList();
+    }
+
+    private void reserveStock(Collection<OrderItem> items) throws InsufficientStockException {
+        var quantities = items.stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), OrderItem::getQuantity, Integer::sum, TreeMap::new));
+        var shortOfStock = stockService.reserve(quantities);
+        if (!shortOfStock.isEmpty()) {
+            throw new InsufficientStockException(shortOfStock);
+        }
+    }
+
+    /**
+     * Swaps the id-only product references of the items for products from the cache, which loads any it lacks in one
+     * query.
+     */
+    private void resolveProducts(Collection<OrderItem> items) throws ProductNotFoundException {
+        if (items.isEmpty()) {
+            return;
+        }
+        var ids = items.stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toCollection(TreeSet::new));
+        var products = productCache.getAll(ids);
+        if (products.size() < ids.size()) {
+            ids.removeAll(products.keySet());
+            throw new ProductNotFoundException(ids);
+        }
+        for (var item : items) {
+            item.setProduct(products.get(item.getProduct().getId()));
+        }
+    }
 }
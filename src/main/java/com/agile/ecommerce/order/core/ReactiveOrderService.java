@@ -0,0 +1,60 @@
+package com.agile.ecommerce.order.core;
+
+import com.agile.ecommerce.order.data.ReactiveOrderRepository;
+import com.agile.ecommerce.order.domain.OrderView;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.exception.OrderNotFoundException;
+import com.agile.ecommerce.orderItem.data.ReactiveOrderItemRepository;
+import com.agile.ecommerce.orderItem.domain.OrderItemView;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+@AllArgsConstructor
+@Component
+@Profile("reactive")
+public class ReactiveOrderService {
+    /**
+     * Orders whose items are loaded with one query, as {@code hibernate.default_batch_fetch_size} does for the JPA side.
+     */
+    static final int ITEM_BATCH_SIZE = 100;
+
+    private final ReactiveOrderRepository orderRepository;
+    private final ReactiveOrderItemRepository orderItemRepository;
+
+    /**
+     * Every order with its items, in id order. Orders are streamed from one query and their items fetched a batch of
+     * orders at a time, so memory stays bounded however many orders there are.
+     */
+    public Flux<OrderDto> getAll() {
+        return orderRepository.findAllByOrderById()
+                .buffer(ITEM_BATCH_SIZE)
+                .concatMap(this::withItems);
+    }
+
+    public Mono<OrderDto> getById(long id) {
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(id)))
+                .flatMapMany(order -> withItems(List.of(order)))
+                .single();
+    }
+
+    private Flux<OrderDto> withItems(List<OrderView> orders) {
+        var ids = orders.stream().map(OrderView::id).toList();
+        return orderItemRepository.findWithProductNameByOrderIdIn(ids)
+                .collectMultimap(OrderItemView::orderId, OrderItemView::toDto)
+                .flatMapIterable(items -> orders.stream()
+                        .map(order -> order.toDto(toList(items.get(order.id()))))
+                        .toList());
+    }
+
+    private static List<OrderItemDto> toList(Collection<OrderItemDto> items) {
+        return items == null ? List.of() : List.copyOf(items);
+    }
+}
@@ -0,0 +1,9 @@
+package com.agile.ecommerce.order.data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where an order sorts in a keyset page: enough to fetch it, and to continue after it.
+ */
+public record OrderKey(long id, LocalDateTime orderDate) {
+}
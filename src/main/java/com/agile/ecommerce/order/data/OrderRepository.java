@@ -1,8 +1,95 @@
 package com.agile.ecommerce.order.data;
 
 import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderExportRow;
+import com.agile.ecommerce.order.dto.OrderSummaryDto;
+import com.agile.ecommerce.versioning.EntityVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    String EXPORT_FETCH_SIZE = "1000";
+
+    // only the ids, so that the database paginates orders rather than order-item join rows
+    @Query("select o.id from Order o")
+    Page<Long> findIds(Pageable pageable);
+
+    @Query("""
+            select new com.agile.ecommerce.order.data.OrderKey(o.id, o.orderDate) from Order o
+            order by o.orderDate desc, o.id desc""")
+    List<OrderKey> findNewestKeys(Limit limit);
+
+    // seeks past the key instead of skipping rows, so the cost does not grow with the depth of the page
+    @Query("""
+            select new com.agile.ecommerce.order.data.OrderKey(o.id, o.orderDate) from Order o
+            where (o.orderDate, o.id) < (:orderDate, :id)
+            order by o.orderDate desc, o.id desc""")
+    List<OrderKey> findKeysBefore(@Param("orderDate") LocalDateTime orderDate, @Param("id") long id, Limit limit);
+
+    @Query("""
+            select new com.agile.ecommerce.order.dto.OrderSummaryDto(
+                o.id, o.orderDate, o.customerName, o.customerAddress, o.totalAmount, o.itemCount)
+            from Order o order by o.orderDate desc, o.id desc""")
+    List<OrderSummaryDto> findNewestSummaries(Limit limit);
+
+    @Query("""
+            select new com.agile.ecommerce.order.dto.OrderSummaryDto(
+                o.id, o.orderDate, o.customerName, o.customerAddress, o.totalAmount, o.itemCount)
+            from Order o
+            where (o.orderDate, o.id) < (:orderDate, :id)
+            order by o.orderDate desc, o.id desc""")
+    List<OrderSummaryDto> findSummariesBefore(@Param("orderDate") LocalDateTime orderDate, @Param("id") long id,
+                                              Limit limit);
+
+    // products are left to the second-level cache, and those it misses are loaded in batches
+    @EntityGraph(attributePaths = "orderItems")
+    @Query("select o from Order o where o.id in :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(long id);
+
+    /**
+     * Version and modification time of the order as {@link #findWithItemsById} would show it, counting the names of
+     * the products its items show but not their stock.
+     */
+    @Query("""
+            select new com.agile.ecommerce.versioning.EntityVersion(
+                o.version, coalesce(sum(p.nameVersion), 0L), greatest(o.lastModified, coalesce(max(p.nameModified), o.lastModified)))
+            from Order o left join o.orderItems oi left join oi.product p
+            where o.id = :id
+            group by o.id, o.version, o.lastModified""")
+    Optional<EntityVersion> findEntityVersionById(@Param("id") long id);
 
-}
\ No newline at end of file
+    /**
+     * Every order line placed in {@code [from, to)}, either bound optional, ordered by order so a reader can regroup
+     * them. Read through a forward-only cursor {@value #EXPORT_FETCH_SIZE} rows at a time as scalars, so nothing is
+     * kept in the persistence context; the stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.agile.ecommerce.order.dto.OrderExportRow(
+                o.id, o.orderDate, o.customerName, o.customerAddress, p.id, p.name, oi.quantity, oi.price)
+            from Order o left join o.orderItems oi left join oi.product p
+            where (cast(:from as LocalDateTime) is null or o.orderDate >= :from)
+              and (cast(:to as LocalDateTime) is null or o.orderDate < :to)
+            order by o.id, oi.id""")
+    Stream<OrderExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,16 @@
+package com.agile.ecommerce.order.data;
+
+import com.agile.ecommerce.order.domain.OrderView;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link OrderRepository} for the reactive read API. Orders come without their items,
+ * which {@link com.agile.ecommerce.orderItem.data.ReactiveOrderItemRepository} loads per batch of orders.
+ */
+@Repository
+public interface ReactiveOrderRepository extends R2dbcRepository<OrderView, Long> {
+
+    Flux<OrderView> findAllByOrderById();
+}
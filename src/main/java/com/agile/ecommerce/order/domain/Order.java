@@ -1,8 +1,14 @@
 package com.agile.ecommerce.order.domain;
 
+import com.agile.ecommerce.config.PooledSequence;
 import com.agile.ecommerce.orderItem.domain.OrderItem;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,7 +19,7 @@ import java.util.Objects;
 @Table(name = "orders")
 public final class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "orders_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -28,7 +34,48 @@ public final class Order {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems;
 
+    // totals of the items, kept up to date as they change so that lists can show them without loading the items
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int itemCount;
+
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp")
+    @Column(nullable = false)
+    private Instant lastModified;
+
     public List<OrderItem> getOrderItems() {
         return Objects.requireNonNullElseGet(orderItems, ArrayList::new);
     }
+
+    public void recalculateTotals() {
+        totalAmount = BigDecimal.ZERO;
+        itemCount = 0;
+        getOrderItems().forEach(this::addToTotals);
+    }
+
+    public void addToTotals(OrderItem item) {
+        totalAmount = totalAmount.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        itemCount++;
+    }
+
+    public void removeFromTotals(OrderItem item) {
+        totalAmount = totalAmount.subtract(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        itemCount--;
+    }
+
+    /**
+     * Makes the order dirty, so that a change made through its items alone still gives it a new version and tag.
+     */
+    public void markModified() {
+        lastModified = Instant.now();
+    }
 }
\ No newline at end of file
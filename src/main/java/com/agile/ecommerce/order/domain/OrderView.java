@@ -0,0 +1,22 @@
+package com.agile.ecommerce.order.domain;
+
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An order without its items, as the reactive read API loads it through R2DBC; the JPA side keeps using {@link Order}.
+ */
+@Table("orders")
+public record OrderView(@Id Long id, LocalDateTime orderDate, String customerName, String customerAddress,
+                        BigDecimal totalAmount, int itemCount) {
+
+    public OrderDto toDto(List<OrderItemDto> orderItems) {
+        return new OrderDto(id, orderDate, customerName, customerAddress, orderItems, totalAmount, itemCount);
+    }
+}
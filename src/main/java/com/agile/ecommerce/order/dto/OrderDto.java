@@ -3,11 +3,16 @@ package com.agile.ecommerce.order.dto;
 import com.agile.ecommerce.orderItem.dto.OrderItemDto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * An order with its items. {@code totalAmount} and {@code itemCount} are computed by the server; any values sent with
+ * the order are ignored, as is the {@code id} of a new order.
+ */
 public record OrderDto(
-        @NotNull(message = "ID cannot be null")
         Long id,
         @NotNull(message = "Order date cannot be null")
         @PastOrPresent(message = "Order date cannot be in the future")
@@ -19,5 +24,26 @@ public record OrderDto(
         @Size(min = 5, max = 255, message = "Customer address must be between 5 and 255 characters")
         String customerAddress,
         @NotEmpty(message = "Order must contain at least one item")
-        List<@Valid OrderItemDto> orderItems
-) {}
+        List<@Valid OrderItemDto> orderItems,
+        BigDecimal totalAmount,
+        int itemCount
+) {
+
+    /**
+     * An order whose totals are those of {@code orderItems}, for when all of them are at hand.
+     */
+    public OrderDto(Long id, LocalDateTime orderDate, String customerName, String customerAddress,
+                    List<OrderItemDto> orderItems) {
+        this(id, orderDate, customerName, customerAddress, orderItems, totalOf(orderItems),
+                orderItems == null ? 0 : orderItems.size());
+    }
+
+    private static BigDecimal totalOf(List<OrderItemDto> orderItems) {
+        if (orderItems == null) {
+            return BigDecimal.ZERO;
+        }
+        return orderItems.stream()
+                .map(item -> item.price.multiply(BigDecimal.valueOf(item.quantity)))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
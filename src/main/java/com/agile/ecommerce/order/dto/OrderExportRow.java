@@ -0,0 +1,19 @@
+package com.agile.ecommerce.order.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order line as read by the export cursor, with its order's columns repeated. The line columns are {@code null}
+ * for an order without items.
+ */
+public record OrderExportRow(
+        long orderId,
+        LocalDateTime orderDate,
+        String customerName,
+        String customerAddress,
+        Long productId,
+        String productName,
+        Integer quantity,
+        BigDecimal price) {
+}
@@ -0,0 +1,49 @@
+package com.agile.ecommerce.order.dto;
+
+import java.util.UUID;
+
+/**
+ * Where an order submitted for asynchronous intake stands.
+ *
+ * @param handle  identifies the submission
+ * @param state   see {@link State}
+ * @param orderId id of the placed order, once {@link State#PLACED}
+ * @param error   why the order was not placed, once {@link State#REJECTED} or {@link State#FAILED}
+ */
+public record OrderIntakeStatus(UUID handle, State state, Long orderId, String error) {
+
+    public enum State {
+        /**
+         * Waiting in the queue.
+         */
+        QUEUED,
+        /**
+         * Saved, with its units taken out of stock.
+         */
+        PLACED,
+        /**
+         * Not placed because a product was unknown or short of stock by the time it was written.
+         */
+        REJECTED,
+        /**
+         * Not placed because of an unexpected error.
+         */
+        FAILED
+    }
+
+    public static OrderIntakeStatus queued(UUID handle) {
+        return new OrderIntakeStatus(handle, State.QUEUED, null, null);
+    }
+
+    public static OrderIntakeStatus placed(UUID handle, long orderId) {
+        return new OrderIntakeStatus(handle, State.PLACED, orderId, null);
+    }
+
+    public static OrderIntakeStatus rejected(UUID handle, String error) {
+        return new OrderIntakeStatus(handle, State.REJECTED, null, error);
+    }
+
+    public static OrderIntakeStatus failed(UUID handle, String error) {
+        return new OrderIntakeStatus(handle, State.FAILED, null, error);
+    }
+}
@@ -0,0 +1,16 @@
+package com.agile.ecommerce.order.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An order without its items, read from the {@code orders} table alone.
+ */
+public record OrderSummaryDto(
+        Long id,
+        LocalDateTime orderDate,
+        String customerName,
+        String customerAddress,
+        BigDecimal totalAmount,
+        int itemCount) {
+}
@@ -0,0 +1,7 @@
+package com.agile.ecommerce.order.exception;
+
+public class OrderIntakeFullException extends Exception{
+    public OrderIntakeFullException(String message) {
+        super(message);
+    }
+}
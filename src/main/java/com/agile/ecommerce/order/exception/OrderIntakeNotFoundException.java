@@ -0,0 +1,9 @@
+package com.agile.ecommerce.order.exception;
+
+import java.util.UUID;
+
+public class OrderIntakeNotFoundException extends Exception{
+    public OrderIntakeNotFoundException(UUID handle) {
+        super("Order intake "+handle+" not found.");
+    }
+}
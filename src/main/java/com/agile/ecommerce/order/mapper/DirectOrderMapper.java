@@ -0,0 +1,59 @@
+package com.agile.ecommerce.order.mapper;
+
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.orderItem.mapper.OrderItemMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+/**
+ * Copies {@link Order} fields straight into {@link OrderDto} and back, without any reflective lookup.
+ */
+@Component
+@AllArgsConstructor
+@Timed("ecommerce.mapper")
+public class DirectOrderMapper implements OrderMapper {
+    private final OrderItemMapper itemMapper;
+
+    @Override
+    public OrderDto toDto(Order order) {
+        var items = order.getOrderItems();
+        var itemDtos = new ArrayList<OrderItemDto>(items.size());
+        for (var item : items) {
+            itemDtos.add(itemMapper.toDto(item));
+        }
+        return new OrderDto(
+                order.getId(),
+                order.getOrderDate(),
+                order.getCustomerName(),
+                order.getCustomerAddress(),
+                itemDtos,
+                order.getTotalAmount(),
+                order.getItemCount()
+        );
+    }
+
+    @Override
+    public Order toEntity(OrderDto dto) {
+        var order = new Order();
+        order.setId(dto.id());
+        order.setOrderDate(dto.orderDate());
+        order.setCustomerName(dto.customerName());
+        order.setCustomerAddress(dto.customerAddress());
+        var items = new ArrayList<OrderItem>(dto.orderItems() == null ? 0 : dto.orderItems().size());
+        if (dto.orderItems() != null) {
+            for (var itemDto : dto.orderItems()) {
+                var item = itemMapper.toEntity(itemDto);
+                item.setOrder(order);
+                items.add(item);
+            }
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,14 @@
+package com.agile.ecommerce.order.mapper;
+
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+
+public interface OrderMapper {
+
+    OrderDto toDto(Order order);
+
+    /**
+     * Builds a detached order whose items reference their products by id only, to be resolved by the caller.
+     */
+    Order toEntity(OrderDto dto);
+}
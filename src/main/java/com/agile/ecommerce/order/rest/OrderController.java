@@ -1,26 +1,56 @@
 package com.agile.ecommerce.order.rest;
 
+import com.agile.ecommerce.idempotency.core.IdempotencyService;
+import com.agile.ecommerce.idempotency.exception.IdempotencyKeyReusedException;
+import com.agile.ecommerce.idempotency.exception.IdempotentRequestInProgressException;
+import com.agile.ecommerce.idempotency.exception.InvalidIdempotencyKeyException;
+import com.agile.ecommerce.order.core.OrderExportFormat;
+import com.agile.ecommerce.order.core.OrderExportService;
+import com.agile.ecommerce.order.core.OrderIntakeService;
 import com.agile.ecommerce.order.core.OrderService;
 import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.dto.OrderIntakeStatus;
+import com.agile.ecommerce.order.dto.OrderSummaryDto;
+import com.agile.ecommerce.order.exception.OrderIntakeFullException;
+import com.agile.ecommerce.order.exception.OrderIntakeNotFoundException;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.UUID;
 
 @AllArgsConstructor
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/orders")
 @Tag(name = "Orders", description = "API for managing orders")
 public final class OrderController {
     private final OrderService service;
+    private final OrderExportService exportService;
+    private final OrderIntakeService intakeService;
+    private final IdempotencyService idempotencyService;
 
     @Operation(summary = "Get all orders", description = "Retrieve a paginated list of all orders")
     @ApiResponses(value = {
@@ -32,23 +62,121 @@ public final class OrderController {
         return ResponseEntity.ok(service.getAll(pageable));
     }
 
+    @Operation(summary = "Scroll orders", description = "Retrieve orders newest first, one keyset page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<OrderDto>> scrollOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) throws InvalidCursorException {
+        return ResponseEntity.ok(service.scroll(cursor, size));
+    }
+
+    @Operation(summary = "Scroll order summaries",
+            description = "Retrieve orders newest first with their totals but without their items, one keyset page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/summaries")
+    public ResponseEntity<CursorPage<OrderSummaryDto>> getOrderSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) throws InvalidCursorException {
+        return ResponseEntity.ok(service.summaries(cursor, size));
+    }
+
+    @Operation(summary = "Export orders as NDJSON",
+            description = "Stream every order placed in [from, to), one JSON object with its items per line")
+    @ApiResponse(responseCode = "200", description = "Orders streamed")
+    @GetMapping(path = "/export", produces = OrderExportFormat.NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportOrdersAsNdjson(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return export(from, to, OrderExportFormat.NDJSON, OrderExportFormat.NDJSON_MEDIA_TYPE, "orders.ndjson");
+    }
+
+    @Operation(summary = "Export orders as CSV",
+            description = "Stream every order placed in [from, to), one record per order line")
+    @ApiResponse(responseCode = "200", description = "Orders streamed")
+    @GetMapping(path = "/export", produces = OrderExportFormat.CSV_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportOrdersAsCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return export(from, to, OrderExportFormat.CSV, OrderExportFormat.CSV_MEDIA_TYPE, "orders.csv");
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(LocalDateTime from, LocalDateTime to, OrderExportFormat format,
+                                                         String mediaType, String filename) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(mediaType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(output -> exportService.export(from, to, format, output));
+    }
+
     @Operation(summary = "Get order by ID", description = "Retrieve a specific order by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the order"),
+            @ApiResponse(responseCode = "304", description = "Order unchanged since the version the client holds"),
             @ApiResponse(responseCode = "404", description = "Order not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDto> getOrderById(@PathVariable long id) throws OrderNotFoundException {
+    public ResponseEntity<OrderDto> getOrderById(@PathVariable long id, WebRequest request) throws OrderNotFoundException {
+        var version = service.getVersion(id);
+        if (request.checkNotModified(version.eTag(), version.lastModified().toEpochMilli())) {
+            return null;
+        }
         return ResponseEntity.ok(service.getById(id));
     }
 
-    @Operation(summary = "Add a new order", description = "Create a new order")
+    @Operation(summary = "Add a new order", description = "Create a new order, taking its units out of stock. "
+            + "A retry sent with the same Idempotency-Key gets the original response instead of a second order")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Order created")
+            @ApiResponse(responseCode = "201", description = "Order created, or the response to an earlier request with the same key"),
+            @ApiResponse(responseCode = "400", description = "Invalid idempotency key"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Not enough stock for some products, nothing was reserved; "
+                    + "or the request with the same key is still running"),
+            @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different order")
     })
     @PostMapping
-    public ResponseEntity<OrderDto> addOrder(@RequestBody OrderDto orderDto) throws ProductNotFoundException {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.add(orderDto));
+    public ResponseEntity<OrderDto> addOrder(@RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                             @RequestBody OrderDto orderDto)
+            throws ProductNotFoundException, InsufficientStockException, InvalidIdempotencyKeyException,
+            IdempotencyKeyReusedException, IdempotentRequestInProgressException {
+        try (var request = idempotencyService.claim("orders", idempotencyKey, orderDto)) {
+            if (request.isReplay()) {
+                return request.replay(OrderDto.class);
+            }
+            return request.complete(HttpStatus.CREATED, service.add(orderDto));
+        }
+    }
+
+    @Operation(summary = "Submit an order for asynchronous placing",
+            description = "Queue the order and return a handle to poll; orders are written in batches")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Order queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid order"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "503", description = "Intake full or shutting down; retry later")
+    })
+    @PostMapping("/intake")
+    public ResponseEntity<OrderIntakeStatus> submitOrder(@Valid @RequestBody OrderDto orderDto)
+            throws ProductNotFoundException, OrderIntakeFullException {
+        var status = intakeService.submit(orderDto);
+        return ResponseEntity.accepted().location(URI.create("/api/orders/intake/" + status.handle())).body(status);
+    }
+
+    @Operation(summary = "Get the outcome of a submitted order",
+            description = "Whether the order is still queued, was placed, or was rejected")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the submission"),
+            @ApiResponse(responseCode = "404", description = "Unknown handle, or its outcome has expired")
+    })
+    @GetMapping("/intake/{handle}")
+    public ResponseEntity<OrderIntakeStatus> getIntakeStatus(@PathVariable UUID handle) throws OrderIntakeNotFoundException {
+        return ResponseEntity.ok(intakeService.status(handle));
     }
 
     @Operation(summary = "Update an order", description = "Update an existing order by its ID")
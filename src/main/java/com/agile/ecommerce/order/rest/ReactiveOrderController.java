@@ -0,0 +1,46 @@
+package com.agile.ecommerce.order.rest;
+
+import com.agile.ecommerce.order.core.ReactiveOrderService;
+import com.agile.ecommerce.order.dto.OrderDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, non-blocking replacement for {@link OrderController} under the {@code reactive} profile.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/orders")
+@Profile("reactive")
+@Tag(name = "Orders", description = "Reactive read API for orders with their items")
+public final class ReactiveOrderController {
+    private final ReactiveOrderService service;
+
+    @Operation(summary = "Stream all orders with their items", description = "Stream every order in id order, one JSON object per line")
+    @ApiResponse(responseCode = "200", description = "Orders streamed")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderDto> getAllOrders() {
+        return service.getAll();
+    }
+
+    @Operation(summary = "Get order by ID", description = "Retrieve a specific order by its ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the order"),
+            @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    @GetMapping("/{id}")
+    public Mono<OrderDto> getOrderById(@PathVariable long id) {
+        return service.getById(id);
+    }
+}
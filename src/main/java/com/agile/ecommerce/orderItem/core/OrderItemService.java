@@ -3,56 +3,91 @@ package com.agile.ecommerce.orderItem.core;
 import com.agile.ecommerce.order.data.OrderRepository;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
 import com.agile.ecommerce.orderItem.data.OrderItemRepository;
-import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemCursorRow;
 import com.agile.ecommerce.orderItem.dto.OrderItemDto;
 import com.agile.ecommerce.orderItem.exception.OrderItemNotFoundException;
-import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.orderItem.mapper.OrderItemMapper;
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.pagination.PageCursor;
+import com.agile.ecommerce.product.core.ProductCache;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
 @Component
 @AllArgsConstructor
+@Timed("ecommerce.service")
 public class OrderItemService {
+    static final String CURSOR_SCOPE = "order-items";
+
     private final OrderItemRepository repository;
-    private final ProductRepository productRepository;
+    private final ProductCache productCache;
     private final OrderRepository orderRepository;
-    private final ModelMapper mapper;
+    private final OrderItemMapper mapper;
 
     public Page<OrderItemDto> getAll(Pageable pageable) {
-        return repository.findAll(pageable).map(it -> mapper.map(it, OrderItemDto.class));
+        return repository.findAllDtos(pageable);
+    }
+
+    /**
+     * Keyset page of order items in id order. {@code cursor} is the {@code nextCursor} of the previous page, or
+     * {@code null} for the first one.
+     */
+    public CursorPage<OrderItemDto> scroll(String cursor, int size) throws InvalidCursorException {
+        var limit = CursorPage.limit(size);
+        var after = cursor == null ? 0 : PageCursor.decode(CURSOR_SCOPE, cursor, 1).longKey(0);
+        var rows = repository.findDtosAfter(after, Limit.of(limit + 1));
+        var content = rows.stream().limit(limit).map(OrderItemCursorRow::item).toList();
+        var next = rows.size() > limit ? PageCursor.encode(CURSOR_SCOPE, rows.get(limit - 1).id()) : null;
+        return new CursorPage<>(content, limit, next);
     }
 
     public OrderItemDto getById(long id) throws OrderItemNotFoundException {
-        return mapper.map(repository.findById(id).orElseThrow(() -> new OrderItemNotFoundException(id)), OrderItemDto.class);
+        return repository.findDtoById(id).orElseThrow(() -> new OrderItemNotFoundException(id));
     }
 
     @Transactional
     public OrderItemDto add(OrderItemDto dto) throws ProductNotFoundException, OrderNotFoundException {
-        var orderItem = mapper.map(dto, OrderItem.class);
+        var orderItem = mapper.toEntity(dto);
         var order = orderRepository.findById(dto.orderId).orElseThrow(() -> new OrderNotFoundException(dto.orderId));
-        var product = productRepository.findById(dto.productId)
+        var product = productCache.get(dto.productId)
                 .orElseThrow(() -> new ProductNotFoundException(dto.productId));
         orderItem.setProduct(product);
         orderItem.setOrder(order);
-        return mapper.map(repository.save(orderItem), OrderItemDto.class);
+        order.addToTotals(orderItem);
+        order.markModified();
+        return mapper.toDto(repository.save(orderItem));
     }
 
+    /**
+     * Replaces the product, quantity and price of item {@code id}, and its share of its order's totals.
+     */
     @Transactional
-    public OrderItemDto update(OrderItemDto dto) throws ProductNotFoundException, OrderItemNotFoundException {
-        var orderItem = repository.findById(dto.productId).orElseThrow(() -> new OrderItemNotFoundException(dto.productId));
-        mapper.map(dto, orderItem);
-        var product = productRepository.findById(dto.productId)
+    public OrderItemDto update(long id, OrderItemDto dto) throws ProductNotFoundException, OrderItemNotFoundException {
+        var orderItem = repository.findById(id).orElseThrow(() -> new OrderItemNotFoundException(id));
+        var product = productCache.get(dto.productId)
                 .orElseThrow(() -> new ProductNotFoundException(dto.productId));
+        var order = orderItem.getOrder();
+        order.removeFromTotals(orderItem);
+        mapper.copyInto(dto, orderItem);
         orderItem.setProduct(product);
-        return mapper.map(repository.save(orderItem), OrderItemDto.class);
+        order.addToTotals(orderItem);
+        order.markModified();
+        return mapper.toDto(repository.save(orderItem));
     }
 
+    @Transactional
     public void delete(long id) {
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(orderItem -> {
+            orderItem.getOrder().removeFromTotals(orderItem);
+            orderItem.getOrder().markModified();
+            repository.delete(orderItem);
+        });
     }
 }
@@ -0,0 +1,28 @@
+package com.agile.ecommerce.orderItem.core;
+
+import com.agile.ecommerce.orderItem.data.ReactiveOrderItemRepository;
+import com.agile.ecommerce.orderItem.domain.OrderItemView;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.orderItem.exception.OrderItemNotFoundException;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@AllArgsConstructor
+@Component
+@Profile("reactive")
+public class ReactiveOrderItemService {
+    private final ReactiveOrderItemRepository repository;
+
+    public Flux<OrderItemDto> getAll() {
+        return repository.findAllWithProductName().map(OrderItemView::toDto);
+    }
+
+    public Mono<OrderItemDto> getById(long id) {
+        return repository.findWithProductNameById(id)
+                .map(OrderItemView::toDto)
+                .switchIfEmpty(Mono.error(() -> new OrderItemNotFoundException(id)));
+    }
+}
@@ -1,7 +1,38 @@
 package com.agile.ecommerce.orderItem.data;
 
 import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemCursorRow;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Read-only projection of the columns {@link OrderItemDto} needs, joined to products only; no entity is managed.
+     */
+    @Query(value = "select new com.agile.ecommerce.orderItem.dto.OrderItemDto(p.id, p.name, oi.quantity, oi.price, oi.order.id) "
+            + "from OrderItem oi join oi.product p",
+            countQuery = "select count(oi) from OrderItem oi")
+    Page<OrderItemDto> findAllDtos(Pageable pageable);
+
+    @Query("select new com.agile.ecommerce.orderItem.dto.OrderItemDto(p.id, p.name, oi.quantity, oi.price, oi.order.id) "
+            + "from OrderItem oi join oi.product p where oi.id = :id")
+    Optional<OrderItemDto> findDtoById(@Param("id") long id);
+
+    /**
+     * Keyset page of {@link #findAllDtos}: the items with an id above {@code id}, in id order, each with its id for the
+     * next cursor.
+     */
+    @Query("select new com.agile.ecommerce.orderItem.dto.OrderItemCursorRow(oi.id, "
+            + "new com.agile.ecommerce.orderItem.dto.OrderItemDto(p.id, p.name, oi.quantity, oi.price, oi.order.id)) "
+            + "from OrderItem oi join oi.product p where oi.id > :id order by oi.id")
+    List<OrderItemCursorRow> findDtosAfter(@Param("id") long id, Limit limit);
 }
@@ -0,0 +1,30 @@
+package com.agile.ecommerce.orderItem.data;
+
+import com.agile.ecommerce.orderItem.domain.OrderItemView;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of {@link OrderItemRepository} for the reactive read API. Every query joins in the product
+ * name, which the item dto carries.
+ */
+@Repository
+public interface ReactiveOrderItemRepository extends R2dbcRepository<OrderItemView, Long> {
+    String SELECT_WITH_PRODUCT_NAME = "select i.id, i.order_id, i.product_id, p.name as product_name, i.quantity, i.price"
+            + " from order_items i join products p on p.id = i.product_id";
+
+    @Query(SELECT_WITH_PRODUCT_NAME + " where i.id = :id")
+    Mono<OrderItemView> findWithProductNameById(@Param("id") long id);
+
+    @Query(SELECT_WITH_PRODUCT_NAME + " order by i.id")
+    Flux<OrderItemView> findAllWithProductName();
+
+    @Query(SELECT_WITH_PRODUCT_NAME + " where i.order_id in (:orderIds) order by i.order_id, i.id")
+    Flux<OrderItemView> findWithProductNameByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,5 +1,6 @@
 package com.agile.ecommerce.orderItem.domain;
 
+import com.agile.ecommerce.config.PooledSequence;
 import com.agile.ecommerce.order.domain.Order;
 import com.agile.ecommerce.product.domain.Product;
 import jakarta.persistence.*;
@@ -16,7 +17,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "order_items_seq")
     private Long id;
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
@@ -0,0 +1,21 @@
+package com.agile.ecommerce.orderItem.domain;
+
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * An order item as the reactive read API loads it through R2DBC, with the name of its product joined in; the JPA
+ * side keeps using {@link OrderItem}.
+ */
+@Table("order_items")
+public record OrderItemView(@Id Long id, long orderId, long productId, @ReadOnlyProperty String productName,
+                           int quantity, BigDecimal price) {
+
+    public OrderItemDto toDto() {
+        return new OrderItemDto(productId, productName, quantity, price, orderId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.agile.ecommerce.orderItem.dto;
+
+/**
+ * An {@link OrderItemDto} with the item id it was read from, which the dto does not expose but a page cursor needs.
+ */
+public record OrderItemCursorRow(long id, OrderItemDto item) {
+}
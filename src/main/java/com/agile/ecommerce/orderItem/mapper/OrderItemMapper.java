@@ -0,0 +1,19 @@
+package com.agile.ecommerce.orderItem.mapper;
+
+import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+
+public interface OrderItemMapper {
+
+    OrderItemDto toDto(OrderItem orderItem);
+
+    /**
+     * Builds a detached item whose product and order are id-only references, to be resolved by the caller.
+     */
+    OrderItem toEntity(OrderItemDto dto);
+
+    /**
+     * Copies the line values (quantity and price) of the dto into an existing item.
+     */
+    void copyInto(OrderItemDto dto, OrderItem orderItem);
+}
@@ -1,15 +1,22 @@
 package com.agile.ecommerce.orderItem.rest;
 
+import com.agile.ecommerce.idempotency.core.IdempotencyService;
+import com.agile.ecommerce.idempotency.exception.IdempotencyKeyReusedException;
+import com.agile.ecommerce.idempotency.exception.IdempotentRequestInProgressException;
+import com.agile.ecommerce.idempotency.exception.InvalidIdempotencyKeyException;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
 import com.agile.ecommerce.orderItem.core.OrderItemService;
 import com.agile.ecommerce.orderItem.dto.OrderItemDto;
 import com.agile.ecommerce.orderItem.exception.OrderItemNotFoundException;
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -18,10 +25,12 @@ import org.springframework.web.bind.annotation.*;
 
 @AllArgsConstructor
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/order-items")
 @Tag(name = "OrderItems", description = "API for managing order items")
 public final class OrderItemController {
     private final OrderItemService service;
+    private final IdempotencyService idempotencyService;
 
     @Operation(summary = "Get all order items", description = "Retrieve a paginated list of all order items")
     @ApiResponses(value = {
@@ -33,6 +42,18 @@ public final class OrderItemController {
         return ResponseEntity.ok(service.getAll(pageable));
     }
 
+    @Operation(summary = "Scroll order items", description = "Retrieve order items in id order, one keyset page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the order items"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<OrderItemDto>> scrollOrderItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) throws InvalidCursorException {
+        return ResponseEntity.ok(service.scroll(cursor, size));
+    }
+
     @Operation(summary = "Get order item by ID", description = "Retrieve a specific order item by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the order item"),
@@ -43,13 +64,25 @@ public final class OrderItemController {
         return ResponseEntity.ok(service.getById(id));
     }
 
-    @Operation(summary = "Add a new order item", description = "Create a new order item")
+    @Operation(summary = "Add a new order item", description = "Create a new order item. "
+            + "A retry sent with the same Idempotency-Key gets the original response instead of a second item")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Order item created")
+            @ApiResponse(responseCode = "201", description = "Order item created, or the response to an earlier request with the same key"),
+            @ApiResponse(responseCode = "400", description = "Invalid idempotency key"),
+            @ApiResponse(responseCode = "409", description = "The request with the same key is still running"),
+            @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different order item")
     })
     @PostMapping
-    public ResponseEntity<OrderItemDto> addOrderItem(@RequestBody OrderItemDto orderItemDto) throws ProductNotFoundException, OrderNotFoundException {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.add(orderItemDto));
+    public ResponseEntity<OrderItemDto> addOrderItem(@RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                     @RequestBody OrderItemDto orderItemDto)
+            throws ProductNotFoundException, OrderNotFoundException, InvalidIdempotencyKeyException,
+            IdempotencyKeyReusedException, IdempotentRequestInProgressException {
+        try (var request = idempotencyService.claim("order-items", idempotencyKey, orderItemDto)) {
+            if (request.isReplay()) {
+                return request.replay(OrderItemDto.class);
+            }
+            return request.complete(HttpStatus.CREATED, service.add(orderItemDto));
+        }
     }
 
     @Operation(summary = "Update an order item", description = "Update an existing order item by its ID")
@@ -57,9 +90,10 @@ public final class OrderItemController {
             @ApiResponse(responseCode = "200", description = "Order item updated"),
             @ApiResponse(responseCode = "404", description = "Order item not found")
     })
-    @PutMapping
-    public ResponseEntity<OrderItemDto> updateOrderItem(@RequestBody OrderItemDto orderItemDto) throws OrderItemNotFoundException, ProductNotFoundException {
-        return ResponseEntity.ok(service.update(orderItemDto));
+    @PutMapping("/{id}")
+    public ResponseEntity<OrderItemDto> updateOrderItem(@PathVariable long id, @RequestBody OrderItemDto orderItemDto)
+            throws OrderItemNotFoundException, ProductNotFoundException {
+        return ResponseEntity.ok(service.update(id, orderItemDto));
     }
 
     @Operation(summary = "Delete an order item", description = "Delete a specific order item by its ID")
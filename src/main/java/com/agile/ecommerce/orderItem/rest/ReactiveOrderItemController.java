@@ -0,0 +1,46 @@
+package com.agile.ecommerce.orderItem.rest;
+
+import com.agile.ecommerce.orderItem.core.ReactiveOrderItemService;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, non-blocking replacement for {@link OrderItemController} under the {@code reactive} profile.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/order-items")
+@Profile("reactive")
+@Tag(name = "OrderItems", description = "Reactive read API for order items")
+public final class ReactiveOrderItemController {
+    private final ReactiveOrderItemService service;
+
+    @Operation(summary = "Stream all order items", description = "Stream every order item in id order, one JSON object per line")
+    @ApiResponse(responseCode = "200", description = "Order items streamed")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderItemDto> getAllOrderItems() {
+        return service.getAll();
+    }
+
+    @Operation(summary = "Get order item by ID", description = "Retrieve a specific order item by its ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the order item"),
+            @ApiResponse(responseCode = "404", description = "OrderItem not found")
+    })
+    @GetMapping("/{id}")
+    public Mono<OrderItemDto> getOrderItemById(@PathVariable long id) {
+        return service.getById(id);
+    }
+}
@@ -0,0 +1,19 @@
+package com.agile.ecommerce.pagination;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back to get the following page; it is {@code null} on
+ * the last page. No total is computed, so fetching a page costs the same however deep it is.
+ */
+public record CursorPage<T>(List<T> content, int size, String nextCursor) {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * Clamps a requested page size to {@code [1, MAX_SIZE]}.
+     */
+    public static int limit(int requestedSize) {
+        return Math.clamp(requestedSize, 1, MAX_SIZE);
+    }
+}
@@ -0,0 +1,7 @@
+package com.agile.ecommerce.pagination;
+
+public class InvalidCursorException extends Exception{
+    public InvalidCursorException(String cursor) {
+        super("Invalid cursor "+cursor);
+    }
+}
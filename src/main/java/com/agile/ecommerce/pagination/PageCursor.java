@@ -0,0 +1,59 @@
+package com.agile.ecommerce.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Opaque continuation token: the sort key of the last row of a page, tagged with the list it belongs to so a token
+ * from one endpoint is rejected by another.
+ */
+public final class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    private final String token;
+    private final String[] keys;
+
+    private PageCursor(String token, String[] keys) {
+        this.token = token;
+        this.keys = keys;
+    }
+
+    public static String encode(String scope, Object... keys) {
+        var raw = scope + SEPARATOR + Arrays.stream(keys).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String scope, String token, int keyCount) throws InvalidCursorException {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+        var parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != keyCount + 1 || !parts[0].equals(scope)) {
+            throw new InvalidCursorException(token);
+        }
+        return new PageCursor(token, Arrays.copyOfRange(parts, 1, parts.length));
+    }
+
+    public long longKey(int index) throws InvalidCursorException {
+        try {
+            return Long.parseLong(keys[index]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public LocalDateTime dateTimeKey(int index) throws InvalidCursorException {
+        try {
+            return LocalDateTime.parse(keys[index]);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.exception.ProductImportException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 records: fields may be quoted, quoted fields may contain commas, doubled quotes and line breaks. Columns
+ * are matched by header name, in any order; unknown columns, including {@code id}, are ignored.
+ */
+class CsvProductRowReader extends ProductRowReader {
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "description", "price", "quantity");
+
+    private final int name;
+    private final int description;
+    private final int price;
+    private final int quantity;
+    private final int columns;
+
+    CsvProductRowReader(InputStream body) throws IOException, ProductImportException {
+        super(body);
+        var headerRecord = readRecord();
+        var header = headerRecord == null ? List.<String>of() : split(headerRecord).stream().map(String::strip).toList();
+        var missing = REQUIRED_COLUMNS.stream().filter(column -> !header.contains(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new ProductImportException("CSV header is missing columns " + missing);
+        }
+        this.name = header.indexOf("name");
+        this.description = header.indexOf("description");
+        this.price = header.indexOf("price");
+        this.quantity = header.indexOf("quantity");
+        this.columns = Math.max(Math.max(name, description), Math.max(price, quantity)) + 1;
+    }
+
+    @Override
+    protected String readRecord() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        if (line == null) {
+            return null;
+        }
+        var record = new StringBuilder(line);
+        while (hasOpenQuote(record)) {
+            var continuation = reader.readLine();
+            if (continuation == null) {
+                break;
+            }
+            record.append('\n').append(continuation);
+        }
+        return record.toString();
+    }
+
+    @Override
+    protected ProductDto parse(String record) throws MalformedRowException {
+        var fields = split(record);
+        if (fields.size() < columns) {
+            throw new MalformedRowException("Expected at least " + columns + " columns but found " + fields.size());
+        }
+        var product = new ProductDto();
+        product.name = fields.get(name);
+        product.description = fields.get(description);
+        product.price = parsePrice(fields.get(price));
+        product.quantity = parseQuantity(fields.get(quantity));
+        return product;
+    }
+
+    private static BigDecimal parsePrice(String value) throws MalformedRowException {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.strip());
+        } catch (NumberFormatException e) {
+            throw new MalformedRowException("price: '" + value + "' is not a number");
+        }
+    }
+
+    private static int parseQuantity(String value) throws MalformedRowException {
+        try {
+            return Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            throw new MalformedRowException("quantity: '" + value + "' is not a whole number");
+        }
+    }
+
+    private static boolean hasOpenQuote(CharSequence record) {
+        var quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    static List<String> split(String record) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            var c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,27 @@
+package com.agile.ecommerce.product.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Products whose stock {@link StockService} keeps in memory, for flash sales.
+ *
+ * @param productIds    the hot products; an unknown id fails startup
+ * @param stripes       counters each hot product's stock is split over, or 0 for one per processor
+ * @param flushInterval how often units sold are written to {@code products.quantity}, which bounds how far behind
+ *                      the stored quantity of a hot product may be; in ISO-8601 form ({@code PT1S}), which is
+ *                      the only one the scheduler reads
+ */
+@ConfigurationProperties(prefix = "ecommerce.hot-stock")
+public record HotStockProperties(
+        @DefaultValue Set<Long> productIds,
+        @DefaultValue("0") int stripes,
+        @DefaultValue("PT1S") Duration flushInterval) {
+
+    public int stripeCount() {
+        return stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+    }
+}
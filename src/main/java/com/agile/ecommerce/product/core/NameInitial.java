@@ -0,0 +1,39 @@
+package com.agile.ecommerce.product.core;
+
+/**
+ * Ranges of the first letter of a product name, accents ignored, as a facet. Names starting with a digit or a letter
+ * outside A to Z fall in {@link #OTHER}.
+ */
+public enum NameInitial {
+    A_TO_E('a', 'e'),
+    F_TO_J('f', 'j'),
+    K_TO_O('k', 'o'),
+    P_TO_T('p', 't'),
+    U_TO_Z('u', 'z'),
+    OTHER('\0', '\0');
+
+    private final char first;
+    private final char last;
+
+    NameInitial(char first, char last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * The range the first word of {@code name} starts in.
+     */
+    public static NameInitial of(String name) {
+        var words = ProductSearchIndex.tokenize(name);
+        if (words.isEmpty()) {
+            return OTHER;
+        }
+        char initial = words.getFirst().charAt(0);
+        for (var range : values()) {
+            if (initial >= range.first && initial <= range.last) {
+                return range;
+            }
+        }
+        return OTHER;
+    }
+}
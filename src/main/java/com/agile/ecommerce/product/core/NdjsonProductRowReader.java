@@ -0,0 +1,37 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+class NdjsonProductRowReader extends ProductRowReader {
+    private final ObjectMapper objectMapper;
+
+    NdjsonProductRowReader(InputStream body, ObjectMapper objectMapper) {
+        super(body);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected String readRecord() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected ProductDto parse(String record) throws MalformedRowException {
+        try {
+            return objectMapper.readValue(record, ProductDto.class);
+        } catch (JsonProcessingException e) {
+            throw new MalformedRowException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+}
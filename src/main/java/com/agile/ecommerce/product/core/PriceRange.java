@@ -0,0 +1,35 @@
+package com.agile.ecommerce.product.core;
+
+import java.math.BigDecimal;
+
+/**
+ * Price buckets products are faceted by. Each range includes its lower bound and excludes its upper one.
+ */
+public enum PriceRange {
+    UNDER_10(null, "10"),
+    FROM_10_TO_25("10", "25"),
+    FROM_25_TO_50("25", "50"),
+    FROM_50_TO_100("50", "100"),
+    FROM_100("100", null);
+
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    PriceRange(String min, String max) {
+        this.min = min == null ? null : new BigDecimal(min);
+        this.max = max == null ? null : new BigDecimal(max);
+    }
+
+    /**
+     * The range {@code price} falls in.
+     */
+    public static PriceRange of(BigDecimal price) {
+        for (var range : values()) {
+            if ((range.min == null || price.compareTo(range.min) >= 0)
+                    && (range.max == null || price.compareTo(range.max) < 0)) {
+                return range;
+            }
+        }
+        throw new IllegalArgumentException("No price range for " + price);
+    }
+}
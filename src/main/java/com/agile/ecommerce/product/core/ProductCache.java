@@ -0,0 +1,121 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductCacheStats;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of products by id, bounded by size and age. Callers get their own detached copy of each product,
+ * so nothing they do to it leaks into the cache or into other requests. Unknown ids are not cached.
+ */
+@Component
+public class ProductCache {
+    private final LoadingCache<Long, Product> cache;
+
+    @Autowired
+    public ProductCache(ProductRepository repository, ProductCacheProperties properties) {
+        this(repository, properties, Ticker.systemTicker());
+    }
+
+    ProductCache(ProductRepository repository, ProductCacheProperties properties, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .ticker(ticker)
+                .recordStats()
+                .build(new ProductLoader(repository));
+    }
+
+    public Optional<Product> get(long id) {
+        return Optional.ofNullable(cache.get(id)).map(ProductCache::copy);
+    }
+
+    /**
+     * The product if it is cached, without loading it otherwise. Only a hit is counted, so the load that usually
+     * follows a miss counts it once.
+     */
+    public Optional<Product> getIfPresent(long id) {
+        if (cache.policy().getIfPresentQuietly(id) == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(id)).map(ProductCache::copy);
+    }
+
+    /**
+     * The known products among {@code ids}, keyed by id. Products not cached yet are loaded with a single query.
+     */
+    public Map<Long, Product> getAll(Collection<Long> ids) {
+        return cache.getAll(ids).values().stream()
+                .map(ProductCache::copy)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    /**
+     * Drops the product now and, when called inside a transaction, again once it commits, so a concurrent read of the
+     * old row cannot repopulate the cache with it.
+     */
+    public void invalidate(long id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    public ProductCacheStats stats() {
+        var stats = cache.stats();
+        return new ProductCacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), stats.loadCount(), stats.averageLoadPenalty() / 1_000_000);
+    }
+
+    /**
+     * Loads through the repository and keeps copies, so the cache never holds an instance managed by the persistence
+     * context of whichever transaction happened to miss.
+     */
+    private record ProductLoader(ProductRepository repository) implements CacheLoader<Long, Product> {
+        @Override
+        public Product load(Long id) {
+            return repository.findById(id).map(ProductCache::copy).orElse(null);
+        }
+
+        @Override
+        public Map<Long, Product> loadAll(Set<? extends Long> ids) {
+            return repository.findAllById(Set.copyOf(ids)).stream()
+                    .map(ProductCache::copy)
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+        }
+    }
+
+    private static Product copy(Product product) {
+        var copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setPrice(product.getPrice());
+        copy.setQuantity(product.getQuantity());
+        copy.setVersion(product.getVersion());
+        copy.setLastModified(product.getLastModified());
+        copy.setNameVersion(product.getNameVersion());
+        copy.setNameModified(product.getNameModified());
+        return copy;
+    }
+}
@@ -0,0 +1,19 @@
+package com.agile.ecommerce.product.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds for {@link ProductCache}.
+ *
+ * @param maximumSize      products kept before the least valuable are evicted
+ * @param expireAfterWrite how long a loaded product is served before it is read again, which also bounds staleness
+ *                         after changes made outside this application
+ */
+@ConfigurationProperties(prefix = "ecommerce.product-cache")
+public record ProductCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration expireAfterWrite) {
+}
@@ -0,0 +1,289 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductFacetPage;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Filters products by price range, stock and name initial, answered from memory: each facet value keeps a compressed
+ * bitmap of the ids of its products, so that a selection is a few bitmap unions and intersections and counting a
+ * value's products never touches the products themselves. Values selected within a facet are combined with OR, the
+ * facets with AND. Product ids have to fit in an {@code int}.
+ * <p>
+ * Like the {@link ProductSearchIndex}, the bitmaps are loaded from the database on startup and kept up to date by the
+ * product writes of this instance once they commit, including the units orders take out of stock.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex implements SmartInitializingSingleton {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final ProductRepository repository;
+    // the bitmaps, the entries and the list of all products change together under the write lock
+    private final Facet<PriceRange> priceRanges = new Facet<>(PriceRange.class);
+    private final Facet<StockStatus> stock = new Facet<>(StockStatus.class);
+    private final Facet<NameInitial> nameInitials = new Facet<>(NameInitial.class);
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductFacetIndex(ProductRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long began = System.nanoTime();
+        long after = 0;
+        List<Product> chunk;
+        lock.writeLock().lock();
+        try {
+            do {
+                chunk = repository.findChunkAfter(after, Limit.of(LOAD_CHUNK_SIZE));
+                chunk.forEach(this::index);
+                after = chunk.isEmpty() ? after : chunk.getLast().getId();
+            } while (chunk.size() == LOAD_CHUNK_SIZE);
+            Stream.of(priceRanges, stock, nameInitials).forEach(Facet::runOptimize);
+            all.runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} products for faceting in {} ms", entries.size(), (System.nanoTime() - began) / 1_000_000);
+    }
+
+    /**
+     * Page {@code page} (from 0) of the ids of the products in any of the selected values of every facet, with
+     * {@code size} clamped to {@code [1, MAX_SIZE]}, and the count of every facet value. An empty selection leaves a
+     * facet unfiltered. A value's count takes the selection in the other facets into account but not the one in its
+     * own, so that it tells how many products choosing it instead would match.
+     */
+    public ProductFacetPage find(Collection<PriceRange> selectedPriceRanges, Collection<StockStatus> selectedStock,
+                                 Collection<NameInitial> selectedNameInitials, int page, int size) {
+        int limit = Math.clamp(size, 1, MAX_SIZE);
+        long offset = (long) Math.max(page, 0) * limit;
+        lock.readLock().lock();
+        try {
+            // null stands for an unfiltered facet, so that it costs no union and no intersection
+            var byPrice = priceRanges.union(selectedPriceRanges);
+            var byStock = stock.union(selectedStock);
+            var byInitial = nameInitials.union(selectedNameInitials);
+            var exceptPrice = intersect(byStock, byInitial);
+            var matches = Objects.requireNonNullElse(intersect(byPrice, exceptPrice), all);
+            var ids = new ArrayList<Long>(limit);
+            if (offset < matches.getCardinality()) {
+                var iterator = matches.getIntIterator();
+                iterator.advanceIfNeeded(matches.select((int) offset));
+                while (iterator.hasNext() && ids.size() < limit) {
+                    ids.add((long) iterator.next());
+                }
+            }
+            return new ProductFacetPage(List.copyOf(ids), Math.max(page, 0), limit, matches.getCardinality(),
+                    priceRanges.counts(exceptPrice),
+                    stock.counts(intersect(byPrice, byInitial)),
+                    nameInitials.counts(intersect(byPrice, byStock)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Files the product under its facet values as it is, or once the current transaction commits. A product already
+     * indexed is moved.
+     */
+    public void put(Product product) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                index(product);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops the product from every facet, once the current transaction commits if there is one.
+     */
+    public void remove(long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(Math.toIntExact(id));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Takes {@code quantities} (product id to units) off the indexed stock, once the current transaction commits if
+     * there is one, moving the products left without units to {@link StockStatus#OUT_OF_STOCK}.
+     */
+    public void takeStock(Map<Long, Integer> quantities) {
+        var taken = Map.copyOf(quantities);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                taken.forEach((id, units) -> {
+                    int key = Math.toIntExact(id);
+                    var entry = entries.get(key);
+                    if (entry == null) {
+                        return;
+                    }
+                    var left = entry.withQuantity(entry.quantity() - units);
+                    stock.move(key, StockStatus.of(entry.quantity()), StockStatus.of(left.quantity()));
+                    entries.put(key, left);
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The intersection of the filters given, or {@code null} if none is. A single filter is returned as is.
+     */
+    private static RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = null;
+        for (var filter : filters) {
+            if (filter != null) {
+                result = result == null ? filter : RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private void index(Product product) {
+        int id = Math.toIntExact(product.getId());
+        unindex(id);
+        var entry = new Entry(PriceRange.of(product.getPrice()), NameInitial.of(product.getName()),
+                product.getQuantity());
+        priceRanges.add(entry.priceRange(), id);
+        stock.add(StockStatus.of(entry.quantity()), id);
+        nameInitials.add(entry.nameInitial(), id);
+        all.add(id);
+        entries.put(id, entry);
+    }
+
+    private void unindex(int id) {
+        var entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        priceRanges.remove(entry.priceRange(), id);
+        stock.remove(StockStatus.of(entry.quantity()), id);
+        nameInitials.remove(entry.nameInitial(), id);
+        all.remove(id);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * The facet values a product is filed under, and its stock, to find its bits again when it changes.
+     */
+    private record Entry(PriceRange priceRange, NameInitial nameInitial, int quantity) {
+        Entry withQuantity(int quantity) {
+            return new Entry(priceRange, nameInitial, quantity);
+        }
+    }
+
+    /**
+     * The ids of the products of each value of one facet; every indexed product is in exactly one of them.
+     */
+    private static final class Facet<V extends Enum<V>> {
+        private final Class<V> type;
+        private final Map<V, RoaringBitmap> bitmaps;
+
+        Facet(Class<V> type) {
+            this.type = type;
+            bitmaps = new EnumMap<>(type);
+            for (var value : type.getEnumConstants()) {
+                bitmaps.put(value, new RoaringBitmap());
+            }
+        }
+
+        void add(V value, int id) {
+            bitmaps.get(value).add(id);
+        }
+
+        void remove(V value, int id) {
+            bitmaps.get(value).remove(id);
+        }
+
+        void move(int id, V from, V to) {
+            if (from != to) {
+                remove(from, id);
+                add(to, id);
+            }
+        }
+
+        void runOptimize() {
+            bitmaps.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        /**
+         * The products in any of {@code selected}, or {@code null} for an empty selection. A single value's bitmap is
+         * returned as is.
+         */
+        RoaringBitmap union(Collection<V> selected) {
+            if (selected == null || selected.isEmpty()) {
+                return null;
+            }
+            var distinct = selected.stream().distinct().toList();
+            if (distinct.size() == 1) {
+                return bitmaps.get(distinct.getFirst());
+            }
+            return RoaringBitmap.or(distinct.stream().map(bitmaps::get).iterator());
+        }
+
+        /**
+         * The number of products of each value within {@code filter}, or overall for a {@code null} filter.
+         */
+        Map<V, Integer> counts(RoaringBitmap filter) {
+            var counts = new EnumMap<V, Integer>(type);
+            bitmaps.forEach((value, bitmap) -> counts.put(value,
+                    filter == null ? bitmap.getCardinality() : RoaringBitmap.andCardinality(bitmap, filter)));
+            return counts;
+        }
+    }
+}
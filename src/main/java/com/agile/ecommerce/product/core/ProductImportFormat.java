@@ -0,0 +1,11 @@
+package com.agile.ecommerce.product.core;
+
+public enum ProductImportFormat {
+    /** One {@code ProductDto} JSON object per line. */
+    NDJSON,
+    /** A header row naming the {@code name}, {@code description}, {@code price} and {@code quantity} columns, then one product per record. */
+    CSV;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+}
@@ -0,0 +1,18 @@
+package com.agile.ecommerce.product.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for {@link ProductImportService}.
+ *
+ * @param chunkSize rows written per transaction
+ * @param maxErrors row errors kept in the report; further rejections are only counted
+ * @param useCopy   write chunks with PostgreSQL {@code COPY} when the connection supports it, JDBC batches otherwise
+ */
+@ConfigurationProperties(prefix = "ecommerce.product-import")
+public record ProductImportProperties(
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("1000") int maxErrors,
+        @DefaultValue("true") boolean useCopy) {
+}
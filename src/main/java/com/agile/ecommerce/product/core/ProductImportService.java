@@ -0,0 +1,110 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductBulkWriter;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.dto.ProductImportReport;
+import com.agile.ecommerce.product.exception.ProductImportException;
+import com.agile.ecommerce.product.mapper.ProductMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams products from an NDJSON or CSV payload into the catalog. Rows are validated against the {@link ProductDto}
+ * constraints and written in chunks of {@link ProductImportProperties#chunkSize()}, each chunk in its own transaction;
+ * only the current chunk is held in memory. Ids in the payload are ignored, every row becomes a new product.
+ */
+@Component
+@AllArgsConstructor
+@Timed("ecommerce.service")
+public class ProductImportService {
+    private final ProductBulkWriter writer;
+    private final ProductMapper mapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductImportProperties properties;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+
+    public ProductImportReport importProducts(InputStream body, ProductImportFormat format)
+            throws IOException, ProductImportException {
+        var reader = ProductRowReader.open(format, body, objectMapper);
+        var tally = new Tally(properties.maxErrors());
+        var chunk = new ArrayList<Product>(properties.chunkSize());
+        var chunkRows = new ArrayList<Long>(properties.chunkSize());
+        ProductRowReader.Row row;
+        while ((row = reader.next()) != null) {
+            tally.received++;
+            var errors = row.errors().isEmpty() ? validate(row.product()) : row.errors();
+            if (!errors.isEmpty()) {
+                tally.reject(row.row(), errors);
+                continue;
+            }
+            var product = mapper.toEntity(row.product());
+            product.setId(null);
+            chunk.add(product);
+            chunkRows.add(row.row());
+            if (chunk.size() == properties.chunkSize()) {
+                flush(chunk, chunkRows, tally);
+            }
+        }
+        flush(chunk, chunkRows, tally);
+        return tally.toReport();
+    }
+
+    private List<String> validate(ProductDto product) {
+        return validator.validate(product).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private void flush(List<Product> chunk, List<Long> chunkRows, Tally tally) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            writer.insertAll(chunk, properties.useCopy());
+            chunk.forEach(searchIndex::put);
+            chunk.forEach(facetIndex::put);
+            tally.imported += chunk.size();
+        } catch (DataAccessException e) {
+            var message = "Not written: " + e.getMostSpecificCause().getMessage();
+            chunkRows.forEach(row -> tally.reject(row, List.of(message)));
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    private static final class Tally {
+        private final int maxErrors;
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long rejected;
+
+        private Tally(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long row, List<String> messages) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportReport.RowError(row, messages));
+            }
+        }
+
+        private ProductImportReport toReport() {
+            return new ProductImportReport(received, imported, rejected, List.copyOf(errors), rejected > errors.size());
+        }
+    }
+}
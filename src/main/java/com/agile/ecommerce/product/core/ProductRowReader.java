@@ -0,0 +1,69 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.exception.ProductImportException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Pulls one product at a time off an import payload, so memory use does not depend on its size. A row that cannot
+ * be parsed comes back with an error instead of ending the import.
+ */
+abstract class ProductRowReader {
+    protected final BufferedReader reader;
+    private long row;
+
+    protected ProductRowReader(InputStream body) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    static ProductRowReader open(ProductImportFormat format, InputStream body, ObjectMapper objectMapper)
+            throws IOException, ProductImportException {
+        return switch (format) {
+            case NDJSON -> new NdjsonProductRowReader(body, objectMapper);
+            case CSV -> new CsvProductRowReader(body);
+        };
+    }
+
+    /**
+     * @return the next row, or {@code null} once the payload is exhausted
+     */
+    final Row next() throws IOException {
+        var record = readRecord();
+        if (record == null) {
+            return null;
+        }
+        row++;
+        try {
+            return new Row(row, parse(record), List.of());
+        } catch (MalformedRowException e) {
+            return new Row(row, null, List.of(e.getMessage()));
+        }
+    }
+
+    /**
+     * @return the raw text of the next non-blank record, or {@code null} at the end of the payload
+     */
+    protected abstract String readRecord() throws IOException;
+
+    protected abstract ProductDto parse(String record) throws MalformedRowException;
+
+    /**
+     * @param row    1-based position among the data rows of the payload
+     * @param errors parse errors; when non-empty {@code product} is {@code null}
+     */
+    record Row(long row, ProductDto product, List<String> errors) {
+    }
+
+    static class MalformedRowException extends Exception {
+        MalformedRowException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductSearchHit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text search over product names and descriptions, answered from memory. Text is split into lower-case words
+ * with accents removed; every word of a query has to match a word of the product, in full or, for query words of at
+ * least {@value #MIN_PREFIX_LENGTH} characters, as its prefix. A prefix stands for at most {@value #MAX_EXPANSIONS}
+ * words, the first in alphabetical order, so that a short one does not score most of the catalog. Hits are ranked by
+ * how often and where their words occur, weighted by how rare the words are across the catalog: a match in the name
+ * counts {@value #NAME_WEIGHT} times as much as one in the description, a prefix match half as much as an exact one.
+ * <p>
+ * The index is loaded from the database on startup and kept up to date by the product writes of this instance, once
+ * they commit, including the units orders take out of stock. Changes made to the table by other means show up after
+ * a restart.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    static final int NAME_WEIGHT = 3;
+    public static final int MIN_PREFIX_LENGTH = 3;
+    public static final int MAX_EXPANSIONS = 50;
+    private static final double PREFIX_FACTOR = 0.5;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<ProductSearchHit> RANKING =
+            Comparator.comparingDouble(ProductSearchHit::score).reversed().thenComparingLong(ProductSearchHit::id);
+
+    private final ProductRepository repository;
+    // documents are replaced whole, so that a stock change needs no lock; words and postings change together under
+    // the write lock
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSearchIndex(ProductRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long began = System.nanoTime();
+        long after = 0;
+        List<Product> chunk;
+        do {
+            chunk = repository.findChunkAfter(after, Limit.of(LOAD_CHUNK_SIZE));
+            chunk.forEach(this::index);
+            after = chunk.isEmpty() ? after : chunk.getLast().getId();
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+        log.info("Indexed {} products for search in {} ms", documents.size(), (System.nanoTime() - began) / 1_000_000);
+    }
+
+    /**
+     * The best matches for {@code text} among the products within the price range and, if {@code inStock} is given,
+     * with or without units left; at most {@code limit} clamped to {@code [1, MAX_LIMIT]}, best first. Ties go to the
+     * lowest id.
+     *
+     * @param minPrice inclusive lower bound on the price, or {@code null}
+     * @param maxPrice inclusive upper bound on the price, or {@code null}
+     */
+    public List<ProductSearchHit> search(String text, BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                                         int limit) {
+        var words = new LinkedHashSet<>(tokenize(text));
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        Scores scores = null;
+        lock.readLock().lock();
+        try {
+            for (var word : words) {
+                scores = score(word, scores);
+                if (scores.size() == 0) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // keeps the best hits so far, worst at the head, rather than sorting every match
+        int size = Math.clamp(limit, 1, MAX_LIMIT);
+        var best = new PriorityQueue<ProductSearchHit>(size + 1, RANKING.reversed());
+        scores.forEach((id, score) -> {
+            if (best.size() == size && !outranks(score, id, best.peek())) {
+                return;
+            }
+            var document = documents.get(id);
+            if (document != null && document.matches(minPrice, maxPrice, inStock)) {
+                best.add(document.toHit(score));
+                if (best.size() > size) {
+                    best.poll();
+                }
+            }
+        });
+        var hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return List.copyOf(hits);
+    }
+
+    /**
+     * Indexes the product as it is, or once the current transaction commits. A product already indexed is replaced.
+     */
+    public void put(Product product) {
+        afterCommit(() -> index(product));
+    }
+
+    /**
+     * Drops the product from the index, once the current transaction commits if there is one.
+     */
+    public void remove(long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Takes {@code quantities} (product id to units) off the indexed stock, once the current transaction commits if
+     * there is one.
+     */
+    public void takeStock(Map<Long, Integer> quantities) {
+        var taken = Map.copyOf(quantities);
+        afterCommit(() -> taken.forEach((id, units) -> documents.computeIfPresent(id,
+                (ignored, document) -> document.withQuantity(document.quantity() - units))));
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Lower-case words of {@code text} without accents, in order, repeats included.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        var plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.splitAsStream(plain.toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Adds the score of {@code word} to the {@code previous} words' scores, keeping only the products it matches too;
+     * or, for the first word, scores every product it matches. A word scores the best of the matching words' weights
+     * times their inverse document frequency, halved for a prefix match.
+     */
+    private Scores score(String word, Scores previous) {
+        var matches = new ArrayList<Postings>();
+        var exact = postings.get(word);
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            postings.subMap(word, false, word + Character.MAX_VALUE, false).values().stream()
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(matches::add);
+        }
+        // a first word matches at least as many products as its largest postings, a later one at most the candidates
+        int expected = exact == null ? 0 : exact.size();
+        for (var match : matches) {
+            expected = Math.max(expected, match.size());
+        }
+        var scores = new Scores(previous == null ? expected : Math.min(expected, previous.size()));
+        if (exact != null) {
+            addScores(exact, 1, previous, scores);
+        }
+        matches.forEach(match -> addScores(match, PREFIX_FACTOR, previous, scores));
+        if (previous != null) {
+            scores.forEach((id, score) -> scores.add(id, previous.get(id)));
+        }
+        return scores;
+    }
+
+    private void addScores(Postings postings, double factor, Scores candidates, Scores scores) {
+        var weight = Math.log(1 + (double) documents.size() / postings.size()) * factor;
+        for (int i = 0; i < postings.size(); i++) {
+            var id = postings.id(i);
+            if (candidates == null || candidates.contains(id)) {
+                scores.max(id, postings.weight(i) * weight);
+            }
+        }
+    }
+
+    private static boolean outranks(double score, long id, ProductSearchHit hit) {
+        return score > hit.score() || score == hit.score() && id < hit.id();
+    }
+
+    private void index(Product product) {
+        var weights = new HashMap<String, Integer>();
+        tokenize(product.getName()).forEach(word -> weights.merge(word, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getDescription()).forEach(word -> weights.merge(word, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            unindex(product.getId());
+            weights.forEach((word, weight) -> postings.computeIfAbsent(word, ignored -> new Postings())
+                    .add(product.getId(), weight));
+            documents.put(product.getId(), new Document(product.getId(), product.getName(), product.getDescription(),
+                    product.getPrice(), product.getQuantity(), Set.copyOf(weights.keySet())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(long id) {
+        var document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (var word : document.words()) {
+            var products = postings.get(word);
+            products.remove(id);
+            if (products.size() == 0) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Document(long id, String name, String description, BigDecimal price, int quantity,
+                            Set<String> words) {
+        boolean matches(BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock) {
+            return (minPrice == null || price.compareTo(minPrice) >= 0)
+                    && (maxPrice == null || price.compareTo(maxPrice) <= 0)
+                    && (inStock == null || inStock == quantity > 0);
+        }
+
+        Document withQuantity(int quantity) {
+            return new Document(id, name, description, price, quantity, words);
+        }
+
+        ProductSearchHit toHit(double score) {
+            return new ProductSearchHit(id, name, description, price, quantity, score);
+        }
+    }
+
+    /**
+     * Products with a word and the word's weight in each, in parallel arrays. Removal scans the list, which only
+     * updates and deletes pay for.
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long id(int index) {
+            return ids[index];
+        }
+
+        int weight(int index) {
+            return weights[index];
+        }
+
+        void add(long id, int weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores by product id in an open-addressing table, so that scoring a query allocates a few arrays rather than an
+     * entry and two boxes per matching product.
+     */
+    private static final class Scores {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] ids;
+        private double[] scores;
+        private int size;
+
+        Scores(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            ids = new long[capacity];
+            scores = new double[capacity];
+            Arrays.fill(ids, EMPTY);
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            return ids[slot(ids, id)] == id;
+        }
+
+        double get(long id) {
+            return scores[slot(ids, id)];
+        }
+
+        /**
+         * Sets the score of {@code id} to {@code score} if it has none or a lower one.
+         */
+        void max(long id, double score) {
+            int slot = slot(ids, id);
+            if (ids[slot] == id) {
+                scores[slot] = Math.max(scores[slot], score);
+                return;
+            }
+            ids[slot] = id;
+            scores[slot] = score;
+            if (++size * 2 > ids.length) {
+                grow();
+            }
+        }
+
+        /**
+         * Adds {@code score} to the score of {@code id}, which has to have one.
+         */
+        void add(long id, double score) {
+            scores[slot(ids, id)] += score;
+        }
+
+        void forEach(ScoreConsumer consumer) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != EMPTY) {
+                    consumer.accept(ids[i], scores[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            var oldIds = ids;
+            var oldScores = scores;
+            ids = new long[oldIds.length * 2];
+            scores = new double[oldIds.length * 2];
+            Arrays.fill(ids, EMPTY);
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != EMPTY) {
+                    int slot = slot(ids, oldIds[i]);
+                    ids[slot] = oldIds[i];
+                    scores[slot] = oldScores[i];
+                }
+            }
+        }
+
+        /**
+         * The slot holding {@code id}, or the empty one where it would go.
+         */
+        private static int slot(long[] ids, long id) {
+            int mask = ids.length - 1;
+            int slot = (int) (id * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            while (ids[slot] != EMPTY && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ScoreConsumer {
+        void accept(long id, double score);
+    }
+}
@@ -1,35 +1,105 @@
 package com.agile.ecommerce.product.core;
 
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.pagination.PageCursor;
 import com.agile.ecommerce.product.data.ProductRepository;
 import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductCacheStats;
 import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.dto.ProductFacetPage;
+import com.agile.ecommerce.product.dto.ProductSearchHit;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import com.agile.ecommerce.product.mapper.ProductMapper;
+import com.agile.ecommerce.versioning.EntityVersion;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Component
 @AllArgsConstructor
+@Timed("ecommerce.service")
 public class ProductService {
+    static final String CURSOR_SCOPE = "products";
+
     private final ProductRepository productRepository;
-    private final ModelMapper mapper;
+    private final ProductCache productCache;
+    private final ProductMapper mapper;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final StockService stockService;
 
     public Page<Product> getAll(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
 
+    /**
+     * Keyset page of products in id order. {@code cursor} is the {@code nextCursor} of the previous page, or
+     * {@code null} for the first one.
+     */
+    public CursorPage<Product> scroll(String cursor, int size) throws InvalidCursorException {
+        var limit = CursorPage.limit(size);
+        var after = cursor == null ? 0 : PageCursor.decode(CURSOR_SCOPE, cursor, 1).longKey(0);
+        var products = productRepository.findByIdGreaterThanOrderById(after, Limit.of(limit + 1));
+        if (products.size() <= limit) {
+            return new CursorPage<>(products, limit, null);
+        }
+        var content = products.subList(0, limit);
+        return new CursorPage<>(content, limit, PageCursor.encode(CURSOR_SCOPE, content.getLast().getId()));
+    }
+
+    /**
+     * Products matching {@code text}, best first, from the in-memory {@link ProductSearchIndex}.
+     */
+    public List<ProductSearchHit> search(String text, BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                                         int limit) {
+        return searchIndex.search(text, minPrice, maxPrice, inStock, limit);
+    }
+
+    /**
+     * A page of the products in the selected facet values, with every value's count, from the in-memory
+     * {@link ProductFacetIndex}.
+     */
+    public ProductFacetPage facets(Collection<PriceRange> priceRanges, Collection<StockStatus> stock,
+                                   Collection<NameInitial> nameInitials, int page, int size) {
+        return facetIndex.find(priceRanges, stock, nameInitials, page, size);
+    }
+
     public Product getById(long id) throws ProductNotFoundException {
-        return productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
+        return productCache.get(id).orElseThrow(() -> new ProductNotFoundException(id));
+    }
+
+    /**
+     * The product if the cache holds it, without a query.
+     */
+    public Optional<Product> getCachedById(long id) {
+        return productCache.getIfPresent(id);
+    }
+
+    /**
+     * What a conditional read of a product the cache misses is checked against, straight from the database.
+     */
+    public EntityVersion getVersion(long id) throws ProductNotFoundException {
+        return productRepository.findEntityVersionById(id).orElseThrow(() -> new ProductNotFoundException(id));
     }
 
     @Transactional
     public ProductDto add(ProductDto dto) {
-        var product = mapper.map(dto, Product.class);
+        var product = mapper.toEntity(dto);
         var savedProduct = productRepository.save(product);
-        return mapper.map(savedProduct, ProductDto.class);
+        searchIndex.put(savedProduct);
+        facetIndex.put(savedProduct);
+        return mapper.toDto(savedProduct);
     }
 
     @Transactional
@@ -37,12 +107,25 @@ public class ProductService {
         if (dto.id()==null){
             throw new ProductNotFoundException();
         }
-        if (!productRepository.existsById(dto.id())) {
-            throw new ProductNotFoundException(dto.id());
+        stockService.prepareQuantityChange(dto.id(), dto.quantity());
+        var version = productRepository.findEntityVersionById(dto.id())
+                .orElseThrow(() -> new ProductNotFoundException(dto.id()));
+        var name = productRepository.findNameVersionById(dto.id())
+                .orElseThrow(() -> new ProductNotFoundException(dto.id()));
+        var product = mapper.toEntity(dto);
+        product.setVersion(version.version());
+        if (name.name().equals(product.getName())) {
+            product.setNameVersion(name.version());
+            product.setNameModified(name.modified());
+        } else {
+            product.setNameVersion(name.version() + 1);
+            product.setNameModified(Instant.now());
         }
-        var product = mapper.map(dto, Product.class);
         var updatedProduct = productRepository.save(product);
-        return mapper.map(updatedProduct, ProductDto.class);
+        productCache.invalidate(dto.id());
+        searchIndex.put(updatedProduct);
+        facetIndex.put(updatedProduct);
+        return mapper.toDto(updatedProduct);
     }
 
     @Transactional
@@ -50,6 +133,14 @@ public class ProductService {
         if (!productRepository.existsById(id)) {
             throw new ProductNotFoundException(id);
         }
+        stockService.prepareDelete(id);
         productRepository.deleteById(id);
+        productCache.invalidate(id);
+        searchIndex.remove(id);
+        facetIndex.remove(id);
+    }
+
+    public ProductCacheStats cacheStats() {
+        return productCache.stats();
     }
 }
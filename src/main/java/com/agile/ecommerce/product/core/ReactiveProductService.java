@@ -0,0 +1,28 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ReactiveProductRepository;
+import com.agile.ecommerce.product.domain.ProductView;
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@AllArgsConstructor
+@Component
+@Profile("reactive")
+public class ReactiveProductService {
+    private final ReactiveProductRepository repository;
+
+    public Flux<ProductDto> getAll() {
+        return repository.findAllByOrderById().map(ProductView::toDto);
+    }
+
+    public Mono<ProductDto> getById(long id) {
+        return repository.findById(id)
+                .map(ProductView::toDto)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(id)));
+    }
+}
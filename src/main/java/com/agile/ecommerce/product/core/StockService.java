@@ -0,0 +1,211 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.PendingStockDecrementRepository;
+import com.agile.ecommerce.product.data.ProductStockWriter;
+import com.agile.ecommerce.product.domain.PendingStockDecrement;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reserves stock for orders. Most products are decremented in the database straight away. Hot products, listed in
+ * {@link HotStockProperties}, are reserved from {@link StripedStock} counters in memory instead, so a flash sale does
+ * not queue every order on the same row lock; what they sell is recorded as {@link PendingStockDecrement}s with the
+ * order and taken off {@code products.quantity} in batches by {@link #flush}. On startup, pending decrements left by
+ * the previous run are applied before the counters are loaded. Product writes go through
+ * {@link #prepareQuantityChange} and {@link #prepareDelete}, so that the counters follow the stored quantity.
+ * <p>
+ * The counters belong to this instance: with hot products configured, only one instance may take orders.
+ */
+@Component
+public class StockService implements SmartInitializingSingleton {
+    private final ProductStockWriter writer;
+    private final PendingStockDecrementRepository pendingRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final HotStockProperties properties;
+    private final Map<Long, StripedStock> hotStock = new ConcurrentHashMap<>();
+
+    public StockService(ProductStockWriter writer,
+                        PendingStockDecrementRepository pendingRepository,
+                        ProductCache productCache,
+                        ProductSearchIndex searchIndex,
+                        ProductFacetIndex facetIndex,
+                        TransactionTemplate transactionTemplate,
+                        HotStockProperties properties) {
+        this.writer = writer;
+        this.pendingRepository = pendingRepository;
+        this.productCache = productCache;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        flush();
+        properties.productIds().forEach(this::enable);
+    }
+
+    /**
+     * Takes {@code quantities} (product id to units) out of stock within the caller's transaction. If any product is
+     * short, nothing is taken: units already taken from the other products are put back before returning.
+     *
+     * @return ids of the products with fewer units left than asked for, in id order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Timed("ecommerce.service")
+    public List<Long> reserve(SortedMap<Long, Integer> quantities) {
+        var stored = new TreeMap<Long, Integer>();
+        var hot = new TreeMap<Long, Integer>();
+        quantities.forEach((id, units) -> (hotStock.containsKey(id) ? hot : stored).put(id, units));
+        var shortOfStock = new ArrayList<Long>();
+        var taken = new ArrayList<Map.Entry<StripedStock, Integer>>();
+        var decremented = new TreeMap<>(stored);
+        if (!stored.isEmpty()) {
+            shortOfStock.addAll(writer.decrement(stored));
+            decremented.keySet().removeAll(shortOfStock);
+            // A product turned hot since the check above had its counter loaded before this decrement, which
+            // therefore has to come off the counter too. The row lock taken by the decrement makes the check exact.
+            stored.forEach((id, units) -> {
+                var stock = hotStock.get(id);
+                if (stock != null && !shortOfStock.contains(id)) {
+                    take(stock, units, id, taken, shortOfStock);
+                }
+            });
+        }
+        hot.forEach((id, units) -> take(hotStock.get(id), units, id, taken, shortOfStock));
+        if (shortOfStock.isEmpty()) {
+            giveBackOnRollback(taken);
+            searchIndex.takeStock(quantities);
+            facetIndex.takeStock(quantities);
+        } else {
+            // Put back at once rather than on rollback, so that a failed reservation leaves no trace and a caller
+            // placing several orders in one transaction can commit the others.
+            taken.forEach(entry -> entry.getKey().giveBack(entry.getValue()));
+            writer.increment(decremented);
+        }
+        stored.keySet().forEach(productCache::invalidate);
+        if (shortOfStock.isEmpty() && !hot.isEmpty()) {
+            pendingRepository.saveAll(hot.entrySet().stream()
+                    .map(line -> new PendingStockDecrement(null, line.getKey(), line.getValue()))
+                    .toList());
+        }
+        shortOfStock.sort(null);
+        return shortOfStock;
+    }
+
+    /**
+     * Keeps the stock of the product in memory from now on, starting from its stored quantity. Orders already in
+     * flight for it are accounted for either way.
+     *
+     * @throws IllegalArgumentException if there is no such product
+     */
+    @Timed("ecommerce.service")
+    public void enable(long productId) {
+        transactionTemplate.executeWithoutResult(status -> hotStock.computeIfAbsent(productId, id -> {
+            var quantity = writer.lockQuantity(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Hot stock product " + id + " does not exist"));
+            return new StripedStock(quantity, properties.stripeCount());
+        }));
+    }
+
+    /**
+     * Readies a change of the product's stored quantity to {@code quantity}, to be written by the caller within the
+     * same transaction. For a hot product, its pending decrements are applied and its row is locked, so the change is
+     * measured against what is left and the flush cannot race the write; its counter moves by the difference once the
+     * transaction commits. Does nothing for other products.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Timed("ecommerce.service")
+    public void prepareQuantityChange(long productId, int quantity) {
+        var stock = hotStock.get(productId);
+        if (stock == null) {
+            return;
+        }
+        flush();
+        writer.lockQuantity(productId).ifPresent(stored -> afterCommit(() -> stock.adjust(quantity - stored)));
+    }
+
+    /**
+     * Readies the deletion of the product by the caller within the same transaction. For a hot product, its pending
+     * decrements are applied and its row is locked, and its counter is dropped once the transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Timed("ecommerce.service")
+    public void prepareDelete(long productId) {
+        if (!hotStock.containsKey(productId)) {
+            return;
+        }
+        flush();
+        writer.lockQuantity(productId);
+        afterCommit(() -> hotStock.remove(productId));
+    }
+
+    /**
+     * Units of each hot product left to sell.
+     */
+    @Timed("ecommerce.service")
+    public Map<Long, Long> hotStockLevels() {
+        var levels = new TreeMap<Long, Long>();
+        hotStock.forEach((id, stock) -> levels.put(id, stock.available()));
+        return levels;
+    }
+
+    /**
+     * Applies the units sold of hot products to their stored quantity.
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.hot-stock.flush-interval:PT1S}")
+    @Timed("ecommerce.service")
+    public void flush() {
+        writer.applyPendingDecrements().forEach(productCache::invalidate);
+    }
+
+    private static void take(StripedStock stock, int units, long id,
+                             List<Map.Entry<StripedStock, Integer>> taken, List<Long> shortOfStock) {
+        if (units > 0 && stock.tryTake(units)) {
+            taken.add(Map.entry(stock, units));
+        } else {
+            shortOfStock.add(id);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void giveBackOnRollback(List<Map.Entry<StripedStock, Integer>> taken) {
+        if (taken.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    taken.forEach(entry -> entry.getKey().giveBack(entry.getValue()));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.agile.ecommerce.product.core;
+
+/**
+ * Whether a product has units left, as a facet.
+ */
+public enum StockStatus {
+    IN_STOCK,
+    OUT_OF_STOCK;
+
+    public static StockStatus of(int quantity) {
+        return quantity > 0 ? IN_STOCK : OUT_OF_STOCK;
+    }
+}
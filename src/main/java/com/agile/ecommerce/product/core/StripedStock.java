@@ -0,0 +1,113 @@
+package com.agile.ecommerce.product.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock of one product split over several counters, so that threads reserving it at the same time mostly
+ * compare-and-set different counters instead of all retrying on one. No reservation ever takes a counter below zero.
+ */
+final class StripedStock {
+    // 16 longs apart puts every counter on a cache line of its own.
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedStock(long quantity, int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, quantity / stripes + (i < quantity % stripes ? 1 : 0));
+        }
+    }
+
+    /**
+     * Takes {@code units} if that many are left in total, from the calling thread's own counter when it can.
+     */
+    boolean tryTake(long units) {
+        int home = home();
+        for (int i = 0; i < stripes; i++) {
+            if (tryTakeFrom((home + i) % stripes, units)) {
+                return true;
+            }
+        }
+        return tryTakeSpread(units);
+    }
+
+    void giveBack(long units) {
+        cells.addAndGet(home() * PADDING, units);
+    }
+
+    /**
+     * Adds {@code units}, or takes them off if negative, as far as there are: the stock never goes below zero.
+     */
+    void adjust(long units) {
+        if (units >= 0) {
+            giveBack(units);
+        } else {
+            takeEach(-units, new long[stripes]);
+        }
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private boolean tryTakeFrom(int stripe, long units) {
+        int index = stripe * PADDING;
+        long left;
+        do {
+            left = cells.get(index);
+            if (left < units) {
+                return false;
+            }
+        } while (!cells.compareAndSet(index, left, left - units));
+        return true;
+    }
+
+    /**
+     * Gathers {@code units} from several counters when none holds enough alone, and puts back what it took if they do
+     * not add up. Meanwhile other threads may see less than there is, which only matters once stock is nearly gone.
+     */
+    private boolean tryTakeSpread(long units) {
+        var taken = new long[stripes];
+        if (takeEach(units, taken) == 0) {
+            return true;
+        }
+        for (int i = 0; i < stripes; i++) {
+            if (taken[i] > 0) {
+                cells.addAndGet(i * PADDING, taken[i]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes up to {@code units} from the counters in turn, recording in {@code taken} what came from each.
+     *
+     * @return the units that could not be taken
+     */
+    private long takeEach(long units, long[] taken) {
+        long needed = units;
+        for (int i = 0; i < stripes && needed > 0; i++) {
+            int index = i * PADDING;
+            long left;
+            long take;
+            do {
+                left = cells.get(index);
+                take = Math.min(left, needed);
+            } while (take > 0 && !cells.compareAndSet(index, left, left - take));
+            taken[i] = take;
+            needed -= take;
+        }
+        return needed;
+    }
+
+    private int home() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+}
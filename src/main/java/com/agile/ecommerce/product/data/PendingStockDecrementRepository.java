@@ -0,0 +1,9 @@
+package com.agile.ecommerce.product.data;
+
+import com.agile.ecommerce.product.domain.PendingStockDecrement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PendingStockDecrementRepository extends JpaRepository<PendingStockDecrement, Long> {
+}
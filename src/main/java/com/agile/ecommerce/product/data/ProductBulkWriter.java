@@ -0,0 +1,120 @@
+package com.agile.ecommerce.product.data;
+
+import com.agile.ecommerce.config.PooledSequenceGenerator;
+import com.agile.ecommerce.product.domain.Product;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Inserts products without going through the persistence context, for imports. Ids are taken from
+ * {@code products_seq} in the same pooled-lo blocks {@link PooledSequenceGenerator} uses, so they never clash with ids
+ * Hibernate hands out. Hibernate does not see these inserts, so the product listing query cache is evicted once they
+ * commit.
+ */
+@Repository
+@Timed("ecommerce.repository")
+public class ProductBulkWriter {
+    private static final String INSERT_SQL =
+            "insert into products (id, name, description, price, quantity) values (?, ?, ?, ?, ?)";
+    private static final String COPY_SQL =
+            "copy products (id, name, description, price, quantity) from stdin with (format csv)";
+    private static final String ALLOCATE_SQL =
+            "select nextval('products_seq') from generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache secondLevelCache;
+    private final int allocationSize;
+
+    public ProductBulkWriter(JdbcTemplate jdbcTemplate,
+                             EntityManagerFactory entityManagerFactory,
+                             @Value("${spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE_SETTING + ":"
+                                     + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = entityManagerFactory.getCache().unwrap(Cache.class);
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * Assigns ids to {@code products} and inserts them in one transaction, with {@code COPY} if {@code useCopy} is set
+     * and the connection is PostgreSQL's, as a JDBC batch otherwise.
+     */
+    @Transactional
+    public void insertAll(List<Product> products, boolean useCopy) {
+        assignIds(products);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (useCopy && connection.isWrapperFor(PGConnection.class)) {
+                copy(connection, products);
+            } else {
+                batchInsert(products);
+            }
+            return null;
+        });
+        evictListingsAfterCommit();
+    }
+
+    private void evictListingsAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    secondLevelCache.evictQueryRegion(ProductRepository.LISTING_CACHE_REGION);
+                }
+            });
+        } else {
+            secondLevelCache.evictQueryRegion(ProductRepository.LISTING_CACHE_REGION);
+        }
+    }
+
+    private void assignIds(List<Product> products) {
+        var blocks = jdbcTemplate.queryForList(ALLOCATE_SQL, Long.class,
+                (products.size() + allocationSize - 1) / allocationSize);
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(blocks.get(i / allocationSize) + i % allocationSize);
+        }
+    }
+
+    private void batchInsert(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), (ps, product) -> {
+            ps.setLong(1, product.getId());
+            ps.setString(2, product.getName());
+            ps.setString(3, product.getDescription());
+            ps.setBigDecimal(4, product.getPrice());
+            ps.setInt(5, product.getQuantity());
+        });
+    }
+
+    private static void copy(Connection connection, List<Product> products) throws SQLException {
+        var csv = new StringBuilder(products.size() * 128);
+        for (var product : products) {
+            csv.append(product.getId()).append(',')
+                    .append(quote(product.getName())).append(',')
+                    .append(quote(product.getDescription())).append(',')
+                    .append(product.getPrice().toPlainString()).append(',')
+                    .append(product.getQuantity()).append('\n');
+        }
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into products failed", e);
+        }
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
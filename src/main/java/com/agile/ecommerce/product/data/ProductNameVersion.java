@@ -0,0 +1,9 @@
+package com.agile.ecommerce.product.data;
+
+import java.time.Instant;
+
+/**
+ * A product's name, with the version and modification time of the name alone.
+ */
+public record ProductNameVersion(String name, long version, Instant modified) {
+}
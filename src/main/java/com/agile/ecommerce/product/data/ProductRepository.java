@@ -1,9 +1,61 @@
 package com.agile.ecommerce.product.data;
 
 import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.versioning.EntityVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    /**
+     * Query cache region of the product listings. Hibernate drops its entries whenever products change through the
+     * persistence context; writes that bypass it must evict the region themselves.
+     */
+    String LISTING_CACHE_REGION = "product-listings";
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = LISTING_CACHE_REGION)})
+    Page<Product> findAll(Pageable pageable);
+
+    /**
+     * Keyset page: the products with an id above {@code id}, in id order.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = LISTING_CACHE_REGION)})
+    List<Product> findByIdGreaterThanOrderById(long id, Limit limit);
+
+    /**
+     * The products with an id above {@code id}, in id order, for scans over the whole catalog. Unlike
+     * {@link #findByIdGreaterThanOrderById}, the result is not kept in the listing cache region.
+     */
+    @Query("select p from Product p where p.id > :id order by p.id")
+    List<Product> findChunkAfter(@Param("id") long id, Limit limit);
+
+    /**
+     * Version and modification time of the product, without loading it.
+     */
+    @Query("select new com.agile.ecommerce.versioning.EntityVersion(p.version, p.lastModified) from Product p where p.id = :id")
+    Optional<EntityVersion> findEntityVersionById(@Param("id") long id);
+
+    /**
+     * The product's name with its own version and modification time, without loading it.
+     */
+    @Query("""
+            select new com.agile.ecommerce.product.data.ProductNameVersion(p.name, p.nameVersion, p.nameModified)
+            from Product p where p.id = :id""")
+    Optional<ProductNameVersion> findNameVersionById(@Param("id") long id);
 }
@@ -0,0 +1,127 @@
+package com.agile.ecommerce.product.data;
+
+import com.agile.ecommerce.product.domain.Product;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+
+/**
+ * Takes units out of stock with conditional updates, so concurrent orders can never sell more than there is. Written
+ * in plain JDBC: a bulk JPQL update would make Hibernate drop the whole product cache region on every order, whereas
+ * this evicts only the products it changed, once the transaction commits.
+ */
+@Repository
+@Timed("ecommerce.repository")
+public class ProductStockWriter {
+    private static final String DECREMENT_SQL = """
+            update products set quantity = quantity - ?, version = version + 1, last_modified = current_timestamp
+            where id = ? and ? > 0 and quantity >= ?""";
+    private static final String INCREMENT_SQL = """
+            update products set quantity = quantity + ?, version = version + 1, last_modified = current_timestamp
+            where id = ?""";
+    private static final String APPLY_PENDING_SQL = """
+            with applied as (delete from pending_stock_decrements returning product_id, quantity)
+            update products p set quantity = p.quantity - a.units, version = p.version + 1, last_modified = current_timestamp
+            from (select product_id, sum(quantity) as units from applied group by product_id) a
+            where p.id = a.product_id
+            returning p.id""";
+    private static final String LOCK_SQL = "select quantity from products where id = ? for update";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ProductStockWriter(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Decrements the stock of every product in {@code quantities} (product id to units) by its amount, in one batch
+     * and in product id order, so that concurrent callers lock the rows in the same order and cannot deadlock. The
+     * rows stay locked until the caller's transaction ends.
+     *
+     * @return ids of the products that had fewer units left than asked for, which were not decremented; the others
+     * were, and have to be put back or rolled back if it is not empty
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> decrement(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        var lines = List.copyOf(quantities.entrySet());
+        var counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+            ps.setInt(4, line.getValue());
+        });
+        var shortOfStock = new ArrayList<Long>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (counts[0][i] == 0) {
+                shortOfStock.add(lines.get(i).getKey());
+            }
+        }
+        evictAfterCommit(quantities.keySet());
+        return shortOfStock;
+    }
+
+    /**
+     * Puts back units taken by {@link #decrement} within the same transaction, for an order that turned out to be
+     * short of another product.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void increment(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        var lines = List.copyOf(quantities.entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+        });
+    }
+
+    /**
+     * Takes the units recorded in {@code pending_stock_decrements} by committed orders off the products' stock, and
+     * deletes those records, in one statement.
+     *
+     * @return ids of the products changed
+     */
+    @Transactional
+    public List<Long> applyPendingDecrements() {
+        var ids = jdbcTemplate.queryForList(APPLY_PENDING_SQL, Long.class);
+        evictAfterCommit(ids);
+        return ids;
+    }
+
+    /**
+     * Quantity of the product, read under a row lock that keeps other transactions from changing it until the
+     * caller's transaction ends. The product is evicted from the cache right away, so that the caller loads the
+     * locked row rather than a copy cached before a decrement whose eviction waits for its commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Integer> lockQuantity(long id) {
+        var quantity = jdbcTemplate.queryForList(LOCK_SQL, Integer.class, id).stream().findFirst();
+        entityManagerFactory.getCache().evict(Product.class, id);
+        return quantity;
+    }
+
+    private void evictAfterCommit(Iterable<Long> ids) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id));
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.agile.ecommerce.product.data;
+
+import com.agile.ecommerce.product.domain.ProductView;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository} for the reactive read API.
+ */
+@Repository
+public interface ReactiveProductRepository extends R2dbcRepository<ProductView, Long> {
+
+    Flux<ProductView> findAllByOrderById();
+}
@@ -0,0 +1,26 @@
+package com.agile.ecommerce.product.domain;
+
+import com.agile.ecommerce.config.PooledSequence;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units of a hot product sold by a committed order but not yet taken off {@link Product#getQuantity()}. Written in the
+ * order's transaction and applied, then deleted, in batches, so nothing sold is lost if the application stops first.
+ */
+@Entity
+@Data
+@Table(name = "pending_stock_decrements")
+@AllArgsConstructor
+@NoArgsConstructor
+public class PendingStockDecrement {
+    @Id
+    @PooledSequence(name = "pending_stock_decrements_seq")
+    private Long id;
+    @Column(nullable = false)
+    private long productId;
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -1,16 +1,27 @@
 package com.agile.ecommerce.product.domain;
 
+import com.agile.ecommerce.config.PooledSequence;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Data
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
 public final class Product {
+    public static final String CACHE_REGION = "products";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "products_seq")
     private Long id;
     @Column(nullable = false)
     private String name;
@@ -20,4 +31,21 @@ public final class Product {
     private BigDecimal price;
     @Column(nullable = false)
     private int quantity;
+    @Version
+    @ColumnDefault("0")
+    private long version;
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp")
+    @Column(nullable = false)
+    private Instant lastModified;
+    // Moved on by ProductService only when the name changes, unlike version, which every stock change moves: orders
+    // show the name alone, so their tags follow these.
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false)
+    private long nameVersion;
+    @JsonIgnore
+    @ColumnDefault("current_timestamp")
+    @Column(nullable = false, insertable = false)
+    private Instant nameModified;
 }
\ No newline at end of file
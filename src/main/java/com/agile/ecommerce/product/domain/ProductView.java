@@ -0,0 +1,18 @@
+package com.agile.ecommerce.product.domain;
+
+import com.agile.ecommerce.product.dto.ProductDto;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * A product as the reactive read API loads it through R2DBC; the JPA side keeps using {@link Product}.
+ */
+@Table("products")
+public record ProductView(@Id Long id, String name, String description, BigDecimal price, int quantity) {
+
+    public ProductDto toDto() {
+        return new ProductDto(id, name, description, price, quantity);
+    }
+}
@@ -0,0 +1,19 @@
+package com.agile.ecommerce.product.dto;
+
+/**
+ * Counters of the product cache since startup.
+ *
+ * @param size                     products currently cached, approximately
+ * @param evictionCount            products dropped for size or age; invalidations are not counted
+ * @param loadCount                lookups that went to the database
+ * @param averageLoadPenaltyMillis mean time of those database lookups
+ */
+public record ProductCacheStats(
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount,
+        long loadCount,
+        double averageLoadPenaltyMillis) {
+}
@@ -0,0 +1,25 @@
+package com.agile.ecommerce.product.dto;
+
+import com.agile.ecommerce.product.core.NameInitial;
+import com.agile.ecommerce.product.core.PriceRange;
+import com.agile.ecommerce.product.core.StockStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the ids of the products matching a facet selection, with the counts of every facet value. A value's
+ * count is what selecting it alone within its facet would match, given the selection in the other facets.
+ *
+ * @param productIds    ids on this page, in ascending order
+ * @param totalElements products matching the whole selection
+ */
+public record ProductFacetPage(
+        List<Long> productIds,
+        int page,
+        int size,
+        int totalElements,
+        Map<PriceRange, Integer> priceRanges,
+        Map<StockStatus, Integer> stock,
+        Map<NameInitial, Integer> nameInitials) {
+}
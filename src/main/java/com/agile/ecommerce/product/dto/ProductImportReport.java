@@ -0,0 +1,26 @@
+package com.agile.ecommerce.product.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import.
+ *
+ * @param received        data rows read from the payload
+ * @param imported        rows written to the catalog
+ * @param rejected        rows that failed to parse, failed validation or could not be written
+ * @param errors          why rows were rejected, in payload order; capped, see {@code errorsTruncated}
+ * @param errorsTruncated whether more rows were rejected than {@code errors} lists
+ */
+public record ProductImportReport(
+        long received,
+        long imported,
+        long rejected,
+        List<RowError> errors,
+        boolean errorsTruncated) {
+
+    /**
+     * @param row 1-based position among the data rows of the payload, header excluded
+     */
+    public record RowError(long row, List<String> messages) {
+    }
+}
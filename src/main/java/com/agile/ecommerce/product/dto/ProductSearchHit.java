@@ -0,0 +1,15 @@
+package com.agile.ecommerce.product.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A product matching a search, with its relevance: the higher the score, the better the match.
+ */
+public record ProductSearchHit(
+        long id,
+        String name,
+        String description,
+        BigDecimal price,
+        int quantity,
+        double score) {
+}
@@ -0,0 +1,17 @@
+package com.agile.ecommerce.product.exception;
+
+import java.util.Collection;
+import java.util.List;
+
+public class InsufficientStockException extends Exception{
+    private final List<Long> productIds;
+
+    public InsufficientStockException(Collection<Long> ids) {
+        super("Insufficient stock for products "+ids);
+        this.productIds = List.copyOf(ids);
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.agile.ecommerce.product.exception;
+
+public class ProductImportException extends Exception{
+    public ProductImportException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,26 @@
 package com.agile.ecommerce.product.exception;
 
+import java.util.Collection;
+import java.util.List;
+
 public class ProductNotFoundException extends Exception{
+    private final List<Long> productIds;
+
     public ProductNotFoundException(long id) {
         super("Product "+id+" not found");
+        this.productIds = List.of(id);
+    }
+
+    public ProductNotFoundException(Collection<Long> ids) {
+        super("Products "+ids+" not found");
+        this.productIds = List.copyOf(ids);
     }
 
     public ProductNotFoundException() {
+        this.productIds = List.of();
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
     }
 }
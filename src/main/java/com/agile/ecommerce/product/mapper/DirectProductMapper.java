@@ -0,0 +1,36 @@
+package com.agile.ecommerce.product.mapper;
+
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductDto;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies {@link Product} fields straight into {@link ProductDto} and back, without any reflective lookup.
+ */
+@Component
+@Timed("ecommerce.mapper")
+public class DirectProductMapper implements ProductMapper {
+
+    @Override
+    public ProductDto toDto(Product product) {
+        return new ProductDto(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getQuantity()
+        );
+    }
+
+    @Override
+    public Product toEntity(ProductDto dto) {
+        var product = new Product();
+        product.setId(dto.id);
+        product.setName(dto.name);
+        product.setDescription(dto.description);
+        product.setPrice(dto.price);
+        product.setQuantity(dto.quantity);
+        return product;
+    }
+}
@@ -0,0 +1,11 @@
+package com.agile.ecommerce.product.mapper;
+
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductDto;
+
+public interface ProductMapper {
+
+    ProductDto toDto(Product product);
+
+    Product toEntity(ProductDto dto);
+}
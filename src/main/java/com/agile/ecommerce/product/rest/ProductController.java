@@ -1,47 +1,131 @@
 package com.agile.ecommerce.product.rest;
 
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.product.core.NameInitial;
+import com.agile.ecommerce.product.core.PriceRange;
+import com.agile.ecommerce.product.core.ProductFacetIndex;
+import com.agile.ecommerce.product.core.ProductImportFormat;
+import com.agile.ecommerce.product.core.ProductImportService;
+import com.agile.ecommerce.product.core.ProductSearchIndex;
 import com.agile.ecommerce.product.core.ProductService;
+import com.agile.ecommerce.product.core.StockStatus;
 import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductCacheStats;
 import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.dto.ProductFacetPage;
+import com.agile.ecommerce.product.dto.ProductImportReport;
+import com.agile.ecommerce.product.dto.ProductSearchHit;
+import com.agile.ecommerce.product.exception.ProductImportException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import com.agile.ecommerce.versioning.EntityVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
 
 @AllArgsConstructor
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/products")
 @Tag(name = "Product API", description = "Operations related to products")
 public final class ProductController {
     private final ProductService service;
+    private final ProductImportService importService;
 
     @Operation(summary = "Get a list of all products")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved the list of products")
     @GetMapping
     public ResponseEntity<Page<Product>> getAllProducts(Pageable pageable) {
-        return ResponseEntity.ok(service.getAll(PageRequest.of(0,10)));
+        return ResponseEntity.ok(service.getAll(pageable));
+    }
+
+    @Operation(summary = "Scroll products in id order, one keyset page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the products"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<Product>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) throws InvalidCursorException {
+        return ResponseEntity.ok(service.scroll(cursor, size));
+    }
+
+    @Operation(summary = "Search products",
+            description = "Products whose name or description match every word of q, in full or as a prefix, best first")
+    @ApiResponse(responseCode = "200", description = "Matching products, possibly none")
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchHit>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "" + ProductSearchIndex.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(service.search(q, minPrice, maxPrice, inStock, limit));
+    }
+
+    @Operation(summary = "Filter products by facets",
+            description = "Ids of the products in any selected value of every facet, in id order, with the count of "
+                    + "every facet value; a facet without selected values is not filtered")
+    @ApiResponse(responseCode = "200", description = "Matching product ids and facet counts")
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetPage> getProductFacets(
+            @RequestParam(required = false) List<PriceRange> priceRange,
+            @RequestParam(required = false) List<StockStatus> stock,
+            @RequestParam(required = false) List<NameInitial> nameInitial,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ProductFacetIndex.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(service.facets(priceRange, stock, nameInitial, page, size));
+    }
+
+    @Operation(summary = "Get product cache statistics")
+    @ApiResponse(responseCode = "200", description = "Counters of the product cache since startup")
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ProductCacheStats> getCacheStats() {
+        return ResponseEntity.ok(service.cacheStats());
     }
 
     @Operation(summary = "Get a product by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved the product"),
+            @ApiResponse(responseCode = "304", description = "Product unchanged since the version the client holds"),
             @ApiResponse(responseCode = "404", description = "Product not found",
                     content = @Content(schema = @Schema(implementation = ProductNotFoundException.class)))
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable long id) throws ProductNotFoundException {
-        return ResponseEntity.ok(service.getById(id));
+    public ResponseEntity<Product> getProductById(@PathVariable long id, HttpServletRequest request) throws ProductNotFoundException {
+        // A cached product is answered with its own validators, without a query. On a miss, the version alone is read
+        // first, so that an unchanged product is not loaded; the request is checked on its own, leaving the response
+        // to describe whichever product is loaded otherwise.
+        var cached = service.getCachedById(id);
+        if (cached.isEmpty()) {
+            var version = service.getVersion(id);
+            if (new ServletWebRequest(request).checkNotModified(version.eTag(), version.lastModified().toEpochMilli())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version.eTag())
+                        .lastModified(version.lastModified()).build();
+            }
+        }
+        var product = cached.isPresent() ? cached.get() : service.getById(id);
+        var version = new EntityVersion(product.getVersion(), product.getLastModified());
+        return ResponseEntity.ok().eTag(version.eTag()).lastModified(version.lastModified()).body(product);
     }
 
     @Operation(summary = "Create a new product")
@@ -51,6 +135,28 @@ public final class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(service.add(productDto));
     }
 
+    @Operation(summary = "Import products from newline-delimited JSON, one product per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; rejected rows are listed in the report"),
+            @ApiResponse(responseCode = "400", description = "Payload cannot be read")
+    })
+    @PostMapping(path = "/import", consumes = ProductImportFormat.NDJSON_MEDIA_TYPE)
+    public ResponseEntity<ProductImportReport> importProductsFromNdjson(InputStream body)
+            throws IOException, ProductImportException {
+        return ResponseEntity.ok(importService.importProducts(body, ProductImportFormat.NDJSON));
+    }
+
+    @Operation(summary = "Import products from CSV with a name, description, price, quantity header")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; rejected rows are listed in the report"),
+            @ApiResponse(responseCode = "400", description = "Payload cannot be read")
+    })
+    @PostMapping(path = "/import", consumes = ProductImportFormat.CSV_MEDIA_TYPE)
+    public ResponseEntity<ProductImportReport> importProductsFromCsv(InputStream body)
+            throws IOException, ProductImportException {
+        return ResponseEntity.ok(importService.importProducts(body, ProductImportFormat.CSV));
+    }
+
     @Operation(summary = "Update an existing product")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully updated the product"),
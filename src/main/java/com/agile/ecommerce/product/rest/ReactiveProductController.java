@@ -0,0 +1,46 @@
+package com.agile.ecommerce.product.rest;
+
+import com.agile.ecommerce.product.core.ReactiveProductService;
+import com.agile.ecommerce.product.dto.ProductDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, non-blocking replacement for {@link ProductController} under the {@code reactive} profile.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/products")
+@Profile("reactive")
+@Tag(name = "Products", description = "Reactive read API for products")
+public final class ReactiveProductController {
+    private final ReactiveProductService service;
+
+    @Operation(summary = "Stream all products", description = "Stream every product in id order, one JSON object per line")
+    @ApiResponse(responseCode = "200", description = "Products streamed")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDto> getAllProducts() {
+        return service.getAll();
+    }
+
+    @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the product"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @GetMapping("/{id}")
+    public Mono<ProductDto> getProductById(@PathVariable long id) {
+        return service.getById(id);
+    }
+}
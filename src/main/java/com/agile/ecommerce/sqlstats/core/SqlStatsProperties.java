@@ -0,0 +1,18 @@
+package com.agile.ecommerce.sqlstats.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Recording of the SQL statements the application runs, see {@link StatementStatistics}.
+ *
+ * @param slowThreshold statements taking at least this long to execute are logged
+ * @param maxStatements distinct statements counted apart; those seen once the limit is reached are counted together
+ */
+@ConfigurationProperties(prefix = "ecommerce.sql-stats")
+public record SqlStatsProperties(
+        @DefaultValue("100ms") Duration slowThreshold,
+        @DefaultValue("1000") int maxStatements) {
+}
@@ -0,0 +1,102 @@
+package com.agile.ecommerce.sqlstats.core;
+
+import com.agile.ecommerce.config.StatementStatisticsDataSource;
+import com.agile.ecommerce.sqlstats.dto.StatementStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution counts, times, rows and batch sizes of every SQL statement run through the
+ * {@link StatementStatisticsDataSource}, per statement text. Statements slower than the configured threshold are
+ * logged at WARN as one JSON object each, with the number of their bind parameters but none of their values.
+ */
+@Slf4j
+@Component
+public class StatementStatistics {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+    static final String OTHER_STATEMENTS = "(other statements)";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final SqlStatsProperties properties;
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    public StatementStatistics(SqlStatsProperties properties) {
+        this.properties = properties;
+    }
+
+    public void record(StatementStatisticsDataSource.Execution execution) {
+        // the bound is checked loosely: racing first executions may take it a few statements over
+        var sql = totals.size() < properties.maxStatements() || totals.containsKey(execution.sql())
+                ? execution.sql() : OTHER_STATEMENTS;
+        totals.computeIfAbsent(sql, ignored -> new Totals()).add(execution);
+        if (execution.elapsedNanos() >= properties.slowThreshold().toNanos() && log.isWarnEnabled()) {
+            log.warn("{}", JSON.createObjectNode()
+                    .put("event", "slow_statement")
+                    .put("sql", execution.sql())
+                    .put("elapsedMillis", millis(execution.elapsedNanos()))
+                    .put("rows", execution.rows())
+                    .put("batchSize", execution.batchSize())
+                    .put("parameters", execution.parameterCount()));
+        }
+    }
+
+    /**
+     * The statements that took the most time in total, at most {@code limit} clamped to {@code [1, MAX_LIMIT]}.
+     */
+    public List<StatementStats> top(int limit) {
+        return totals.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .sorted(Comparator.comparingDouble(StatementStats::totalMillis).reversed())
+                .limit(Math.clamp(limit, 1, MAX_LIMIT))
+                .toList();
+    }
+
+    /**
+     * Forgets every statement, to measure from now on.
+     */
+    public void reset() {
+        totals.clear();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static final class Totals {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder batchedStatements = new LongAdder();
+
+        void add(StatementStatisticsDataSource.Execution execution) {
+            executions.increment();
+            nanos.add(execution.elapsedNanos());
+            maxNanos.accumulate(execution.elapsedNanos());
+            rows.add(execution.rows());
+            if (execution.batchSize() > 0) {
+                batches.increment();
+                batchedStatements.add(execution.batchSize());
+            }
+        }
+
+        StatementStats toStats(String sql) {
+            long count = executions.sum();
+            long total = nanos.sum();
+            long batchCount = batches.sum();
+            return new StatementStats(sql, count, millis(total), count == 0 ? 0 : millis(total / count),
+                    millis(maxNanos.get()), rows.sum(), batchCount,
+                    batchCount == 0 ? 0 : (double) batchedStatements.sum() / batchCount);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.agile.ecommerce.sqlstats.dto;
+
+/**
+ * Counters of one SQL statement since startup or the last reset.
+ *
+ * @param sql              the statement, with placeholders for its values
+ * @param executions       times it was executed, a batch counting once
+ * @param totalMillis      time spent executing it, result sets read aside
+ * @param rows             rows read from its results, or inserted, updated or deleted by it
+ * @param batches          executions that sent a batch
+ * @param averageBatchSize statements per batch, or 0 without batches
+ */
+public record StatementStats(
+        String sql,
+        long executions,
+        double totalMillis,
+        double meanMillis,
+        double maxMillis,
+        long rows,
+        long batches,
+        double averageBatchSize) {
+}
@@ -0,0 +1,41 @@
+package com.agile.ecommerce.sqlstats.rest;
+
+import com.agile.ecommerce.sqlstats.core.StatementStatistics;
+import com.agile.ecommerce.sqlstats.dto.StatementStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/sql")
+@Tag(name = "SQL statistics", description = "Execution statistics of the SQL statements the application runs")
+public final class SqlStatsController {
+    private final StatementStatistics statistics;
+
+    @Operation(summary = "Get the most expensive SQL statements",
+            description = "Statements by total execution time, highest first, with their counts, rows and batch sizes")
+    @ApiResponse(responseCode = "200", description = "Statistics of the top statements")
+    @GetMapping("/statements")
+    public ResponseEntity<List<StatementStats>> getTopStatements(
+            @RequestParam(defaultValue = "" + StatementStatistics.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(statistics.top(limit));
+    }
+
+    @Operation(summary = "Reset the SQL statement statistics")
+    @ApiResponse(responseCode = "204", description = "Statistics cleared")
+    @DeleteMapping("/statements")
+    public ResponseEntity<Void> resetStatements() {
+        statistics.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.agile.ecommerce.versioning;
+
+import java.time.Instant;
+
+/**
+ * Validators of an entity's representation, read without loading the entity, to answer conditional requests.
+ *
+ * @param version         the entity's own optimistic-lock version
+ * @param relatedVersions sum of the versions of what its representation shows of other entities, such as the names of
+ *                        the products on an order; it only grows, so any change to them changes the tag
+ * @param lastModified    when the representation last changed
+ */
+public record EntityVersion(long version, long relatedVersions, Instant lastModified) {
+
+    public EntityVersion(long version, Instant lastModified) {
+        this(version, 0, lastModified);
+    }
+
+    /**
+     * Strong entity tag, quoted as the {@code ETag} header wants it.
+     */
+    public String eTag() {
+        return "\"" + version + "." + relatedVersions + "\"";
+    }
+}
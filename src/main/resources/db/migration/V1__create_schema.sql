@@ -0,0 +1,25 @@
+-- Tables as first created by Hibernate. Every migration is written to be a no-op on a database that already has its
+-- changes, so that databases created by ddl-auto=update before Flyway took over can be migrated from version 0.
+
+create table if not exists products (
+    id          bigint generated by default as identity primary key,
+    name        varchar(255)   not null,
+    description varchar(255)   not null,
+    price       numeric(38, 2) not null,
+    quantity    integer        not null
+);
+
+create table if not exists orders (
+    id               bigint generated by default as identity primary key,
+    order_date       timestamp(6) not null,
+    customer_name    varchar(255) not null,
+    customer_address varchar(255) not null
+);
+
+create table if not exists order_items (
+    id         bigint generated by default as identity primary key,
+    order_id   bigint         not null constraint fk_order_items_order references orders,
+    product_id bigint         not null constraint fk_order_items_product references products,
+    quantity   integer        not null,
+    price      numeric(38, 2) not null
+);
@@ -0,0 +1,18 @@
+-- Moves orders, order_items and products from identity columns to the pooled-lo sequences used by @PooledSequence.
+-- The increment must match spring.jpa.properties.ecommerce.id.allocation-size. A sequence is only moved past the
+-- existing ids before its first use: once ids are handed out in blocks, the highest id may lie below blocks still
+-- held by a running instance.
+
+create sequence if not exists orders_seq increment by 50;
+create sequence if not exists order_items_seq increment by 50;
+create sequence if not exists products_seq increment by 50;
+
+select setval('orders_seq', coalesce((select max(id) from orders), 0) + 1, false) from orders_seq where not is_called;
+select setval('order_items_seq', coalesce((select max(id) from order_items), 0) + 1, false) from order_items_seq
+where not is_called;
+select setval('products_seq', coalesce((select max(id) from products), 0) + 1, false) from products_seq
+where not is_called;
+
+alter table orders alter column id drop identity if exists;
+alter table order_items alter column id drop identity if exists;
+alter table products alter column id drop identity if exists;
@@ -0,0 +1,7 @@
+-- Version and last modification time of products and orders, for optimistic locking and conditional requests.
+
+alter table products add column if not exists version bigint default 0 not null;
+alter table products add column if not exists last_modified timestamp(6) with time zone default current_timestamp not null;
+
+alter table orders add column if not exists version bigint default 0 not null;
+alter table orders add column if not exists last_modified timestamp(6) with time zone default current_timestamp not null;
@@ -0,0 +1,9 @@
+-- Units of hot products sold but not yet taken off products.quantity.
+
+create sequence if not exists pending_stock_decrements_seq increment by 50;
+
+create table if not exists pending_stock_decrements (
+    id         bigint  not null primary key,
+    product_id bigint  not null,
+    quantity   integer not null
+);
@@ -0,0 +1,13 @@
+-- Responses kept for requests sent with an Idempotency-Key; the index serves the purge of expired keys.
+
+create table if not exists idempotency_keys (
+    scope               varchar(32)                 not null,
+    idempotency_key     varchar(255)                not null,
+    request_fingerprint varchar(44)                 not null,
+    status              integer                     not null,
+    body                text                        not null,
+    created_at          timestamp(6) with time zone not null,
+    primary key (scope, idempotency_key)
+);
+
+create index if not exists idx_idempotency_keys_created_at on idempotency_keys (created_at);
@@ -0,0 +1,11 @@
+-- Order totals and item counts, maintained as items change, and computed here for the orders written before.
+
+alter table orders add column if not exists total_amount numeric(38, 2) default 0 not null;
+alter table orders add column if not exists item_count integer default 0 not null;
+
+update orders o set total_amount = t.total_amount, item_count = t.item_count
+from (select oi.order_id, sum(oi.price * oi.quantity) as total_amount, count(*) as item_count
+      from order_items oi
+      where oi.order_id in (select id from orders where item_count = 0)
+      group by oi.order_id) t
+where o.id = t.order_id;
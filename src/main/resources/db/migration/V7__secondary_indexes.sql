@@ -0,0 +1,11 @@
+-- Order pages and date-range reads, keyset-paginated on (order_date, id).
+create index if not exists idx_orders_order_date_id on orders (order_date, id);
+
+-- Lets the sales reports sum order totals over a date range from the index alone.
+create index if not exists idx_orders_order_date_totals on orders (order_date, total_amount, item_count);
+
+-- The items of an order.
+create index if not exists idx_order_items_order_id on order_items (order_id);
+
+-- The order lines of a product, and the foreign key check of every product delete, which otherwise scans the table.
+create index if not exists idx_order_items_product_id on order_items (product_id);
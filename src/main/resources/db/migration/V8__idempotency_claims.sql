@@ -0,0 +1,4 @@
+-- A key's row is inserted when its request starts, in the request's transaction, and its response filled in before it commits.
+
+alter table idempotency_keys alter column status drop not null;
+alter table idempotency_keys alter column body drop not null;
@@ -0,0 +1,6 @@
+-- Version and modification time of product names alone, which the tags of the orders showing them follow.
+
+alter table products add column if not exists name_version bigint default 0 not null;
+alter table products add column if not exists name_modified timestamp(6) with time zone default current_timestamp not null;
+
+update products set name_modified = last_modified;
@@ -0,0 +1,56 @@
+package com.agile.ecommerce;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks a request shows up at {@code /actuator/prometheus} at every level it goes through, along with the connection
+ * pool and Hibernate statistics.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Nested
+    @DisplayName("prometheus Tests")
+    class PrometheusTests {
+
+        @Test
+        @DisplayName("should time the request, its service and repository calls, in buckets including the SLOs")
+        void shouldTimeRequestLayers() throws Exception {
+            mockMvc.perform(get("/api/products").param("page", "0").param("size", "1"))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/actuator/prometheus"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("uri=\"/api/products\",le=\"0.025\"")))
+                    .andExpect(content().string(containsString(
+                            "class=\"com.agile.ecommerce.product.core.ProductService\",exception=\"none\",method=\"getAll\"")))
+                    .andExpect(content().string(containsString("repository=\"ProductRepository\"")));
+        }
+
+        @Test
+        @DisplayName("should expose the connection pool and Hibernate statistics")
+        void shouldExposePoolAndHibernate() throws Exception {
+            mockMvc.perform(get("/actuator/prometheus"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("hikaricp_connections_active{")))
+                    .andExpect(content().string(containsString("hibernate_sessions_open_total{")));
+        }
+    }
+}
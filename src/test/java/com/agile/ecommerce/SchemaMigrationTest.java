@@ -0,0 +1,73 @@
+package com.agile.ecommerce;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the database the tests run against has every migration applied, and that the lookups the application relies
+ * on can use an index. Sequential scans are turned off for the plans, so that they show which index would be used
+ * however few rows the tables hold.
+ */
+@SpringBootTest
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Nested
+    @DisplayName("migration Tests")
+    class MigrationTests {
+
+        @Test
+        @DisplayName("should have applied every migration")
+        void shouldBeUpToDate() {
+            var info = flyway.info();
+
+            assertEquals(0, info.pending().length);
+            assertEquals(info.all()[info.all().length - 1].getVersion(), info.current().getVersion());
+        }
+    }
+
+    @Nested
+    @DisplayName("query plan Tests")
+    class QueryPlanTests {
+
+        @Test
+        @DisplayName("should find the items of an order through an index")
+        void shouldIndexOrderItemsByOrder() {
+            assertTrue(plan("select * from order_items where order_id = 1").contains("idx_order_items_order_id"));
+        }
+
+        @Test
+        @DisplayName("should find the order lines of a product through an index")
+        void shouldIndexOrderItemsByProduct() {
+            assertTrue(plan("select * from order_items where product_id = 1").contains("idx_order_items_product_id"));
+        }
+
+        @Test
+        @DisplayName("should find orders by date through an index")
+        void shouldIndexOrdersByDate() {
+            assertTrue(plan("select id from orders where order_date >= '2099-01-01' order by order_date, id")
+                    .contains("idx_orders_order_date_id"));
+        }
+    }
+
+    private String plan(String query) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("explain " + query, String.class));
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.agile.ecommerce.analytics.core;
+
+import com.agile.ecommerce.analytics.data.SalesAnalyticsRepository;
+import com.agile.ecommerce.analytics.dto.OrderValueDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class SalesAnalyticsServiceTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private SalesAnalyticsRepository repository;
+    private SalesAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SalesAnalyticsRepository.class);
+        service = new SalesAnalyticsService(repository);
+    }
+
+    @Nested
+    @DisplayName("topProducts Tests")
+    class TopProductsTests {
+
+        @Test
+        @DisplayName("should clamp the limit to between 1 and the maximum")
+        void shouldClampLimit() {
+            when(repository.findTopProducts(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            service.topProducts(FROM, TO, SalesRanking.UNITS, 0);
+            service.topProducts(FROM, TO, SalesRanking.UNITS, 1_000);
+
+            verify(repository).findTopProducts(FROM, TO, SalesRanking.UNITS, 1);
+            verify(repository).findTopProducts(FROM, TO, SalesRanking.UNITS, SalesAnalyticsService.MAX_LIMIT);
+        }
+    }
+
+    @Nested
+    @DisplayName("orderValue Tests")
+    class OrderValueTests {
+
+        @Test
+        @DisplayName("should average the revenue over the orders, rounded to cents")
+        void shouldAverageRevenue() {
+            when(repository.findOrderTotals(FROM, TO))
+                    .thenReturn(new SalesAnalyticsRepository.OrderTotals(3, new BigDecimal("100.00")));
+
+            assertEquals(new OrderValueDto(3, new BigDecimal("100.00"), new BigDecimal("33.33")),
+                    service.orderValue(FROM, TO));
+        }
+
+        @Test
+        @DisplayName("should report an average of zero without orders")
+        void shouldReportZeroWithoutOrders() {
+            when(repository.findOrderTotals(null, null))
+                    .thenReturn(new SalesAnalyticsRepository.OrderTotals(0, BigDecimal.ZERO));
+
+            assertEquals(new OrderValueDto(0, BigDecimal.ZERO, BigDecimal.ZERO), service.orderValue(null, null));
+        }
+    }
+}
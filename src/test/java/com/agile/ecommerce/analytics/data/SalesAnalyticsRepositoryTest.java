@@ -0,0 +1,146 @@
+package com.agile.ecommerce.analytics.data;
+
+import com.agile.ecommerce.analytics.core.RevenueInterval;
+import com.agile.ecommerce.analytics.core.SalesRanking;
+import com.agile.ecommerce.analytics.dto.ProductSalesDto;
+import com.agile.ecommerce.analytics.dto.RevenuePeriodDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the report queries against the real database, on orders placed in 2099 so that no other order falls in range.
+ */
+@SpringBootTest
+class SalesAnalyticsRepositoryTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2099, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2099, 2, 1, 0, 0);
+
+    @Autowired
+    private SalesAnalyticsRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> orderIds = new ArrayList<>();
+    private long cheap;
+    private long dear;
+
+    @BeforeEach
+    void setUp() {
+        cheap = createProduct("Analytics cheap");
+        dear = createProduct("Analytics dear");
+        // Thursday and Friday of one week, then the Monday of the next
+        createOrder(LocalDateTime.of(2099, 1, 1, 10, 0), Map.of(cheap, 10), "1.00");
+        createOrder(LocalDateTime.of(2099, 1, 2, 10, 0), Map.of(cheap, 5, dear, 1), "1.00");
+        createOrder(LocalDateTime.of(2099, 1, 5, 10, 0), Map.of(dear, 2), "100.00");
+        // empty orders and orders out of range are not counted
+        createOrder(LocalDateTime.of(2099, 1, 5, 11, 0), Map.of(), "0");
+        createOrder(LocalDateTime.of(2099, 2, 1, 0, 0), Map.of(dear, 50), "100.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        var orders = orderIds.toArray(Long[]::new);
+        jdbcTemplate.update("delete from order_items where order_id = any(?)", (Object) orders);
+        jdbcTemplate.update("delete from orders where id = any(?)", (Object) orders);
+        jdbcTemplate.update("delete from products where id = any(?)", (Object) productIds.toArray(Long[]::new));
+    }
+
+    @Nested
+    @DisplayName("findTopProducts Tests")
+    class FindTopProductsTests {
+
+        @Test
+        @DisplayName("should rank products by revenue or by units over the date range")
+        void shouldRankProducts() {
+            assertEquals(List.of(
+                            new ProductSalesDto(dear, "Analytics dear", 3, new BigDecimal("201.00")),
+                            new ProductSalesDto(cheap, "Analytics cheap", 15, new BigDecimal("15.00"))),
+                    repository.findTopProducts(FROM, TO, SalesRanking.REVENUE, 10));
+            assertEquals(List.of(cheap),
+                    repository.findTopProducts(FROM, TO, SalesRanking.UNITS, 1).stream()
+                            .map(ProductSalesDto::productId).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("findRevenueByPeriod Tests")
+    class FindRevenueByPeriodTests {
+
+        @Test
+        @DisplayName("should sum order totals per day and per week starting on Monday")
+        void shouldSumPerPeriod() {
+            assertEquals(List.of(
+                            new RevenuePeriodDto(LocalDate.of(2099, 1, 1), 1, new BigDecimal("10.00")),
+                            new RevenuePeriodDto(LocalDate.of(2099, 1, 2), 1, new BigDecimal("6.00")),
+                            new RevenuePeriodDto(LocalDate.of(2099, 1, 5), 1, new BigDecimal("200.00"))),
+                    repository.findRevenueByPeriod(FROM, TO, RevenueInterval.DAY));
+            assertEquals(List.of(
+                            new RevenuePeriodDto(LocalDate.of(2098, 12, 29), 2, new BigDecimal("16.00")),
+                            new RevenuePeriodDto(LocalDate.of(2099, 1, 5), 1, new BigDecimal("200.00"))),
+                    repository.findRevenueByPeriod(FROM, TO, RevenueInterval.WEEK));
+        }
+    }
+
+    @Nested
+    @DisplayName("findOrderTotals Tests")
+    class FindOrderTotalsTests {
+
+        @Test
+        @DisplayName("should count the orders with items and sum their totals")
+        void shouldCountOrders() {
+            var totals = repository.findOrderTotals(FROM, TO);
+
+            assertEquals(3, totals.orderCount());
+            assertEquals(new BigDecimal("216.00"), totals.revenue());
+        }
+
+        @Test
+        @DisplayName("should report zero revenue for a range without orders")
+        void shouldReportZeroWithoutOrders() {
+            var totals = repository.findOrderTotals(TO.plusYears(1), null);
+
+            assertEquals(0, totals.orderCount());
+            assertEquals(0, BigDecimal.ZERO.compareTo(totals.revenue()));
+        }
+    }
+
+    private long createProduct(String name) {
+        var id = jdbcTemplate.queryForObject("""
+                insert into products (id, name, description, price, quantity)
+                values (nextval('products_seq'), ?, 'Sales analytics test product', 1, 0) returning id""", Long.class, name);
+        productIds.add(id);
+        return id;
+    }
+
+    private void createOrder(LocalDateTime orderDate, Map<Long, Integer> lines, String unitPrice) {
+        var price = new BigDecimal(unitPrice);
+        var total = lines.values().stream()
+                .map(quantity -> price.multiply(BigDecimal.valueOf(quantity)))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        var id = jdbcTemplate.queryForObject("""
+                insert into orders (id, order_date, customer_name, customer_address, total_amount, item_count)
+                values (nextval('orders_seq'), ?, 'Analytics test', 'Analytics street 1', ?, ?) returning id""",
+                Long.class, Timestamp.valueOf(orderDate), total, lines.size());
+        orderIds.add(id);
+        lines.forEach((product, quantity) -> jdbcTemplate.update("""
+                insert into order_items (id, order_id, product_id, quantity, price)
+                values (nextval('order_items_seq'), ?, ?, ?, ?)""", id, product, quantity, price));
+    }
+}
@@ -0,0 +1,120 @@
+package com.agile.ecommerce.analytics.rest;
+
+import com.agile.ecommerce.analytics.core.RevenueInterval;
+import com.agile.ecommerce.analytics.core.SalesAnalyticsService;
+import com.agile.ecommerce.analytics.core.SalesRanking;
+import com.agile.ecommerce.analytics.dto.OrderValueDto;
+import com.agile.ecommerce.analytics.dto.ProductSalesDto;
+import com.agile.ecommerce.analytics.dto.RevenuePeriodDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SalesAnalyticsController.class)
+@DisplayName("SalesAnalyticsController Tests")
+class SalesAnalyticsControllerTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SalesAnalyticsService service;
+
+    @Nested
+    @DisplayName("getTopProducts Tests")
+    class GetTopProductsTests {
+
+        @Test
+        @DisplayName("should rank products by revenue, ten by default")
+        void shouldRankByRevenueByDefault() throws Exception {
+            when(service.topProducts(null, null, SalesRanking.REVENUE, 10)).thenReturn(
+                    List.of(new ProductSalesDto(7L, "Laptop", 3, new BigDecimal("2999.97"))));
+
+            mockMvc.perform(get("/api/analytics/top-products"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].productId").value(7))
+                    .andExpect(jsonPath("$[0].productName").value("Laptop"))
+                    .andExpect(jsonPath("$[0].unitsSold").value(3))
+                    .andExpect(jsonPath("$[0].revenue").value(2999.97));
+        }
+
+        @Test
+        @DisplayName("should pass the date range, ranking and limit")
+        void shouldPassParameters() throws Exception {
+            when(service.topProducts(FROM, TO, SalesRanking.UNITS, 5)).thenReturn(List.of());
+
+            mockMvc.perform(get("/api/analytics/top-products")
+                            .param("from", "2024-01-01T00:00:00")
+                            .param("to", "2024-02-01T00:00:00")
+                            .param("by", "UNITS")
+                            .param("limit", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").isEmpty());
+
+            verify(service).topProducts(FROM, TO, SalesRanking.UNITS, 5);
+        }
+
+        @Test
+        @DisplayName("should refuse an unknown ranking")
+        void shouldRefuseUnknownRanking() throws Exception {
+            mockMvc.perform(get("/api/analytics/top-products").param("by", "MARGIN"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(service);
+        }
+    }
+
+    @Nested
+    @DisplayName("getRevenue Tests")
+    class GetRevenueTests {
+
+        @Test
+        @DisplayName("should return revenue per week")
+        void shouldReturnRevenuePerWeek() throws Exception {
+            when(service.revenue(FROM, TO, RevenueInterval.WEEK)).thenReturn(
+                    List.of(new RevenuePeriodDto(LocalDate.of(2024, 1, 1), 4, new BigDecimal("120.50"))));
+
+            mockMvc.perform(get("/api/analytics/revenue")
+                            .param("from", "2024-01-01T00:00:00")
+                            .param("to", "2024-02-01T00:00:00")
+                            .param("interval", "WEEK"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].periodStart").value("2024-01-01"))
+                    .andExpect(jsonPath("$[0].orderCount").value(4))
+                    .andExpect(jsonPath("$[0].revenue").value(120.50));
+        }
+    }
+
+    @Nested
+    @DisplayName("getOrderValue Tests")
+    class GetOrderValueTests {
+
+        @Test
+        @DisplayName("should return the average order value")
+        void shouldReturnAverageOrderValue() throws Exception {
+            when(service.orderValue(null, null)).thenReturn(
+                    new OrderValueDto(3, new BigDecimal("100.00"), new BigDecimal("33.33")));
+
+            mockMvc.perform(get("/api/analytics/order-value"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.orderCount").value(3))
+                    .andExpect(jsonPath("$.revenue").value(100.00))
+                    .andExpect(jsonPath("$.averageOrderValue").value(33.33));
+        }
+    }
+}
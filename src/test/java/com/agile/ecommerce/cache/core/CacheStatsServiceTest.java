@@ -0,0 +1,74 @@
+package com.agile.ecommerce.cache.core;
+
+import com.agile.ecommerce.cache.dto.CacheRegionStats;
+import com.agile.ecommerce.config.SecondLevelCacheProperties;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class CacheStatsServiceTest {
+
+    private CacheManager cacheManager;
+    private Statistics statistics;
+    private CacheStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("cache-stats-test"), getClass().getClassLoader());
+        cacheManager.createCache("products", new CaffeineConfiguration<>());
+        cacheManager.createCache("listings", new CaffeineConfiguration<>());
+        statistics = mock(Statistics.class);
+        var sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        var entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        var properties = new SecondLevelCacheProperties(Map.of(
+                "products", new SecondLevelCacheProperties.Region(100, null),
+                "listings", new SecondLevelCacheProperties.Region(10, null)));
+        service = new CacheStatsService(entityManagerFactory, cacheManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.close();
+    }
+
+    @Nested
+    @DisplayName("regions Tests")
+    class RegionsTests {
+
+        @Test
+        @DisplayName("should report every configured region in name order with Hibernate's counters")
+        void shouldReportEveryRegionInNameOrder() {
+            cacheManager.getCache("products").put(1L, "product");
+            cacheManager.getCache("products").put(2L, "product");
+            var productStatistics = mock(CacheRegionStatistics.class);
+            when(productStatistics.getHitCount()).thenReturn(7L);
+            when(productStatistics.getMissCount()).thenReturn(2L);
+            when(productStatistics.getPutCount()).thenReturn(2L);
+            when(statistics.getCacheRegionStatistics("products")).thenReturn(productStatistics);
+
+            assertEquals(List.of(
+                    new CacheRegionStats("listings", 0, 10, 0, 0, 0),
+                    new CacheRegionStats("products", 2, 100, 7, 2, 2)), service.regions());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.agile.ecommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ConcurrencyLimitingDataSource Test")
+class ConcurrencyLimitingDataSourceTest {
+    private DataSource target;
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new ConcurrencyLimitingDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Nested
+    @DisplayName("getConnection Tests")
+    class GetConnectionTests {
+
+        @Test
+        @DisplayName("should time out once every permit is borrowed")
+        void shouldTimeOutWhenLimitReached() throws SQLException {
+            dataSource.getConnection();
+            dataSource.getConnection();
+
+            var exception = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+            assertEquals("JDBC concurrency limit of 2 reached, request timed out after 50ms", exception.getMessage());
+            assertEquals(2, dataSource.inUse());
+            verify(target, times(2)).getConnection();
+        }
+
+        @Test
+        @DisplayName("should return the permit when the connection is closed, and only once")
+        void shouldReleaseOnClose() throws SQLException {
+            var connection = dataSource.getConnection();
+
+            connection.close();
+            connection.close();
+
+            assertEquals(0, dataSource.inUse());
+        }
+
+        @Test
+        @DisplayName("should hand a closed connection's permit to a waiting caller")
+        void shouldWakeWaitingCaller() throws Exception {
+            dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofSeconds(10));
+            var first = dataSource.getConnection();
+            var second = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return dataSource.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            while (dataSource.waiting() == 0) {
+                Thread.onSpinWait();
+            }
+
+            first.close();
+
+            assertNotNull(second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, dataSource.inUse());
+        }
+
+        @Test
+        @DisplayName("should return the permit when the target fails to connect")
+        void shouldReleaseOnFailure() throws SQLException {
+            when(target.getConnection()).thenThrow(new SQLException("connection refused"));
+
+            assertThrows(SQLException.class, dataSource::getConnection);
+
+            assertEquals(0, dataSource.inUse());
+        }
+
+        @Test
+        @DisplayName("should pass other calls through to the target connection")
+        void shouldDelegateToTarget() throws SQLException {
+            var connection = mock(Connection.class);
+            when(target.getConnection()).thenReturn(connection);
+            when(connection.getAutoCommit()).thenReturn(true);
+
+            assertTrue(dataSource.getConnection().getAutoCommit());
+            verify(connection).getAutoCommit();
+        }
+    }
+}
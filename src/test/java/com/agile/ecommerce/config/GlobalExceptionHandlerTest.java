@@ -2,6 +2,9 @@ package com.agile.ecommerce.config;
 
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
 import com.agile.ecommerce.orderItem.exception.OrderItemNotFoundException;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
+import com.agile.ecommerce.product.exception.ProductImportException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,6 +12,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -106,4 +110,61 @@ class GlobalExceptionHandlerTest {
             assertThat(response.getBody()).containsEntry("error", "Product 1 not found");
         }
     }
+
+    @Nested
+    @DisplayName("handleProductImportException Tests")
+    class HandleProductImportExceptionTests {
+
+        @Test
+        @DisplayName("should handle product import exceptions and return BAD_REQUEST status")
+        void shouldHandleProductImportExceptionAndReturnBadRequest() {
+            // Given
+            var ex = new ProductImportException("CSV header is missing columns [price]");
+
+            // When
+            ResponseEntity<Map<String, String>> response = globalExceptionHandler.handleProductImportException(ex);
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(response.getBody()).containsEntry("error", "CSV header is missing columns [price]");
+        }
+    }
+
+    @Nested
+    @DisplayName("handleInsufficientStockException Tests")
+    class HandleInsufficientStockExceptionTests {
+
+        @Test
+        @DisplayName("should handle insufficient stock exceptions and return CONFLICT status")
+        void shouldHandleInsufficientStockExceptionAndReturnConflict() {
+            // Given
+            var ex = new InsufficientStockException(List.of(1L, 2L));
+
+            // When
+            ResponseEntity<Map<String, String>> response = globalExceptionHandler.handleInsufficientStockException(ex);
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            assertThat(response.getBody()).containsEntry("error", "Insufficient stock for products [1, 2]");
+        }
+    }
+
+    @Nested
+    @DisplayName("handleOptimisticLockingFailure Tests")
+    class HandleOptimisticLockingFailureTests {
+
+        @Test
+        @DisplayName("should handle concurrent modifications and return CONFLICT status")
+        void shouldHandleOptimisticLockingFailureAndReturnConflict() {
+            // Given
+            var ex = new ObjectOptimisticLockingFailureException(Product.class, 1L);
+
+            // When
+            ResponseEntity<Map<String, String>> response = globalExceptionHandler.handleOptimisticLockingFailure(ex);
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            assertThat(response.getBody()).containsEntry("error", "The resource was modified concurrently, please retry");
+        }
+    }
 }
@@ -1,23 +1,38 @@
 package com.agile.ecommerce.config;
 
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.modelmapper.MappingException;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DisplayName("ModelMapperConfig Test")
 class ModelMapperConfigTest {
 
     private ModelMapperConfig modelMapperConfig;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
         modelMapperConfig = new ModelMapperConfig();
+        meterRegistry = new SimpleMeterRegistry();
     }
 
     @Nested
@@ -30,7 +45,7 @@ class ModelMapperConfigTest {
             // Given
 
             // When
-            ModelMapper modelMapper = modelMapperConfig.modelMapper();
+            ModelMapper modelMapper = modelMapperConfig.modelMapper(meterRegistry);
 
             // Then
             assertThat(modelMapper).isNotNull();
@@ -38,6 +53,70 @@ class ModelMapperConfigTest {
             assertThat(modelMapper.getConfiguration().isFieldMatchingEnabled()).isTrue();
             assertThat(modelMapper.getConfiguration().getFieldAccessLevel()).isEqualTo(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
         }
+
+        @Test
+        @DisplayName("Given an order with items, When it is mapped, Then the order converter should build the record dto")
+        void givenOrderWithItems_whenMapped_thenOrderConverterShouldBuildRecordDto() {
+            // Given
+            var modelMapper = modelMapperConfig.modelMapper(meterRegistry);
+            var product = new Product();
+            product.setId(2L);
+            product.setName("ProductName");
+            var order = new Order();
+            order.setId(1L);
+            order.setOrderDate(LocalDateTime.now());
+            order.setCustomerName("CustomerName");
+            order.setCustomerAddress("CustomerAddress");
+            order.setOrderItems(List.of(new OrderItem(3L, order, product, 4, BigDecimal.TEN)));
+
+            // When
+            var dto = modelMapper.map(order, OrderDto.class);
+
+            // Then
+            assertThat(dto.id()).isEqualTo(1L);
+            assertThat(dto.orderItems()).containsExactly(new OrderItemDto(2L, "ProductName", 4, BigDecimal.TEN, 1L));
+        }
+
+        @Test
+        @DisplayName("Given a product, When it is mapped, Then the conversion should be timed")
+        void givenProduct_whenMapped_thenConversionShouldBeTimed() {
+            // Given
+            var modelMapper = modelMapperConfig.modelMapper(meterRegistry);
+            var product = new Product();
+            product.setId(2L);
+
+            // When
+            modelMapper.map(product, ProductDto.class);
+            modelMapper.map(product, ProductDto.class);
+
+            // Then
+            var timer = meterRegistry.get(ModelMapperConfig.MAPPER_TIMER)
+                    .tags("class", ModelMapperConfig.class.getName(), "method", "productToProductDto",
+                            "exception", "none")
+                    .timer();
+            assertThat(timer.count()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Given an item without a product, When it is mapped, Then the failure should be timed by its exception")
+        void givenItemWithoutProduct_whenMapped_thenFailureShouldBeTimedByException() {
+            // Given
+            var modelMapper = modelMapperConfig.modelMapper(meterRegistry);
+
+            // When
+            assertThatThrownBy(() -> modelMapper.map(new OrderItem(), OrderItemDto.class))
+                    .isInstanceOf(MappingException.class);
+
+            // Then
+            var failed = meterRegistry.get(ModelMapperConfig.MAPPER_TIMER)
+                    .tags("method", "orderItemToOrderItemDto", "exception", "NullPointerException")
+                    .timer();
+            var succeeded = meterRegistry.get(ModelMapperConfig.MAPPER_TIMER)
+                    .tags("method", "orderItemToOrderItemDto", "exception", "none")
+                    .timer();
+            assertThat(failed.count()).isEqualTo(1);
+            assertThat(succeeded.count()).isZero();
+        }
     }
 
     @Nested
@@ -48,7 +127,7 @@ class ModelMapperConfigTest {
 
         @BeforeEach
         void setUp() {
-            context = new AnnotationConfigApplicationContext(ModelMapperConfig.class);
+            context = new AnnotationConfigApplicationContext(SimpleMeterRegistry.class, ModelMapperConfig.class);
         }
 
         @Test
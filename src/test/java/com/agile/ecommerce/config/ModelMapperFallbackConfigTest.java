@@ -0,0 +1,49 @@
+package com.agile.ecommerce.config;
+
+import com.agile.ecommerce.order.mapper.DirectOrderMapper;
+import com.agile.ecommerce.order.mapper.OrderMapper;
+import com.agile.ecommerce.orderItem.mapper.DirectOrderItemMapper;
+import com.agile.ecommerce.orderItem.mapper.OrderItemMapper;
+import com.agile.ecommerce.product.mapper.DirectProductMapper;
+import com.agile.ecommerce.product.mapper.ProductMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ModelMapperFallbackConfig Test")
+class ModelMapperFallbackConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(SimpleMeterRegistry.class)
+            .withUserConfiguration(ModelMapperConfig.class, ModelMapperFallbackConfig.class,
+                    DirectProductMapper.class, DirectOrderItemMapper.class, DirectOrderMapper.class);
+
+    @Nested
+    @DisplayName("Integration Tests with Spring Context")
+    class IntegrationTests {
+
+        @Test
+        @DisplayName("Given no fallback property, When mappers are retrieved, Then the direct mappers should be used")
+        void givenNoFallbackProperty_whenMappersAreRetrieved_thenDirectMappersShouldBeUsed() {
+            contextRunner.run(context -> {
+                assertThat(context.getBean(ProductMapper.class)).isInstanceOf(DirectProductMapper.class);
+                assertThat(context.getBean(OrderItemMapper.class)).isInstanceOf(DirectOrderItemMapper.class);
+                assertThat(context.getBean(OrderMapper.class)).isInstanceOf(DirectOrderMapper.class);
+            });
+        }
+
+        @Test
+        @DisplayName("Given the fallback property, When mappers are retrieved, Then ModelMapper-backed mappers should be used")
+        void givenFallbackProperty_whenMappersAreRetrieved_thenModelMapperBackedMappersShouldBeUsed() {
+            contextRunner.withPropertyValues("ecommerce.mapping.model-mapper-fallback=true").run(context -> {
+                assertThat(context.getBean(ProductMapper.class)).isNotInstanceOf(DirectProductMapper.class);
+                assertThat(context.getBean(OrderItemMapper.class)).isNotInstanceOf(DirectOrderItemMapper.class);
+                assertThat(context.getBean(OrderMapper.class)).isNotInstanceOf(DirectOrderMapper.class);
+            });
+        }
+    }
+}
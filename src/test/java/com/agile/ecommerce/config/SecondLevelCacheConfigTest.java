@@ -0,0 +1,83 @@
+package com.agile.ecommerce.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SecondLevelCacheConfig Test")
+class SecondLevelCacheConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PropertiesConfig.class, SecondLevelCacheConfig.class)
+            .withPropertyValues(
+                    "ecommerce.second-level-cache.regions.products.maximum-size=10",
+                    "ecommerce.second-level-cache.regions.products.expire-after-write=1m",
+                    "ecommerce.second-level-cache.regions.timestamps.maximum-size=5");
+
+    @Configuration
+    @EnableConfigurationProperties(SecondLevelCacheProperties.class)
+    static class PropertiesConfig {
+    }
+
+    @Nested
+    @DisplayName("Integration Tests with Spring Context")
+    class IntegrationTests {
+
+        @Test
+        @DisplayName("Given configured regions, When the context starts, Then each region should be created with its limits")
+        @SuppressWarnings("unchecked")
+        void givenConfiguredRegions_whenContextStarts_thenRegionsShouldBeCreatedWithTheirLimits() {
+            contextRunner.run(context -> {
+                var cacheManager = context.getBean(CacheManager.class);
+                var products = cacheManager.getCache("products").getConfiguration(CaffeineConfiguration.class);
+                var timestamps = cacheManager.getCache("timestamps").getConfiguration(CaffeineConfiguration.class);
+
+                assertThat(cacheManager.getCacheNames()).containsExactlyInAnyOrder("products", "timestamps");
+                assertThat(products.getMaximumSize()).isEqualTo(OptionalLong.of(10));
+                assertThat(products.getExpireAfterWrite()).isEqualTo(OptionalLong.of(Duration.ofMinutes(1).toNanos()));
+                assertThat(timestamps.getMaximumSize()).isEqualTo(OptionalLong.of(5));
+                assertThat(timestamps.getExpireAfterWrite()).isEmpty();
+            });
+        }
+
+        @Test
+        @DisplayName("Given the cache manager, When Hibernate properties are customized, Then the manager should be handed to Hibernate")
+        void givenCacheManager_whenHibernatePropertiesAreCustomized_thenManagerShouldBeHandedToHibernate() {
+            contextRunner.run(context -> {
+                var hibernateProperties = new HashMap<String, Object>();
+                context.getBean(HibernatePropertiesCustomizer.class).customize(hibernateProperties);
+
+                assertThat(hibernateProperties).containsEntry(ConfigSettings.CACHE_MANAGER, context.getBean(CacheManager.class));
+            });
+        }
+
+        @Test
+        @DisplayName("Given two contexts, When both start, Then they should not share a cache manager")
+        void givenTwoContexts_whenBothStart_thenTheyShouldNotShareCacheManager() {
+            contextRunner.run(first -> contextRunner.run(second ->
+                    assertThat(first.getBean(CacheManager.class)).isNotSameAs(second.getBean(CacheManager.class))));
+        }
+
+        @Test
+        @DisplayName("Given a running context, When it is closed, Then the cache manager should be closed")
+        void givenRunningContext_whenClosed_thenCacheManagerShouldBeClosed() {
+            var cacheManager = new CacheManager[1];
+            contextRunner.run(context -> cacheManager[0] = context.getBean(CacheManager.class));
+
+            assertThat(cacheManager[0].isClosed()).isTrue();
+        }
+    }
+}
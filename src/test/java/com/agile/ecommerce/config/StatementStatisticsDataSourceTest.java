@@ -0,0 +1,165 @@
+package com.agile.ecommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StatementStatisticsDataSource Test")
+class StatementStatisticsDataSourceTest {
+    private Connection connection;
+    private List<StatementStatisticsDataSource.Execution> executions;
+    private StatementStatisticsDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        var target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        executions = new ArrayList<>();
+        dataSource = new StatementStatisticsDataSource(target, executions::add);
+    }
+
+    @Nested
+    @DisplayName("prepared statement Tests")
+    class PreparedStatementTests {
+
+        @Test
+        @DisplayName("should report a query with the rows read once its result set is closed")
+        void shouldCountRowsRead() throws SQLException {
+            var resultSet = mock(ResultSet.class);
+            when(resultSet.next()).thenReturn(true, true, false);
+            var statement = mock(PreparedStatement.class);
+            when(statement.executeQuery()).thenReturn(resultSet);
+            when(connection.prepareStatement("select * from products where id > ? and price < ?")).thenReturn(statement);
+
+            try (var prepared = dataSource.getConnection()
+                    .prepareStatement("select * from products where id > ? and price < ?")) {
+                prepared.setLong(1, 10);
+                prepared.setFetchSize(50);
+                prepared.setBigDecimal(2, null);
+                var rows = prepared.executeQuery();
+                while (rows.next()) {
+                    assertTrue(executions.isEmpty());
+                }
+                rows.close();
+            }
+
+            assertEquals(1, executions.size());
+            var execution = executions.getFirst();
+            assertEquals("select * from products where id > ? and price < ?", execution.sql());
+            assertEquals(2, execution.rows());
+            assertEquals(0, execution.batchSize());
+            assertEquals(2, execution.parameterCount());
+            assertTrue(execution.elapsedNanos() >= 0);
+            verify(resultSet).close();
+            verify(statement).close();
+        }
+
+        @Test
+        @DisplayName("should report a query whose result set is left open when its statement is closed")
+        void shouldReportOnStatementClose() throws SQLException {
+            var resultSet = mock(ResultSet.class);
+            when(resultSet.next()).thenReturn(true, false);
+            var statement = mock(PreparedStatement.class);
+            when(statement.executeQuery()).thenReturn(resultSet);
+            when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+            var prepared = dataSource.getConnection().prepareStatement("select 1");
+            prepared.executeQuery().next();
+            assertTrue(executions.isEmpty());
+            prepared.close();
+
+            assertEquals(1, executions.getFirst().rows());
+        }
+
+        @Test
+        @DisplayName("should report a batch with its size and the rows it changed")
+        void shouldReportBatches() throws SQLException {
+            var statement = mock(PreparedStatement.class);
+            when(statement.executeBatch()).thenReturn(new int[]{1, 1, Statement.SUCCESS_NO_INFO});
+            when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+            var prepared = dataSource.getConnection().prepareStatement("insert into orders values (?, ?)");
+            for (int i = 0; i < 3; i++) {
+                prepared.setInt(1, i);
+                prepared.setString(2, "secret");
+                prepared.addBatch();
+            }
+            prepared.executeBatch();
+
+            assertEquals(List.of(new StatementStatisticsDataSource.Execution("insert into orders values (?, ?)",
+                    executions.getFirst().elapsedNanos(), 2, 3, 2)), executions);
+        }
+
+        @Test
+        @DisplayName("should report a statement that fails and rethrow its exception")
+        void shouldReportFailures() throws SQLException {
+            var statement = mock(PreparedStatement.class);
+            when(statement.executeUpdate()).thenThrow(new SQLException("deadlock detected"));
+            when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+            var prepared = dataSource.getConnection().prepareStatement("update products set quantity = ?");
+            var thrown = assertThrows(SQLException.class, prepared::executeUpdate);
+
+            assertEquals("deadlock detected", thrown.getMessage());
+            assertEquals(0, executions.getFirst().rows());
+        }
+    }
+
+    @Nested
+    @DisplayName("plain statement Tests")
+    class PlainStatementTests {
+
+        @Test
+        @DisplayName("should report the statement with its literals redacted and the rows it changed")
+        void shouldRedactLiterals() throws SQLException {
+            var statement = mock(Statement.class);
+            when(statement.execute(anyString())).thenReturn(false);
+            when(statement.getUpdateCount()).thenReturn(4);
+            when(connection.createStatement()).thenReturn(statement);
+
+            dataSource.getConnection().createStatement()
+                    .execute("update customers set name = 'O''Brien' where id in (12, 3.5) and code = 't1'");
+
+            var execution = executions.getFirst();
+            assertEquals("update customers set name = ? where id in (?, ?) and code = ?", execution.sql());
+            assertEquals(4, execution.rows());
+            assertEquals(0, execution.parameterCount());
+        }
+
+        @Test
+        @DisplayName("should count the rows of a result set fetched after execute")
+        void shouldCountRowsOfResultSetFetchedLater() throws SQLException {
+            var resultSet = mock(ResultSet.class);
+            when(resultSet.next()).thenReturn(true, true, true, false);
+            var statement = mock(Statement.class);
+            when(statement.execute(anyString())).thenReturn(true);
+            when(statement.getResultSet()).thenReturn(resultSet);
+            when(connection.createStatement()).thenReturn(statement);
+
+            var plain = dataSource.getConnection().createStatement();
+            plain.execute("select name from products");
+            try (var rows = plain.getResultSet()) {
+                while (rows.next()) {
+                    assertTrue(executions.isEmpty());
+                }
+            }
+
+            assertEquals(3, executions.getFirst().rows());
+        }
+    }
+}
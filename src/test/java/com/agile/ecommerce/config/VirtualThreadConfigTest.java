@@ -0,0 +1,66 @@
+package com.agile.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("VirtualThreadConfig Test")
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class)
+            .withBean(HikariDataSource.class, () -> {
+                var dataSource = new HikariDataSource();
+                dataSource.setJdbcUrl("jdbc:postgresql://localhost:5432/ecommerce");
+                dataSource.setMaximumPoolSize(4);
+                return dataSource;
+            });
+
+    @Nested
+    @DisplayName("Integration Tests with Spring Context")
+    class IntegrationTests {
+
+        @Test
+        @DisplayName("Given virtual threads, When the context starts, Then the data source should be limited to the pool size")
+        void shouldLimitDataSourceWithVirtualThreads() {
+            contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+                var dataSource = context.getBean(DataSource.class);
+                assertThat(dataSource).isInstanceOf(ConcurrencyLimitingDataSource.class);
+                assertThat(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(4);
+                assertThat(((ConcurrencyLimitingDataSource) dataSource).inUse()).isZero();
+            });
+        }
+
+        @Test
+        @DisplayName("Given virtual threads and statement statistics, When the context starts, Then the data source should be both limited and recorded")
+        void shouldLimitDataSourceWrappedForStatistics() {
+            contextRunner.withUserConfiguration(SqlStatsConfig.class)
+                    .withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+                        var wrappers = new ArrayList<Class<?>>();
+                        DataSource dataSource = context.getBean(DataSource.class);
+                        while (dataSource instanceof DelegatingDataSource delegating) {
+                            wrappers.add(delegating.getClass());
+                            dataSource = delegating.getTargetDataSource();
+                        }
+                        assertThat(wrappers).containsExactlyInAnyOrder(ConcurrencyLimitingDataSource.class,
+                                StatementStatisticsDataSource.class);
+                        assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+                    });
+        }
+
+        @Test
+        @DisplayName("Given platform threads, When the context starts, Then the data source should be left alone")
+        void shouldLeaveDataSourceWithPlatformThreads() {
+            contextRunner.run(context ->
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class));
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.agile.ecommerce.idempotency.core;
+
+import com.agile.ecommerce.idempotency.data.IdempotencyRecordRepository;
+import com.agile.ecommerce.idempotency.domain.IdempotencyRecord;
+import com.agile.ecommerce.idempotency.domain.IdempotencyRecordId;
+import com.agile.ecommerce.idempotency.exception.IdempotencyKeyReusedException;
+import com.agile.ecommerce.idempotency.exception.IdempotentRequestInProgressException;
+import com.agile.ecommerce.idempotency.exception.InvalidIdempotencyKeyException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private IdempotencyRecordRepository repository;
+    private PlatformTransactionManager transactionManager;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+        service = new IdempotencyService(repository, new ObjectMapper(),
+                new IdempotencyProperties(Duration.ofHours(24), 100, Duration.ofSeconds(5)), transactionManager,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Nested
+    @DisplayName("claim Tests")
+    class ClaimTests {
+
+        @Test
+        @DisplayName("should run every request sent without a key")
+        void shouldRunRequestsWithoutKey() throws Exception {
+            try (var request = service.claim("orders", null, Map.of("a", 1))) {
+                assertFalse(request.isReplay());
+                assertEquals(HttpStatus.CREATED, request.complete(HttpStatus.CREATED, "first").getStatusCode());
+            }
+            try (var request = service.claim("orders", null, Map.of("a", 1))) {
+                assertFalse(request.isReplay());
+            }
+            verifyNoInteractions(repository, transactionManager);
+        }
+
+        @Test
+        @DisplayName("should replay the stored response to a retry and store it once")
+        void shouldReplayRetry() throws Exception {
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                request.complete(HttpStatus.CREATED, Map.of("id", 7));
+            }
+
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertTrue(request.isReplay());
+                var response = request.replay(Map.class);
+                assertEquals(HttpStatus.CREATED, response.getStatusCode());
+                assertEquals("true", response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+                assertEquals(Map.of("id", 7), response.getBody());
+            }
+            verify(repository, times(1)).complete(any(), anyInt(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should claim the key and store the response in the transaction the request runs in")
+        void shouldStoreInRequestTransaction() throws Exception {
+            var id = new IdempotencyRecordId("orders", "k1");
+            var fingerprint = service.fingerprint(Map.of("a", 1));
+
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                request.complete(HttpStatus.CREATED, Map.of("id", 7));
+            }
+
+            var inOrder = inOrder(transactionManager, repository);
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(repository).claim(id, fingerprint, NOW, NOW.minus(Duration.ofHours(24)));
+            inOrder.verify(repository).complete(id, 201, "{\"id\":7}", NOW);
+            inOrder.verify(transactionManager).commit(any());
+            verify(transactionManager, never()).rollback(any());
+        }
+
+        @Test
+        @DisplayName("should fail, and forget the response, when it cannot be stored")
+        void shouldFailWhenResponseCannotBeStored() throws Exception {
+            when(repository.complete(any(), anyInt(), any(), any()))
+                    .thenThrow(new DataAccessResourceFailureException("database down"));
+
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertThrows(DataAccessResourceFailureException.class,
+                        () -> request.complete(HttpStatus.CREATED, Map.of("id", 7)));
+            }
+
+            verify(transactionManager, times(1)).rollback(any());
+            verify(transactionManager, never()).commit(any());
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertFalse(request.isReplay());
+            }
+        }
+
+        @Test
+        @DisplayName("should replay a response stored by another instance between the lookup and the claim")
+        void shouldReplayResponseStoredMeanwhile() throws Exception {
+            var id = new IdempotencyRecordId("orders", "k1");
+            when(repository.claim(any(), any(), any(), any())).thenReturn(0);
+            when(repository.findById(id)).thenReturn(Optional.empty(), Optional.of(new IdempotencyRecord(id,
+                    service.fingerprint(Map.of("a", 1)), 201, "{\"id\":7}", NOW)));
+
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertTrue(request.isReplay());
+                assertEquals(Map.of("id", 7), request.replay(Map.class).getBody());
+            }
+            verify(transactionManager, times(1)).rollback(any());
+            verify(transactionManager, never()).commit(any());
+        }
+
+        @Test
+        @DisplayName("should keep keys apart per scope")
+        void shouldKeepScopesApart() throws Exception {
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                request.complete(HttpStatus.CREATED, Map.of("id", 7));
+            }
+
+            try (var request = service.claim("order-items", "k1", Map.of("a", 1))) {
+                assertFalse(request.isReplay());
+            }
+        }
+
+        @Test
+        @DisplayName("should refuse a key reused for a different request")
+        void shouldRefuseReusedKey() throws Exception {
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                request.complete(HttpStatus.CREATED, Map.of("id", 7));
+            }
+
+            assertThrows(IdempotencyKeyReusedException.class, () -> service.claim("orders", "k1", Map.of("a", 2)));
+        }
+
+        @Test
+        @DisplayName("should refuse blank and over-long keys")
+        void shouldRefuseInvalidKeys() {
+            assertThrows(InvalidIdempotencyKeyException.class, () -> service.claim("orders", " ", Map.of()));
+            assertThrows(InvalidIdempotencyKeyException.class,
+                    () -> service.claim("orders", "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1), Map.of()));
+        }
+
+        @Test
+        @DisplayName("should let a retry run again after the request failed")
+        void shouldRunAgainAfterFailure() throws Exception {
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertFalse(request.isReplay());
+            }
+
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertFalse(request.isReplay());
+            }
+            verify(repository, never()).complete(any(), anyInt(), any(), any());
+            verify(transactionManager, times(2)).rollback(any());
+        }
+
+        @Test
+        @DisplayName("should replay a response stored in the database by an earlier run")
+        void shouldReplayFromDatabase() throws Exception {
+            var fingerprint = service.fingerprint(Map.of("a", 1));
+            when(repository.findById(new IdempotencyRecordId("orders", "k1"))).thenReturn(Optional.of(
+                    new IdempotencyRecord(new IdempotencyRecordId("orders", "k1"), fingerprint, 201, "{\"id\":7}",
+                            NOW.minus(Duration.ofHours(1)))));
+
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertTrue(request.isReplay());
+                assertEquals(Map.of("id", 7), request.replay(Map.class).getBody());
+            }
+        }
+
+        @Test
+        @DisplayName("should ignore a stored response older than the retention period")
+        void shouldIgnoreExpiredRecord() throws Exception {
+            when(repository.findById(new IdempotencyRecordId("orders", "k1"))).thenReturn(Optional.of(
+                    new IdempotencyRecord(new IdempotencyRecordId("orders", "k1"), "x", 201, "{}",
+                            NOW.minus(Duration.ofHours(25)))));
+
+            try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                assertFalse(request.isReplay());
+            }
+        }
+
+        @Test
+        @DisplayName("should run concurrent duplicates once and give them all its response")
+        void shouldCoalesceConcurrentDuplicates() throws Exception {
+            var runs = new AtomicInteger();
+            var replays = new AtomicInteger();
+            var start = new CountDownLatch(1);
+            try (var executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 8; i++) {
+                    executor.submit(() -> {
+                        start.await();
+                        try (var request = service.claim("orders", "k1", Map.of("a", 1))) {
+                            if (request.isReplay()) {
+                                assertEquals(Map.of("id", 7), request.replay(Map.class).getBody());
+                                replays.incrementAndGet();
+                            } else {
+                                runs.incrementAndGet();
+                                Thread.sleep(100);
+                                request.complete(HttpStatus.CREATED, Map.of("id", 7));
+                            }
+                        }
+                        return null;
+                    });
+                }
+                start.countDown();
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, runs.get());
+            assertEquals(7, replays.get());
+        }
+
+        @Test
+        @DisplayName("should tell a duplicate that the request is still running once the wait times out")
+        void shouldTimeOutWaitingForDuplicate() throws Exception {
+            service = new IdempotencyService(repository, new ObjectMapper(),
+                    new IdempotencyProperties(Duration.ofHours(24), 100, Duration.ofMillis(50)), transactionManager,
+                    Clock.fixed(NOW, ZoneOffset.UTC));
+
+            try (var ignored = service.claim("orders", "k1", Map.of("a", 1))) {
+                var waiting = Executors.newSingleThreadExecutor().submit(() -> service.claim("orders", "k1", Map.of("a", 1)));
+                var exception = assertThrows(Exception.class, waiting::get);
+                assertInstanceOf(IdempotentRequestInProgressException.class, exception.getCause());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("purgeExpired Tests")
+    class PurgeExpiredTests {
+
+        @Test
+        @DisplayName("should delete the keys older than the retention period")
+        void shouldDeleteExpiredKeys() {
+            service.purgeExpired();
+
+            verify(repository, times(1)).deleteCreatedBefore(NOW.minus(Duration.ofHours(24)));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.agile.ecommerce.order.core;
+
+import com.agile.ecommerce.order.data.OrderRepository;
+import com.agile.ecommerce.order.dto.OrderExportRow;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderExportServiceTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 30);
+
+    private OrderRepository repository;
+    private OrderExportService exportService;
+    private AtomicBoolean closed;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OrderRepository.class);
+        exportService = new OrderExportService(repository, Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        closed = new AtomicBoolean();
+        when(repository.streamExportRows(any(), any())).thenAnswer(invocation -> Stream.of(
+                new OrderExportRow(1, DATE, "Ann", "Main St 1", 10L, "Lamp", 2, new BigDecimal("9.99")),
+                new OrderExportRow(1, DATE, "Ann", "Main St 1", 11L, "Mug, large", 1, new BigDecimal("4.50")),
+                new OrderExportRow(2, DATE, "Bob \"B\"", "Side St 2", null, null, null, null),
+                new OrderExportRow(3, DATE, "Cy", "Low St 3", 10L, "Lamp", 5, new BigDecimal("9.99"))
+        ).onClose(() -> closed.set(true)));
+    }
+
+    private String export(OrderExportFormat format) throws IOException {
+        var output = new ByteArrayOutputStream();
+        exportService.export(DATE.minusDays(1), DATE.plusDays(1), format, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("NDJSON export Tests")
+    class NdjsonExportTests {
+
+        @Test
+        @DisplayName("should write one order per line with its items regrouped")
+        void shouldWriteOneOrderPerLine() throws IOException {
+            var lines = export(OrderExportFormat.NDJSON).split("\n");
+
+            assertEquals(3, lines.length);
+            assertTrue(lines[0].startsWith("{\"id\":1,\"orderDate\":\"2024-03-01T12:30:00\",\"customerName\":\"Ann\""));
+            assertTrue(lines[0].contains("\"productId\":10,\"productName\":\"Lamp\",\"quantity\":2,\"price\":9.99,\"orderId\":1"));
+            assertTrue(lines[0].contains("\"productId\":11"));
+            assertTrue(lines[1].endsWith("\"orderItems\":[],\"totalAmount\":0,\"itemCount\":0}"));
+            assertTrue(lines[2].startsWith("{\"id\":3,"));
+            assertFalse(lines[2].contains("\"productId\":11"));
+        }
+
+        @Test
+        @DisplayName("should pass the date range to the cursor and close it")
+        void shouldPassDateRangeAndCloseCursor() throws IOException {
+            export(OrderExportFormat.NDJSON);
+
+            verify(repository).streamExportRows(DATE.minusDays(1), DATE.plusDays(1));
+            assertTrue(closed.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV export Tests")
+    class CsvExportTests {
+
+        @Test
+        @DisplayName("should write one quoted record per order line")
+        void shouldWriteOneRecordPerOrderLine() throws IOException {
+            assertEquals(OrderExportService.CSV_HEADER + "\n"
+                    + "1,2024-03-01T12:30,Ann,Main St 1,10,Lamp,2,9.99\n"
+                    + "1,2024-03-01T12:30,Ann,Main St 1,11,\"Mug, large\",1,4.50\n"
+                    + "2,2024-03-01T12:30,\"Bob \"\"B\"\"\",Side St 2,,,,\n"
+                    + "3,2024-03-01T12:30,Cy,Low St 3,10,Lamp,5,9.99\n", export(OrderExportFormat.CSV));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.agile.ecommerce.order.core;
+
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.dto.OrderIntakeStatus;
+import com.agile.ecommerce.order.exception.OrderIntakeFullException;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the intake against the real database, where the batches, rejections and rollbacks actually happen.
+ */
+@SpringBootTest
+class OrderIntakeServiceTest {
+
+    @Autowired
+    private OrderIntakeService intakeService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        var orders = orderIds.toArray(Long[]::new);
+        jdbcTemplate.update("delete from order_items where order_id = any(?)", (Object) orders);
+        jdbcTemplate.update("delete from orders where id = any(?)", (Object) orders);
+        productRepository.deleteAllById(productIds);
+    }
+
+    @Nested
+    @DisplayName("submit Tests")
+    class SubmitTests {
+
+        @Test
+        @DisplayName("should place orders in batches and reject those short of stock without undoing the rest")
+        void shouldPlaceOrdersInBatches() throws Exception {
+            var product = createProduct(1_500);
+            var handles = new ArrayList<UUID>();
+
+            long began = System.nanoTime();
+            for (int i = 0; i < 2_000; i++) {
+                handles.add(intakeService.submit(order(product, 1)).handle());
+            }
+            var outcomes = awaitOutcomes(handles);
+            double seconds = (System.nanoTime() - began) / 1e9;
+            System.out.printf("intake: wrote %d orders in %.2f s (%.0f orders/s)%n",
+                    outcomes.size(), seconds, outcomes.size() / seconds);
+
+            var placed = outcomes.stream().filter(o -> o.state() == OrderIntakeStatus.State.PLACED).toList();
+            var rejected = outcomes.stream().filter(o -> o.state() == OrderIntakeStatus.State.REJECTED).toList();
+            assertEquals(1_500, placed.size());
+            assertEquals(500, rejected.size());
+            assertEquals("Insufficient stock for products [" + product + "]", rejected.getFirst().error());
+            assertEquals(0, jdbcTemplate.queryForObject("select quantity from products where id = ?", Integer.class, product));
+            assertEquals(1_500, jdbcTemplate.queryForObject(
+                    "select count(*) from order_items where product_id = ?", Integer.class, product));
+        }
+
+        @Test
+        @DisplayName("should keep the stock of an order rejected for another product of the same batch")
+        void shouldKeepStockOfRejectedOrder() throws Exception {
+            var plenty = createProduct(10);
+            var scarce = createProduct(1);
+
+            var first = intakeService.submit(order(List.of(line(plenty, 2), line(scarce, 1)))).handle();
+            var second = intakeService.submit(order(List.of(line(plenty, 3), line(scarce, 1)))).handle();
+            var outcomes = awaitOutcomes(List.of(first, second));
+
+            assertEquals(OrderIntakeStatus.State.PLACED, outcomes.get(0).state());
+            assertEquals(OrderIntakeStatus.State.REJECTED, outcomes.get(1).state());
+            assertEquals(8, jdbcTemplate.queryForObject("select quantity from products where id = ?", Integer.class, plenty));
+            assertEquals(0, jdbcTemplate.queryForObject("select quantity from products where id = ?", Integer.class, scarce));
+        }
+
+        @Test
+        @ExtendWith(OutputCaptureExtension.class)
+        @DisplayName("should refuse invalid orders at once, so that the rest of their batch is still written together")
+        void shouldRefuseInvalidOrders(CapturedOutput output) throws Exception {
+            var product = createProduct(10);
+
+            var first = intakeService.submit(order(product, 1)).handle();
+            assertThrows(ConstraintViolationException.class, () -> intakeService.submit(new OrderDto(null,
+                    LocalDateTime.now(), "Intake test", "Intake street 1",
+                    List.of(new OrderItemDto(product, "Intake test", 1, null, 0L)), BigDecimal.ZERO, 1)));
+            assertThrows(ConstraintViolationException.class, () -> intakeService.submit(order(product, 0)));
+            var second = intakeService.submit(order(product, 2)).handle();
+            var outcomes = awaitOutcomes(List.of(first, second));
+
+            assertTrue(outcomes.stream().allMatch(o -> o.state() == OrderIntakeStatus.State.PLACED));
+            assertEquals(7, jdbcTemplate.queryForObject("select quantity from products where id = ?", Integer.class, product));
+            assertFalse(output.getAll().contains("placing them one by one"));
+        }
+
+        @Test
+        @DisplayName("should refuse an order for an unknown product at once")
+        void shouldRefuseUnknownProduct() {
+            var exception = assertThrows(ProductNotFoundException.class,
+                    () -> intakeService.submit(order(Long.MAX_VALUE, 1)));
+
+            assertEquals(List.of(Long.MAX_VALUE), exception.getProductIds());
+        }
+    }
+
+    @Nested
+    @DisplayName("stop Tests")
+    class StopTests {
+
+        @Test
+        @DisplayName("should place the queued orders before stopping and refuse new ones")
+        void shouldDrainOnStop() throws Exception {
+            var product = createProduct(500);
+            var handles = new ArrayList<UUID>();
+            for (int i = 0; i < 500; i++) {
+                handles.add(intakeService.submit(order(product, 1)).handle());
+            }
+
+            intakeService.stop();
+            try {
+                assertFalse(intakeService.isRunning());
+                assertEquals(0, intakeService.queued());
+                assertThrows(OrderIntakeFullException.class, () -> intakeService.submit(order(product, 1)));
+                for (var handle : handles) {
+                    var outcome = intakeService.status(handle);
+                    assertEquals(OrderIntakeStatus.State.PLACED, outcome.state());
+                    orderIds.add(outcome.orderId());
+                }
+            } finally {
+                intakeService.start();
+            }
+        }
+    }
+
+    private long createProduct(int stock) {
+        var product = new Product();
+        product.setName("Intake test");
+        product.setDescription("Order intake test product");
+        product.setPrice(BigDecimal.TEN);
+        product.setQuantity(stock);
+        var id = productRepository.save(product).getId();
+        productIds.add(id);
+        return id;
+    }
+
+    private List<OrderIntakeStatus> awaitOutcomes(List<UUID> handles) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        var outcomes = new ArrayList<OrderIntakeStatus>();
+        for (var handle : handles) {
+            var outcome = intakeService.status(handle);
+            while (outcome.state() == OrderIntakeStatus.State.QUEUED) {
+                assertTrue(System.nanoTime() < deadline, "orders still queued");
+                Thread.sleep(10);
+                outcome = intakeService.status(handle);
+            }
+            if (outcome.orderId() != null) {
+                orderIds.add(outcome.orderId());
+            }
+            outcomes.add(outcome);
+        }
+        return outcomes;
+    }
+
+    private static OrderItemDto line(long productId, int quantity) {
+        return new OrderItemDto(productId, "Intake test", quantity, BigDecimal.TEN, 0L);
+    }
+
+    private static OrderDto order(long productId, int quantity) {
+        return order(List.of(line(productId, quantity)));
+    }
+
+    private static OrderDto order(List<OrderItemDto> lines) {
+        return new OrderDto(null, LocalDateTime.now(), "Intake test", "Intake street 1", lines);
+    }
+}
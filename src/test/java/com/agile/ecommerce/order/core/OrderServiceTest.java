@@ -1,25 +1,43 @@
 package com.agile.ecommerce.order.core;
 
+import com.agile.ecommerce.order.data.OrderKey;
 import com.agile.ecommerce.order.data.OrderRepository;
 import com.agile.ecommerce.order.domain.Order;
 import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.dto.OrderSummaryDto;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
+import com.agile.ecommerce.order.mapper.DirectOrderMapper;
+import com.agile.ecommerce.orderItem.domain.OrderItem;
 import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.orderItem.mapper.DirectOrderItemMapper;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.pagination.PageCursor;
+import com.agile.ecommerce.product.core.ProductCache;
+import com.agile.ecommerce.product.core.ProductCacheProperties;
+import com.agile.ecommerce.product.core.StockService;
 import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import com.agile.ecommerce.versioning.EntityVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,14 +48,17 @@ class OrderServiceTest {
     private OrderService orderService;
     private OrderRepository orderRepository;
     private ProductRepository productRepository;
-    private ModelMapper modelMapper;
+    private StockService stockService;
 
     @BeforeEach
     void setUp() {
         orderRepository = mock(OrderRepository.class);
         productRepository = mock(ProductRepository.class);
-        modelMapper = mock(ModelMapper.class);
-        orderService = new OrderService(orderRepository, productRepository, modelMapper);
+        stockService = mock(StockService.class);
+        orderService = new OrderService(orderRepository,
+                new ProductCache(productRepository, new ProductCacheProperties(100, Duration.ofMinutes(10))),
+                stockService,
+                new DirectOrderMapper(new DirectOrderItemMapper()));
     }
 
     @Nested
@@ -50,19 +71,155 @@ class OrderServiceTest {
             var pageable = PageRequest.of(0, 10);
             Order order = new Order();
             order.setId(1L);
-            Page<Order> page = new PageImpl<>(List.of(order), pageable, 1);
+            Page<Long> ids = new PageImpl<>(List.of(1L), pageable, 1);
 
-            when(orderRepository.findAll(pageable)).thenReturn(page);
-            when(modelMapper.map(any(Order.class), eq(OrderDto.class))).thenAnswer(invocation -> {
-                Order o = invocation.getArgument(0);
-                return new OrderDto(o.getId(), o.getOrderDate(), o.getCustomerName(), o.getCustomerAddress(), List.of());
-            });
+            when(orderRepository.findIds(pageable)).thenReturn(ids);
+            when(orderRepository.findAllWithItemsByIdIn(List.of(1L))).thenReturn(List.of(order));
 
             Page<OrderDto> result = orderService.getAll(pageable);
 
             assertNotNull(result);
             assertEquals(1, result.getTotalElements());
-            verify(orderRepository, times(1)).findAll(pageable);
+            assertEquals(1L, result.getContent().get(0).id());
+            verify(orderRepository, times(1)).findIds(pageable);
+            verify(orderRepository, times(1)).findAllWithItemsByIdIn(List.of(1L));
+        }
+
+        @Test
+        @DisplayName("should keep the page order of the id query")
+        void shouldKeepThePageOrderOfTheIdQuery() {
+            var pageable = PageRequest.of(0, 10);
+            Order first = new Order();
+            first.setId(2L);
+            Order second = new Order();
+            second.setId(1L);
+
+            when(orderRepository.findIds(pageable)).thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 2));
+            when(orderRepository.findAllWithItemsByIdIn(List.of(2L, 1L))).thenReturn(List.of(second, first));
+
+            Page<OrderDto> result = orderService.getAll(pageable);
+
+            assertEquals(List.of(2L, 1L), result.map(OrderDto::id).getContent());
+        }
+
+        @Test
+        @DisplayName("should not fetch orders for an empty page")
+        void shouldNotFetchOrdersForAnEmptyPage() {
+            var pageable = PageRequest.of(5, 10);
+
+            when(orderRepository.findIds(pageable)).thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+            Page<OrderDto> result = orderService.getAll(pageable);
+
+            assertTrue(result.isEmpty());
+            verify(orderRepository, never()).findAllWithItemsByIdIn(any());
+        }
+
+        @Test
+        @DisplayName("should leave out an order deleted since its id was read")
+        void shouldSkipOrderDeletedMeanwhile() {
+            var pageable = PageRequest.of(0, 10);
+            Order order = new Order();
+            order.setId(1L);
+
+            when(orderRepository.findIds(pageable)).thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 2));
+            when(orderRepository.findAllWithItemsByIdIn(List.of(2L, 1L))).thenReturn(List.of(order));
+
+            Page<OrderDto> result = orderService.getAll(pageable);
+
+            assertEquals(List.of(1L), result.map(OrderDto::id).getContent());
+            assertEquals(1, result.getTotalElements());
+        }
+    }
+
+    @Nested
+    @DisplayName("scroll Tests")
+    class ScrollTests {
+
+        @Test
+        @DisplayName("should return the newest orders and a cursor at the last one")
+        void shouldReturnNewestOrdersWithCursor() throws InvalidCursorException {
+            var date = LocalDateTime.of(2024, 1, 2, 3, 4);
+            when(orderRepository.findNewestKeys(Limit.of(3))).thenReturn(List.of(
+                    new OrderKey(9L, date.plusDays(1)), new OrderKey(8L, date), new OrderKey(7L, date)));
+            when(orderRepository.findAllWithItemsByIdIn(List.of(9L, 8L)))
+                    .thenReturn(List.of(order(8L, date), order(9L, date.plusDays(1))));
+
+            var page = orderService.scroll(null, 2);
+
+            assertEquals(List.of(9L, 8L), page.content().stream().map(OrderDto::id).toList());
+            assertEquals(2, page.size());
+            assertEquals(PageCursor.encode(OrderService.CURSOR_SCOPE, date, 8L), page.nextCursor());
+        }
+
+        @Test
+        @DisplayName("should seek past the cursor and end without a next cursor")
+        void shouldSeekPastCursor() throws InvalidCursorException {
+            var date = LocalDateTime.of(2024, 1, 2, 3, 4);
+            when(orderRepository.findKeysBefore(date, 8L, Limit.of(3))).thenReturn(List.of(new OrderKey(7L, date)));
+            when(orderRepository.findAllWithItemsByIdIn(List.of(7L))).thenReturn(List.of(order(7L, date)));
+
+            var page = orderService.scroll(PageCursor.encode(OrderService.CURSOR_SCOPE, date, 8L), 2);
+
+            assertEquals(List.of(7L), page.content().stream().map(OrderDto::id).toList());
+            assertNull(page.nextCursor());
+        }
+
+        @Test
+        @DisplayName("should leave out an order deleted since its key was read, and still continue after it")
+        void shouldSkipOrderDeletedMeanwhile() throws InvalidCursorException {
+            var date = LocalDateTime.of(2024, 1, 2, 3, 4);
+            when(orderRepository.findNewestKeys(Limit.of(3))).thenReturn(List.of(
+                    new OrderKey(9L, date.plusDays(1)), new OrderKey(8L, date), new OrderKey(7L, date)));
+            when(orderRepository.findAllWithItemsByIdIn(List.of(9L, 8L)))
+                    .thenReturn(List.of(order(9L, date.plusDays(1))));
+
+            var page = orderService.scroll(null, 2);
+
+            assertEquals(List.of(9L), page.content().stream().map(OrderDto::id).toList());
+            assertEquals(PageCursor.encode(OrderService.CURSOR_SCOPE, date, 8L), page.nextCursor());
+        }
+
+        @Test
+        @DisplayName("should reject a cursor from another list")
+        void shouldRejectForeignCursor() {
+            assertThrows(InvalidCursorException.class, () -> orderService.scroll(PageCursor.encode("products", 1L), 2));
+            verifyNoInteractions(orderRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("summaries Tests")
+    class SummariesTests {
+
+        @Test
+        @DisplayName("should return the newest summaries and a cursor at the last one")
+        void shouldReturnNewestSummariesWithCursor() throws InvalidCursorException {
+            var date = LocalDateTime.of(2024, 1, 2, 3, 4);
+            when(orderRepository.findNewestSummaries(Limit.of(3))).thenReturn(List.of(
+                    summary(9L, date.plusDays(1)), summary(8L, date), summary(7L, date)));
+
+            var page = orderService.summaries(null, 2);
+
+            assertEquals(List.of(9L, 8L), page.content().stream().map(OrderSummaryDto::id).toList());
+            assertEquals(PageCursor.encode(OrderService.CURSOR_SCOPE, date, 8L), page.nextCursor());
+            verify(orderRepository, never()).findAllWithItemsByIdIn(any());
+        }
+
+        @Test
+        @DisplayName("should seek past the cursor and end without a next cursor")
+        void shouldSeekPastCursor() throws InvalidCursorException {
+            var date = LocalDateTime.of(2024, 1, 2, 3, 4);
+            when(orderRepository.findSummariesBefore(date, 8L, Limit.of(3))).thenReturn(List.of(summary(7L, date)));
+
+            var page = orderService.summaries(PageCursor.encode(OrderService.CURSOR_SCOPE, date, 8L), 2);
+
+            assertEquals(List.of(7L), page.content().stream().map(OrderSummaryDto::id).toList());
+            assertNull(page.nextCursor());
+        }
+
+        private static OrderSummaryDto summary(long id, LocalDateTime date) {
+            return new OrderSummaryDto(id, date, "Customer", "Address", BigDecimal.TEN, 1);
         }
     }
 
@@ -76,27 +233,23 @@ class OrderServiceTest {
             Order order = new Order();
             order.setId(1L);
 
-            when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-            when(modelMapper.map(any(Order.class), eq(OrderDto.class))).thenAnswer(invocation -> {
-                Order o = invocation.getArgument(0);
-                return new OrderDto(o.getId(), o.getOrderDate(), o.getCustomerName(), o.getCustomerAddress(), List.of());
-            });
+            when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
 
             OrderDto result = orderService.getById(1L);
 
             assertNotNull(result);
             assertEquals(1L, result.id());
-            verify(orderRepository, times(1)).findById(1L);
+            verify(orderRepository, times(1)).findWithItemsById(1L);
         }
 
         @Test
         @DisplayName("should throw exception when order not found")
         void shouldThrowExceptionWhenOrderNotFound() {
-            when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+            when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.empty());
 
             assertThrows(OrderNotFoundException.class, () -> orderService.getById(1L));
 
-            verify(orderRepository, times(1)).findById(1L);
+            verify(orderRepository, times(1)).findWithItemsById(1L);
         }
     }
 
@@ -106,21 +259,46 @@ class OrderServiceTest {
 
         @Test
         @DisplayName("should add and return order")
-        void shouldAddAndReturnOrder() throws ProductNotFoundException {
+        void shouldAddAndReturnOrder() throws ProductNotFoundException, InsufficientStockException {
             OrderDto orderDto = new OrderDto(1L, LocalDateTime.now(), "CustomerName", "CustomerAddress", List.of());
-            Order order = new Order();
-            order.setId(1L);
-            order.setCustomerName("CustomerName");
 
-            when(modelMapper.map(orderDto, Order.class)).thenReturn(order);
-            when(orderRepository.save(any(Order.class))).thenReturn(order);
-            when(modelMapper.map(order, OrderDto.class)).thenReturn(orderDto);
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> assignId(invocation.getArgument(0)));
 
             OrderDto result = orderService.add(orderDto);
 
             assertNotNull(result);
             assertEquals(orderDto.customerName(), result.customerName());
             verify(orderRepository, times(1)).save(any(Order.class));
+            verify(productRepository, never()).findAllById(any());
+        }
+
+        @Test
+        @DisplayName("should resolve all products in one query and save the lines with the order")
+        void shouldResolveAllProductsInOneQueryAndSaveTheLinesWithTheOrder() throws ProductNotFoundException, InsufficientStockException {
+            OrderDto orderDto = new OrderDto(null, LocalDateTime.now(), "CustomerName", "CustomerAddress", List.of(
+                    new OrderItemDto(1L, "ProductName", 2, BigDecimal.valueOf(100.0), 0L),
+                    new OrderItemDto(2L, "ProductName", 1, BigDecimal.valueOf(50.0), 0L),
+                    new OrderItemDto(1L, "ProductName", 3, BigDecimal.valueOf(100.0), 0L)));
+
+            when(productRepository.findAllById(any())).thenReturn(List.of(product(1L), product(2L)));
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> assignId(invocation.getArgument(0)));
+
+            OrderDto result = orderService.add(orderDto);
+
+            ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+            verify(productRepository, times(1)).findAllById(Set.of(1L, 2L));
+            verify(productRepository, never()).findById(any());
+            verify(orderRepository, times(1)).save(saved.capture());
+            List<OrderItem> lines = saved.getValue().getOrderItems();
+            assertEquals(3, lines.size());
+            assertTrue(lines.stream().allMatch(item -> item.getOrder() == saved.getValue()));
+            assertEquals("ProductName", lines.get(0).getProduct().getName());
+            assertEquals(3, result.orderItems().size());
+            assertEquals(7L, result.orderItems().get(0).orderId);
+            assertEquals(new BigDecimal("550.0"), saved.getValue().getTotalAmount());
+            assertEquals(3, saved.getValue().getItemCount());
+            assertEquals(new BigDecimal("550.0"), result.totalAmount());
+            assertEquals(3, result.itemCount());
         }
 
         @Test
@@ -129,11 +307,64 @@ class OrderServiceTest {
             OrderItemDto orderItemDto = new OrderItemDto(1L, "ProductName", 2, BigDecimal.valueOf(100.0), 1L);
             OrderDto orderDto = new OrderDto(1L, LocalDateTime.now(), "CustomerName", "CustomerAddress", List.of(orderItemDto));
 
-            when(productRepository.findById(1L)).thenReturn(Optional.empty());
+            when(productRepository.findAllById(any())).thenReturn(List.of());
 
             assertThrows(ProductNotFoundException.class, () -> orderService.add(orderDto));
 
-            verify(productRepository, times(1)).findById(1L);
+            verify(productRepository, times(1)).findAllById(Set.of(1L));
+            verify(orderRepository, never()).save(any(Order.class));
+        }
+
+        @Test
+        @DisplayName("should report every missing product at once")
+        void shouldReportEveryMissingProductAtOnce() {
+            OrderDto orderDto = new OrderDto(null, LocalDateTime.now(), "CustomerName", "CustomerAddress", List.of(
+                    new OrderItemDto(3L, "ProductName", 1, BigDecimal.ONE, 0L),
+                    new OrderItemDto(2L, "ProductName", 1, BigDecimal.ONE, 0L),
+                    new OrderItemDto(1L, "ProductName", 1, BigDecimal.ONE, 0L)));
+
+            when(productRepository.findAllById(any())).thenReturn(List.of(product(2L)));
+
+            var ex = assertThrows(ProductNotFoundException.class, () -> orderService.add(orderDto));
+
+            assertEquals(List.of(1L, 3L), ex.getProductIds());
+            assertEquals("Products [1, 3] not found", ex.getMessage());
+        }
+
+        @Test
+        @DisplayName("should reserve the units of all lines of each product in product id order")
+        void shouldReserveUnitsInProductIdOrder() throws ProductNotFoundException, InsufficientStockException {
+            OrderDto orderDto = new OrderDto(null, LocalDateTime.now(), "CustomerName", "CustomerAddress", List.of(
+                    new OrderItemDto(2L, "ProductName", 1, BigDecimal.ONE, 0L),
+                    new OrderItemDto(1L, "ProductName", 2, BigDecimal.ONE, 0L),
+                    new OrderItemDto(2L, "ProductName", 4, BigDecimal.ONE, 0L)));
+
+            when(productRepository.findAllById(any())).thenReturn(List.of(product(1L), product(2L)));
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> assignId(invocation.getArgument(0)));
+
+            orderService.add(orderDto);
+
+            ArgumentCaptor<TreeMap<Long, Integer>> reserved = ArgumentCaptor.captor();
+            verify(stockService, times(1)).reserve(reserved.capture());
+            assertEquals(List.of(1L, 2L), List.copyOf(reserved.getValue().keySet()));
+            assertEquals(List.of(2, 5), List.copyOf(reserved.getValue().values()));
+        }
+
+        @Test
+        @DisplayName("should reject the whole order when any product is short of stock")
+        void shouldRejectWholeOrderWhenStockIsShort() {
+            OrderDto orderDto = new OrderDto(null, LocalDateTime.now(), "CustomerName", "CustomerAddress", List.of(
+                    new OrderItemDto(1L, "ProductName", 1, BigDecimal.ONE, 0L),
+                    new OrderItemDto(2L, "ProductName", 9, BigDecimal.ONE, 0L)));
+
+            when(productRepository.findAllById(any())).thenReturn(List.of(product(1L), product(2L)));
+            when(stockService.reserve(any())).thenReturn(List.of(2L));
+
+            var ex = assertThrows(InsufficientStockException.class, () -> orderService.add(orderDto));
+
+            assertEquals(List.of(2L), ex.getProductIds());
+            assertEquals("Insufficient stock for products [2]", ex.getMessage());
+            verify(orderRepository, never()).save(any(Order.class));
         }
     }
 
@@ -149,17 +380,15 @@ class OrderServiceTest {
             order.setId(1L);
             order.setCustomerName("CustomerName");
 
-            when(orderRepository.existsById(1L)).thenReturn(true);
-            when(modelMapper.map(orderDto, Order.class)).thenReturn(order);
+            when(orderRepository.findEntityVersionById(1L)).thenReturn(Optional.of(new EntityVersion(3, 0, Instant.now())));
             when(orderRepository.save(any(Order.class))).thenReturn(order);
-            when(modelMapper.map(order, OrderDto.class)).thenReturn(orderDto);
 
             OrderDto result = orderService.update(orderDto);
 
             assertNotNull(result);
             assertEquals(orderDto.customerName(), result.customerName());
-            verify(orderRepository, times(1)).existsById(1L);
-            verify(orderRepository, times(1)).save(any(Order.class));
+            verify(orderRepository, times(1)).findEntityVersionById(1L);
+            verify(orderRepository, times(1)).save(argThat(saved -> saved.getVersion() == 3));
         }
 
         @Test
@@ -167,11 +396,34 @@ class OrderServiceTest {
         void shouldThrowExceptionWhenOrderNotFound() {
             OrderDto orderDto = new OrderDto(1L, LocalDateTime.now(), "CustomerName", "CustomerAddress", List.of());
 
-            when(orderRepository.existsById(orderDto.id())).thenReturn(false);
+            when(orderRepository.findEntityVersionById(orderDto.id())).thenReturn(Optional.empty());
 
             assertThrows(OrderNotFoundException.class, () -> orderService.update(orderDto));
 
-            verify(orderRepository, times(1)).existsById(orderDto.id());
+            verify(orderRepository, never()).save(any(Order.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("getVersion Tests")
+    class GetVersionTests {
+
+        @Test
+        @DisplayName("should return the version without loading the order")
+        void shouldReturnVersionWithoutLoadingOrder() throws OrderNotFoundException {
+            var version = new EntityVersion(2, 7, Instant.now());
+            when(orderRepository.findEntityVersionById(1L)).thenReturn(Optional.of(version));
+
+            assertEquals(version, orderService.getVersion(1L));
+            verify(orderRepository, never()).findWithItemsById(anyLong());
+        }
+
+        @Test
+        @DisplayName("should throw exception when order not found")
+        void shouldThrowExceptionWhenOrderNotFound() {
+            when(orderRepository.findEntityVersionById(1L)).thenReturn(Optional.empty());
+
+            assertThrows(OrderNotFoundException.class, () -> orderService.getVersion(1L));
         }
     }
 
@@ -200,4 +452,23 @@ class OrderServiceTest {
             verify(orderRepository, times(1)).existsById(1L);
         }
     }
+
+    private static Order order(long id, LocalDateTime orderDate) {
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderDate(orderDate);
+        return order;
+    }
+
+    private static Order assignId(Order order) {
+        order.setId(7L);
+        return order;
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("ProductName");
+        return product;
+    }
 }
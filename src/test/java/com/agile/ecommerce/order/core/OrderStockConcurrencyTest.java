@@ -0,0 +1,251 @@
+package com.agile.ecommerce.order.core;
+
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.product.core.ProductService;
+import com.agile.ecommerce.product.core.StockService;
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
+import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Places orders for the same few products from many threads against the real database, to show that stock is never
+ * oversold, that the locking order keeps concurrent orders from deadlocking, and how many orders a second a single
+ * product absorbs with its stock in the database and in memory. Also checks that selling a product leaves the tags of
+ * the orders showing it alone, and that a hot product can be deleted with sales not yet written.
+ */
+@SpringBootTest
+class OrderStockConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final Queue<Long> orderIds = new ConcurrentLinkedQueue<>();
+
+    @AfterEach
+    void tearDown() throws ProductNotFoundException {
+        stockService.flush();
+        // set-based, as deleting thousands of orders one by one through the repository takes minutes
+        var orders = orderIds.toArray(Long[]::new);
+        jdbcTemplate.update("delete from order_items where order_id = any(?)", (Object) orders);
+        jdbcTemplate.update("delete from orders where id = any(?)", (Object) orders);
+        // through the service, which locks out the scheduled flush and drops the hot counters
+        for (var id : productIds) {
+            productService.delete(id);
+        }
+    }
+
+    @Nested
+    @DisplayName("add Tests")
+    class AddTests {
+
+        @Test
+        @DisplayName("should never oversell when many threads order the same products")
+        void shouldNeverOversellUnderContention() throws InterruptedException {
+            createProducts(3, 300);
+
+            var sold = hammer("stored stock", 40, OrderStockConcurrencyTest.this::randomOrder);
+
+            assertStockMatchesOrders(300, sold);
+        }
+
+        @Test
+        @DisplayName("should never oversell a hot product and write its sales behind")
+        void shouldNeverOversellHotProduct() throws InterruptedException {
+            createProducts(1, 3_000);
+            stockService.enable(productIds.getFirst());
+
+            var sold = hammer("hot stock", 250, units -> {
+                units[0] = 1;
+                return order(List.of(new OrderItemDto(productIds.getFirst(), "Stock test 0", 1, BigDecimal.TEN, 0L)));
+            });
+
+            assertEquals(3_000 - sold.get(0), stockService.hotStockLevels().get(productIds.getFirst()));
+            stockService.flush();
+            assertStockMatchesOrders(3_000, sold);
+            assertEquals(0, jdbcTemplate.queryForObject("select count(*) from pending_stock_decrements", Integer.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("getVersion Tests")
+    class GetVersionTests {
+
+        @Test
+        @DisplayName("should keep the tag of an order when its product sells, and change it when the product is renamed")
+        void shouldFollowProductNamesOnly() throws Exception {
+            createProducts(1, 10);
+            var line = new OrderItemDto(productIds.getFirst(), "Stock test 0", 1, BigDecimal.TEN, 0L);
+            var first = orderService.add(order(List.of(line)));
+            orderIds.add(first.id());
+            var placed = orderService.getVersion(first.id());
+
+            orderIds.add(orderService.add(order(List.of(line))).id());
+            assertEquals(placed, orderService.getVersion(first.id()));
+
+            productService.update(new ProductDto(productIds.getFirst(), "Renamed", "Concurrency test product",
+                    BigDecimal.TEN, 8));
+            var renamed = orderService.getVersion(first.id());
+            assertNotEquals(placed.eTag(), renamed.eTag());
+            assertTrue(renamed.lastModified().isAfter(placed.lastModified()));
+        }
+    }
+
+    @Nested
+    @DisplayName("delete Tests")
+    class DeleteTests {
+
+        @Test
+        @DisplayName("should delete a cached hot product whose sales are still pending")
+        void shouldDeleteHotProductWithPendingSales() throws Exception {
+            createProducts(1, 10);
+            long id = productIds.getFirst();
+            stockService.enable(id);
+            var order = orderService.add(order(List.of(new OrderItemDto(id, "Stock test 0", 1, BigDecimal.TEN, 0L))));
+            jdbcTemplate.update("delete from order_items where order_id = ?", order.id());
+            jdbcTemplate.update("delete from orders where id = ?", order.id());
+            productRepository.findById(id);
+
+            productService.delete(id);
+            productIds.clear();
+
+            assertFalse(productRepository.existsById(id));
+            assertFalse(stockService.hotStockLevels().containsKey(id));
+        }
+    }
+
+    private void createProducts(int count, int stock) {
+        for (int i = 0; i < count; i++) {
+            var product = new Product();
+            product.setName("Stock test " + i);
+            product.setDescription("Concurrency test product");
+            product.setPrice(BigDecimal.TEN);
+            product.setQuantity(stock);
+            productIds.add(productRepository.save(product).getId());
+        }
+    }
+
+    /**
+     * Places {@code ordersPerThread} orders from each of {@link #THREADS} threads, all started at once, and fails on any
+     * error other than running out of stock.
+     *
+     * @return units sold per product, by index in {@link #productIds}
+     */
+    private AtomicLongArray hammer(String label, int ordersPerThread, OrderFactory orders) throws InterruptedException {
+        var sold = new AtomicLongArray(productIds.size());
+        var placed = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var failures = new ConcurrentLinkedQueue<Throwable>();
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int n = 0; n < ordersPerThread; n++) {
+                    var units = new int[productIds.size()];
+                    var order = orders.next(units);
+                    try {
+                        orderIds.add(orderService.add(order).id());
+                        for (int p = 0; p < units.length; p++) {
+                            sold.addAndGet(p, units[p]);
+                        }
+                        placed.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - began) / 1e9;
+        System.out.printf("%s: placed %d and rejected %d orders from %d threads in %.2f s (%.0f orders/s)%n",
+                label, placed.get(), rejected.get(), THREADS, seconds, (placed.get() + rejected.get()) / seconds);
+
+        assertEquals(List.of(), List.copyOf(failures), "no order may fail other than for lack of stock");
+        assertTrue(placed.get() > 0);
+        assertTrue(rejected.get() > 0, "the test must exhaust the stock to prove anything");
+        return sold;
+    }
+
+    private void assertStockMatchesOrders(int stock, AtomicLongArray sold) {
+        for (int p = 0; p < productIds.size(); p++) {
+            long id = productIds.get(p);
+            int left = jdbcTemplate.queryForObject("select quantity from products where id = ?", Integer.class, id);
+            long ordered = jdbcTemplate.queryForObject(
+                    "select coalesce(sum(quantity), 0) from order_items where product_id = ?", Long.class, id);
+            assertTrue(left >= 0, "product " + id + " was oversold");
+            assertEquals(sold.get(p), ordered);
+            assertEquals(stock - ordered, left);
+        }
+    }
+
+    /**
+     * Two or three lines over the test products in random order, sometimes with a product twice, so that concurrent
+     * orders ask for the same rows in different orders.
+     */
+    private OrderDto randomOrder(int[] units) {
+        var random = ThreadLocalRandom.current();
+        var lines = new ArrayList<OrderItemDto>();
+        for (int i = 0, count = random.nextInt(2, 4); i < count; i++) {
+            int p = random.nextInt(productIds.size());
+            int quantity = random.nextInt(1, 6);
+            units[p] += quantity;
+            lines.add(new OrderItemDto(productIds.get(p), "Stock test " + p, quantity, BigDecimal.TEN, 0L));
+        }
+        Collections.shuffle(lines);
+        return order(lines);
+    }
+
+    private static OrderDto order(List<OrderItemDto> lines) {
+        return new OrderDto(null, LocalDateTime.now(), "Concurrency test", "Concurrency street 1", lines);
+    }
+
+    @FunctionalInterface
+    private interface OrderFactory {
+        /**
+         * The next order to place; {@code units} receives the units it orders per product.
+         */
+        OrderDto next(int[] units);
+    }
+}
@@ -0,0 +1,102 @@
+package com.agile.ecommerce.order.core;
+
+import com.agile.ecommerce.order.data.ReactiveOrderRepository;
+import com.agile.ecommerce.order.domain.OrderView;
+import com.agile.ecommerce.order.exception.OrderNotFoundException;
+import com.agile.ecommerce.orderItem.data.ReactiveOrderItemRepository;
+import com.agile.ecommerce.orderItem.domain.OrderItemView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ReactiveOrderService Tests")
+class ReactiveOrderServiceTest {
+    private ReactiveOrderRepository orderRepository;
+    private ReactiveOrderItemRepository orderItemRepository;
+    private ReactiveOrderService service;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(ReactiveOrderRepository.class);
+        orderItemRepository = mock(ReactiveOrderItemRepository.class);
+        service = new ReactiveOrderService(orderRepository, orderItemRepository);
+        when(orderItemRepository.findWithProductNameByOrderIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids).filter(id -> id % 2 == 0).map(ReactiveOrderServiceTest::item);
+        });
+    }
+
+    private static OrderView order(long id) {
+        return new OrderView(id, LocalDateTime.of(2024, 1, 1, 0, 0), "Customer " + id, "Street " + id, BigDecimal.ZERO, 0);
+    }
+
+    private static OrderItemView item(long orderId) {
+        return new OrderItemView(orderId * 10, orderId, 3L, "Product 3", 2, BigDecimal.TEN);
+    }
+
+    @Nested
+    @DisplayName("getAll Tests")
+    class GetAllTests {
+
+        @Test
+        @DisplayName("should attach the items to each order, loading them one batch of orders at a time")
+        void shouldLoadItemsPerBatch() {
+            var count = ReactiveOrderService.ITEM_BATCH_SIZE + 1;
+            when(orderRepository.findAllByOrderById())
+                    .thenReturn(Flux.fromStream(LongStream.rangeClosed(1, count).mapToObj(ReactiveOrderServiceTest::order)));
+
+            StepVerifier.create(service.getAll())
+                    .assertNext(order -> {
+                        assertEquals(1L, order.id());
+                        assertEquals(List.of(), order.orderItems());
+                    })
+                    .assertNext(order -> {
+                        assertEquals(2L, order.id());
+                        assertEquals(List.of(item(2).toDto()), order.orderItems());
+                    })
+                    .expectNextCount(count - 2)
+                    .verifyComplete();
+            verify(orderItemRepository, times(2)).findWithProductNameByOrderIdIn(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("getById Tests")
+    class GetByIdTests {
+
+        @Test
+        @DisplayName("should return the order with its items")
+        void shouldReturnOrderWithItems() {
+            when(orderRepository.findById(4L)).thenReturn(Mono.just(order(4)));
+
+            StepVerifier.create(service.getById(4))
+                    .assertNext(order -> assertEquals(order(4).toDto(List.of(item(4).toDto())), order))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("should fail for an unknown order")
+        void shouldFailForUnknownOrder() {
+            when(orderRepository.findById(5L)).thenReturn(Mono.empty());
+
+            StepVerifier.create(service.getById(5))
+                    .verifyErrorMessage(new OrderNotFoundException(5).getMessage());
+            verifyNoInteractions(orderItemRepository);
+        }
+    }
+}
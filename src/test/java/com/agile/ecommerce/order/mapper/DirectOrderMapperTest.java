@@ -0,0 +1,87 @@
+package com.agile.ecommerce.order.mapper;
+
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.orderItem.mapper.DirectOrderItemMapper;
+import com.agile.ecommerce.product.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DirectOrderMapper Test")
+class DirectOrderMapperTest {
+
+    private DirectOrderMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new DirectOrderMapper(new DirectOrderItemMapper());
+    }
+
+    @Nested
+    @DisplayName("toDto Tests")
+    class ToDtoTests {
+
+        @Test
+        @DisplayName("should copy order fields and map every line")
+        void shouldCopyOrderFieldsAndMapEveryLine() {
+            var date = LocalDateTime.now();
+            var order = new Order();
+            order.setId(1L);
+            order.setOrderDate(date);
+            order.setCustomerName("CustomerName");
+            order.setCustomerAddress("CustomerAddress");
+            var product = new Product();
+            product.setId(2L);
+            product.setName("ProductName");
+            order.setOrderItems(List.of(new OrderItem(3L, order, product, 4, BigDecimal.TEN)));
+
+            var dto = mapper.toDto(order);
+
+            assertThat(dto.id()).isEqualTo(1L);
+            assertThat(dto.orderDate()).isEqualTo(date);
+            assertThat(dto.customerName()).isEqualTo("CustomerName");
+            assertThat(dto.customerAddress()).isEqualTo("CustomerAddress");
+            assertThat(dto.orderItems()).containsExactly(new OrderItemDto(2L, "ProductName", 4, BigDecimal.TEN, 1L));
+        }
+    }
+
+    @Nested
+    @DisplayName("toEntity Tests")
+    class ToEntityTests {
+
+        @Test
+        @DisplayName("should build an order whose lines point back to it")
+        void shouldBuildAnOrderWhoseLinesPointBackToIt() {
+            var dto = new OrderDto(1L, LocalDateTime.now(), "CustomerName", "CustomerAddress",
+                    List.of(new OrderItemDto(2L, "ProductName", 4, BigDecimal.TEN, 1L)));
+
+            var order = mapper.toEntity(dto);
+
+            assertThat(order.getId()).isEqualTo(1L);
+            assertThat(order.getCustomerName()).isEqualTo("CustomerName");
+            assertThat(order.getOrderItems()).hasSize(1);
+            assertThat(order.getOrderItems().get(0).getOrder()).isSameAs(order);
+            assertThat(order.getOrderItems().get(0).getProduct().getId()).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("should tolerate a dto without lines")
+        void shouldTolerateADtoWithoutLines() {
+            var dto = new OrderDto(1L, LocalDateTime.now(), "CustomerName", "CustomerAddress", null);
+
+            var order = mapper.toEntity(dto);
+
+            assertThat(order.getOrderItems()).isEmpty();
+        }
+    }
+}
@@ -1,9 +1,23 @@
 package com.agile.ecommerce.order.rest;
 
+import com.agile.ecommerce.idempotency.core.IdempotencyProperties;
+import com.agile.ecommerce.idempotency.core.IdempotencyService;
+import com.agile.ecommerce.idempotency.data.IdempotencyRecordRepository;
+import com.agile.ecommerce.order.core.OrderExportFormat;
+import com.agile.ecommerce.order.core.OrderExportService;
+import com.agile.ecommerce.order.core.OrderIntakeService;
 import com.agile.ecommerce.order.core.OrderService;
 import com.agile.ecommerce.order.domain.Order;
 import com.agile.ecommerce.order.dto.OrderDto;
+import com.agile.ecommerce.order.dto.OrderIntakeStatus;
+import com.agile.ecommerce.order.dto.OrderSummaryDto;
+import com.agile.ecommerce.order.exception.OrderIntakeFullException;
+import com.agile.ecommerce.order.exception.OrderIntakeNotFoundException;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.product.exception.InsufficientStockException;
+import com.agile.ecommerce.versioning.EntityVersion;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,23 +25,36 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OrderController.class)
+@Import(IdempotencyService.class)
+@EnableConfigurationProperties(IdempotencyProperties.class)
 @DisplayName("OrderController Tests")
 class OrderControllerTest {
 
@@ -37,6 +64,18 @@ class OrderControllerTest {
     @MockBean
     private OrderService service;
 
+    @MockBean
+    private OrderExportService exportService;
+
+    @MockBean
+    private OrderIntakeService intakeService;
+
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -45,6 +84,8 @@ class OrderControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(idempotencyRecordRepository.claim(any(), any(), any(), any())).thenReturn(1);
         order = new Order();
         order.setId(1L);
         order.setOrderDate(LocalDateTime.now());
@@ -76,33 +117,109 @@ class OrderControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("getOrderSummaries Tests")
+    class GetOrderSummariesTests {
+
+        @Test
+        @DisplayName("should return a keyset page of order summaries with their totals")
+        void shouldReturnKeysetPageOfSummaries() throws Exception {
+            var summary = new OrderSummaryDto(1L, LocalDateTime.of(2024, 1, 2, 3, 4), "CustomerName", "CustomerAddress",
+                    new BigDecimal("150.00"), 2);
+            when(service.summaries(null, 20)).thenReturn(new CursorPage<>(List.of(summary), 20, "def"));
+
+            mockMvc.perform(get("/api/orders/summaries"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(1))
+                    .andExpect(jsonPath("$.content[0].totalAmount").value(150.00))
+                    .andExpect(jsonPath("$.content[0].itemCount").value(2))
+                    .andExpect(jsonPath("$.content[0].orderItems").doesNotExist())
+                    .andExpect(jsonPath("$.nextCursor").value("def"));
+        }
+    }
+
+    @Nested
+    @DisplayName("scrollOrders Tests")
+    class ScrollOrdersTests {
+
+        @Test
+        @DisplayName("should return a keyset page of orders")
+        void shouldReturnKeysetPageOfOrders() throws Exception {
+            when(service.scroll("abc", 10)).thenReturn(new CursorPage<>(List.of(orderDto), 10, "def"));
+
+            mockMvc.perform(get("/api/orders/scroll")
+                            .param("cursor", "abc")
+                            .param("size", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(1))
+                    .andExpect(jsonPath("$.nextCursor").value("def"));
+        }
+    }
+
     @Nested
     @DisplayName("getOrderById Tests")
     class GetOrderByIdTests {
 
         @Test
-        @DisplayName("should return order when found")
+        @DisplayName("should return order with its ETag and Last-Modified when found")
         void shouldReturnOrderWhenFound() throws Exception {
+            when(service.getVersion(1L)).thenReturn(new EntityVersion(2, 5, Instant.parse("2024-03-01T10:15:30Z")));
             when(service.getById(1L)).thenReturn(orderDto);
 
             mockMvc.perform(get("/api/orders/1")
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"2.5\""))
+                    .andExpect(header().string("Last-Modified", "Fri, 01 Mar 2024 10:15:30 GMT"))
                     .andExpect(jsonPath("$.id").value(orderDto.id()));
 
             verify(service, times(1)).getById(1L);
         }
 
+        @Test
+        @DisplayName("should return 304 without loading the order when the ETag matches")
+        void shouldReturn304WhenETagMatches() throws Exception {
+            when(service.getVersion(1L)).thenReturn(new EntityVersion(2, 5, Instant.parse("2024-03-01T10:15:30Z")));
+
+            mockMvc.perform(get("/api/orders/1").header("If-None-Match", "\"2.5\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"2.5\""));
+
+            verify(service, never()).getById(anyLong());
+        }
+
+        @Test
+        @DisplayName("should return the order when the ETag is stale")
+        void shouldReturnOrderWhenETagIsStale() throws Exception {
+            when(service.getVersion(1L)).thenReturn(new EntityVersion(3, 5, Instant.parse("2024-03-01T10:15:30Z")));
+            when(service.getById(1L)).thenReturn(orderDto);
+
+            mockMvc.perform(get("/api/orders/1").header("If-None-Match", "\"2.5\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"3.5\""));
+        }
+
+        @Test
+        @DisplayName("should return 304 when unmodified since the given date")
+        void shouldReturn304WhenUnmodifiedSince() throws Exception {
+            when(service.getVersion(1L)).thenReturn(new EntityVersion(2, 5, Instant.parse("2024-03-01T10:15:30Z")));
+
+            mockMvc.perform(get("/api/orders/1").header("If-Modified-Since", "Fri, 01 Mar 2024 10:15:30 GMT"))
+                    .andExpect(status().isNotModified());
+
+            verify(service, never()).getById(anyLong());
+        }
+
         @Test
         @DisplayName("should return 404 when order not found")
         void shouldReturn404WhenOrderNotFound() throws Exception {
-            when(service.getById(1L)).thenThrow(new OrderNotFoundException(1L));
+            when(service.getVersion(1L)).thenThrow(new OrderNotFoundException(1L));
 
             mockMvc.perform(get("/api/orders/1")
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isNotFound());
 
-            verify(service, times(1)).getById(1L);
+            verify(service, never()).getById(anyLong());
         }
     }
 
@@ -123,6 +240,129 @@ class OrderControllerTest {
 
             verify(service, times(1)).add(any(OrderDto.class));
         }
+
+        @Test
+        @DisplayName("should replay the original response to a retry with the same idempotency key")
+        void shouldReplayRetryWithSameIdempotencyKey() throws Exception {
+            when(service.add(any(OrderDto.class))).thenReturn(orderDto);
+            var body = objectMapper.writeValueAsString(orderDto);
+
+            mockMvc.perform(post("/api/orders").header("Idempotency-Key", "checkout-1")
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().doesNotExist("Idempotent-Replayed"));
+            mockMvc.perform(post("/api/orders").header("Idempotency-Key", "checkout-1")
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(jsonPath("$.id").value(orderDto.id()));
+
+            verify(service, times(1)).add(any(OrderDto.class));
+            verify(idempotencyRecordRepository, times(1)).complete(any(), anyInt(), any(), any());
+            verify(transactionManager, times(1)).commit(any());
+        }
+
+        @Test
+        @DisplayName("should return 422 when the idempotency key is reused for a different order")
+        void shouldReturn422WhenIdempotencyKeyIsReused() throws Exception {
+            when(service.add(any(OrderDto.class))).thenReturn(orderDto);
+            var other = new OrderDto(null, orderDto.orderDate(), "OtherCustomer", "OtherAddress", List.of());
+
+            mockMvc.perform(post("/api/orders").header("Idempotency-Key", "checkout-2")
+                            .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderDto)))
+                    .andExpect(status().isCreated());
+            mockMvc.perform(post("/api/orders").header("Idempotency-Key", "checkout-2")
+                            .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(other)))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(jsonPath("$.error").value("Idempotency key checkout-2 was already used for a different request."));
+
+            verify(service, times(1)).add(any(OrderDto.class));
+        }
+
+        @Test
+        @DisplayName("should return 409 when stock is short")
+        void shouldReturn409WhenStockIsShort() throws Exception {
+            when(service.add(any(OrderDto.class))).thenThrow(new InsufficientStockException(List.of(3L)));
+
+            mockMvc.perform(post("/api/orders")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(orderDto)))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.error").value("Insufficient stock for products [3]"));
+        }
+    }
+
+    @Nested
+    @DisplayName("submitOrder Tests")
+    class SubmitOrderTests {
+        private final UUID handle = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+        private final OrderDto intakeOrder = new OrderDto(null, LocalDateTime.now(), "CustomerName", "CustomerAddress",
+                List.of(new OrderItemDto(3L, "Product", 2, BigDecimal.TEN, 0L)));
+
+        @Test
+        @DisplayName("should accept the order and point to its status")
+        void shouldAcceptOrder() throws Exception {
+            when(intakeService.submit(any(OrderDto.class))).thenReturn(OrderIntakeStatus.queued(handle));
+
+            mockMvc.perform(post("/api/orders/intake")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(intakeOrder)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", "/api/orders/intake/" + handle))
+                    .andExpect(jsonPath("$.handle").value(handle.toString()))
+                    .andExpect(jsonPath("$.state").value("QUEUED"));
+        }
+
+        @Test
+        @DisplayName("should return 503 when intake is full")
+        void shouldReturn503WhenFull() throws Exception {
+            when(intakeService.submit(any(OrderDto.class)))
+                    .thenThrow(new OrderIntakeFullException("Order intake is full, please retry"));
+
+            mockMvc.perform(post("/api/orders/intake")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(intakeOrder)))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.error").value("Order intake is full, please retry"));
+        }
+
+        @Test
+        @DisplayName("should return 400 without queueing an order with an invalid line")
+        void shouldReturn400ForInvalidLine() throws Exception {
+            var invalid = new OrderDto(null, LocalDateTime.now(), "CustomerName", "CustomerAddress",
+                    List.of(new OrderItemDto(3L, "Product", 0, null, 0L)), BigDecimal.ZERO, 1);
+
+            mockMvc.perform(post("/api/orders/intake")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(invalid)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$['orderItems[0].quantity']").value("Quantity must be at least 1"))
+                    .andExpect(jsonPath("$['orderItems[0].price']").value("Price cannot be null"));
+            verifyNoInteractions(intakeService);
+        }
+
+        @Test
+        @DisplayName("should return the outcome of a submitted order")
+        void shouldReturnIntakeStatus() throws Exception {
+            when(intakeService.status(handle)).thenReturn(OrderIntakeStatus.placed(handle, 42L));
+
+            mockMvc.perform(get("/api/orders/intake/" + handle))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.state").value("PLACED"))
+                    .andExpect(jsonPath("$.orderId").value(42));
+        }
+
+        @Test
+        @DisplayName("should return 404 for an unknown handle")
+        void shouldReturn404ForUnknownHandle() throws Exception {
+            when(intakeService.status(handle)).thenThrow(new OrderIntakeNotFoundException(handle));
+
+            mockMvc.perform(get("/api/orders/intake/" + handle))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.error").value("Order intake " + handle + " not found."));
+        }
     }
 
     @Nested
@@ -183,4 +423,44 @@ class OrderControllerTest {
             verify(service, times(1)).delete(1L);
         }
     }
+
+    @Nested
+    @DisplayName("exportOrders Tests")
+    class ExportOrdersTests {
+
+        @Test
+        @DisplayName("should stream ndjson for the requested date range")
+        void shouldStreamNdjsonForDateRange() throws Exception {
+            var from = LocalDateTime.of(2024, 1, 1, 0, 0);
+            var to = LocalDateTime.of(2024, 2, 1, 0, 0);
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(3).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+                return null;
+            }).when(exportService).export(eq(from), eq(to), eq(OrderExportFormat.NDJSON), any(OutputStream.class));
+
+            var result = mockMvc.perform(get("/api/orders/export")
+                            .param("from", "2024-01-01T00:00:00")
+                            .param("to", "2024-02-01T00:00:00")
+                            .accept(OrderExportFormat.NDJSON_MEDIA_TYPE))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(OrderExportFormat.NDJSON_MEDIA_TYPE))
+                    .andExpect(content().string("{\"id\":1}\n"));
+        }
+
+        @Test
+        @DisplayName("should stream csv as an attachment when csv is accepted")
+        void shouldStreamCsvAsAttachment() throws Exception {
+            var result = mockMvc.perform(get("/api/orders/export").accept(OrderExportFormat.CSV_MEDIA_TYPE))
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders.csv\""));
+            verify(exportService).export(isNull(), isNull(), eq(OrderExportFormat.CSV), any(OutputStream.class));
+        }
+    }
 }
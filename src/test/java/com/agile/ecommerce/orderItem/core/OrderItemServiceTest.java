@@ -5,8 +5,14 @@ import com.agile.ecommerce.order.domain.Order;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
 import com.agile.ecommerce.orderItem.data.OrderItemRepository;
 import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemCursorRow;
 import com.agile.ecommerce.orderItem.dto.OrderItemDto;
 import com.agile.ecommerce.orderItem.exception.OrderItemNotFoundException;
+import com.agile.ecommerce.orderItem.mapper.DirectOrderItemMapper;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.pagination.PageCursor;
+import com.agile.ecommerce.product.core.ProductCache;
+import com.agile.ecommerce.product.core.ProductCacheProperties;
 import com.agile.ecommerce.product.data.ProductRepository;
 import com.agile.ecommerce.product.domain.Product;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
@@ -14,13 +20,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,15 +41,15 @@ class OrderItemServiceTest {
     private OrderItemRepository orderItemRepository;
     private ProductRepository productRepository;
     private OrderRepository orderRepository;
-    private ModelMapper modelMapper;
 
     @BeforeEach
     void setUp() {
         orderItemRepository = mock(OrderItemRepository.class);
         productRepository = mock(ProductRepository.class);
         orderRepository = mock(OrderRepository.class);
-        modelMapper = mock(ModelMapper.class);
-        orderItemService = new OrderItemService(orderItemRepository, productRepository, orderRepository, modelMapper);
+        orderItemService = new OrderItemService(orderItemRepository,
+                new ProductCache(productRepository, new ProductCacheProperties(100, Duration.ofMinutes(10))),
+                orderRepository, new DirectOrderItemMapper());
     }
 
     @Nested
@@ -53,34 +60,36 @@ class OrderItemServiceTest {
         @DisplayName("should return paginated list of order items")
         void shouldReturnPaginatedListOfOrderItems() {
             Pageable pageable = PageRequest.of(0, 10);
+            OrderItemDto orderItemDto = new OrderItemDto(1L, "ProductName", 2, BigDecimal.valueOf(100.0), 1L);
+            Page<OrderItemDto> page = new PageImpl<>(List.of(orderItemDto), pageable, 1);
 
-            Product product = new Product();
-            product.setId(1L);
-            product.setName("ProductName");
+            when(orderItemRepository.findAllDtos(pageable)).thenReturn(page);
 
-            Order order = new Order();
-            order.setId(1L);
+            Page<OrderItemDto> result = orderItemService.getAll(pageable);
 
-            OrderItem orderItem = new OrderItem();
-            orderItem.setId(1L);
-            orderItem.setProduct(product);
-            orderItem.setOrder(order);
-            orderItem.setQuantity(2);
-            orderItem.setPrice(BigDecimal.valueOf(100.0));
+            assertNotNull(result);
+            assertEquals(1, result.getTotalElements());
+            verify(orderItemRepository, times(1)).findAllDtos(pageable);
+            verify(orderItemRepository, never()).findAll(pageable);
+        }
+    }
 
-            Page<OrderItem> page = new PageImpl<>(List.of(orderItem), pageable, 1);
+    @Nested
+    @DisplayName("scroll Tests")
+    class ScrollTests {
 
-            when(orderItemRepository.findAll(pageable)).thenReturn(page);
-            when(modelMapper.map(any(OrderItem.class), eq(OrderItemDto.class))).thenAnswer(invocation -> {
-                OrderItem oi = invocation.getArgument(0);
-                return new OrderItemDto(oi.getProduct().getId(), oi.getProduct().getName(), oi.getQuantity(), oi.getPrice(), oi.getOrder().getId());
-            });
+        @Test
+        @DisplayName("should return items after the cursor with a cursor at the last item id")
+        void shouldReturnItemsAfterCursor() throws InvalidCursorException {
+            var first = new OrderItemDto(1L, "ProductName", 2, BigDecimal.TEN, 1L);
+            var second = new OrderItemDto(2L, "ProductName", 1, BigDecimal.ONE, 1L);
+            when(orderItemRepository.findDtosAfter(10L, Limit.of(2))).thenReturn(List.of(
+                    new OrderItemCursorRow(11L, first), new OrderItemCursorRow(14L, second)));
 
-            Page<OrderItemDto> result = orderItemService.getAll(pageable);
+            var page = orderItemService.scroll(PageCursor.encode(OrderItemService.CURSOR_SCOPE, 10L), 1);
 
-            assertNotNull(result);
-            assertEquals(1, result.getTotalElements());
-            verify(orderItemRepository, times(1)).findAll(pageable);
+            assertEquals(List.of(first), page.content());
+            assertEquals(PageCursor.encode(OrderItemService.CURSOR_SCOPE, 11L), page.nextCursor());
         }
     }
 
@@ -91,41 +100,25 @@ class OrderItemServiceTest {
         @Test
         @DisplayName("should return order item when found")
         void shouldReturnOrderItemWhenFound() throws OrderItemNotFoundException {
-            Product product = new Product();
-            product.setId(1L);
-            product.setName("ProductName");
-
-            Order order = new Order();
-            order.setId(1L);
+            OrderItemDto orderItemDto = new OrderItemDto(1L, "ProductName", 2, BigDecimal.valueOf(100.0), 1L);
 
-            OrderItem orderItem = new OrderItem();
-            orderItem.setId(1L);
-            orderItem.setProduct(product);
-            orderItem.setOrder(order);
-            orderItem.setQuantity(2);
-            orderItem.setPrice(BigDecimal.valueOf(100.0));
-
-            when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem));
-            when(modelMapper.map(any(OrderItem.class), eq(OrderItemDto.class))).thenAnswer(invocation -> {
-                OrderItem oi = invocation.getArgument(0);
-                return new OrderItemDto(oi.getProduct().getId(), oi.getProduct().getName(), oi.getQuantity(), oi.getPrice(), oi.getOrder().getId());
-            });
+            when(orderItemRepository.findDtoById(1L)).thenReturn(Optional.of(orderItemDto));
 
             OrderItemDto result = orderItemService.getById(1L);
 
             assertNotNull(result);
             assertEquals(1L, result.productId);
-            verify(orderItemRepository, times(1)).findById(1L);
+            verify(orderItemRepository, times(1)).findDtoById(1L);
         }
 
         @Test
         @DisplayName("should throw exception when order item not found")
         void shouldThrowExceptionWhenOrderItemNotFound() {
-            when(orderItemRepository.findById(1L)).thenReturn(Optional.empty());
+            when(orderItemRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
             assertThrows(OrderItemNotFoundException.class, () -> orderItemService.getById(1L));
 
-            verify(orderItemRepository, times(1)).findById(1L);
+            verify(orderItemRepository, times(1)).findDtoById(1L);
         }
     }
 
@@ -134,28 +127,28 @@ class OrderItemServiceTest {
     class AddTests {
 
         @Test
-        @DisplayName("should add and return order item")
+        @DisplayName("should add and return order item, counting it in the order's totals")
         void shouldAddAndReturnOrderItem() throws ProductNotFoundException, OrderNotFoundException {
             OrderItemDto orderItemDto = new OrderItemDto(1L, "ProductName", 2, BigDecimal.valueOf(100.0), 1L);
-            OrderItem orderItem = new OrderItem();
-            orderItem.setId(1L);
 
             Product product = new Product();
             product.setId(1L);
             Order order = new Order();
             order.setId(1L);
+            order.setTotalAmount(new BigDecimal("50.00"));
+            order.setItemCount(1);
 
-            when(modelMapper.map(orderItemDto, OrderItem.class)).thenReturn(orderItem);
             when(productRepository.findById(1L)).thenReturn(Optional.of(product));
             when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-            when(orderItemRepository.save(any(OrderItem.class))).thenReturn(orderItem);
-            when(modelMapper.map(orderItem, OrderItemDto.class)).thenReturn(orderItemDto);
+            when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             OrderItemDto result = orderItemService.add(orderItemDto);
 
             assertNotNull(result);
             assertEquals(orderItemDto.productId, result.productId);
             verify(orderItemRepository, times(1)).save(any(OrderItem.class));
+            assertEquals(new BigDecimal("250.00"), order.getTotalAmount());
+            assertEquals(2, order.getItemCount());
         }
 
         @Test
@@ -177,26 +170,33 @@ class OrderItemServiceTest {
     class UpdateTests {
 
         @Test
-        @DisplayName("should update and return order item")
+        @DisplayName("should update and return order item, replacing its share of the order's totals")
         void shouldUpdateAndReturnOrderItem() throws ProductNotFoundException, OrderItemNotFoundException {
             OrderItemDto orderItemDto = new OrderItemDto(1L, "ProductName", 2, BigDecimal.valueOf(100.0), 1L);
+            Order order = new Order();
+            order.setId(1L);
+            order.setTotalAmount(new BigDecimal("80.00"));
+            order.setItemCount(2);
             OrderItem orderItem = new OrderItem();
             orderItem.setId(1L);
+            orderItem.setOrder(order);
+            orderItem.setQuantity(3);
+            orderItem.setPrice(new BigDecimal("10.00"));
 
             Product product = new Product();
             product.setId(1L);
 
             when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem));
-            when(modelMapper.map(orderItemDto, OrderItem.class)).thenReturn(orderItem);
             when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-            when(orderItemRepository.save(any(OrderItem.class))).thenReturn(orderItem);
-            when(modelMapper.map(orderItem, OrderItemDto.class)).thenReturn(orderItemDto);
+            when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-            OrderItemDto result = orderItemService.update(orderItemDto);
+            OrderItemDto result = orderItemService.update(1L, orderItemDto);
 
             assertNotNull(result);
             assertEquals(orderItemDto.productId, result.productId);
             verify(orderItemRepository, times(1)).save(any(OrderItem.class));
+            assertEquals(new BigDecimal("250.00"), order.getTotalAmount());
+            assertEquals(2, order.getItemCount());
         }
 
         @Test
@@ -206,7 +206,7 @@ class OrderItemServiceTest {
 
             when(orderItemRepository.findById(1L)).thenReturn(Optional.empty());
 
-            assertThrows(OrderItemNotFoundException.class, () -> orderItemService.update(orderItemDto));
+            assertThrows(OrderItemNotFoundException.class, () -> orderItemService.update(1L, orderItemDto));
 
             verify(orderItemRepository, times(1)).findById(1L);
         }
@@ -219,10 +219,43 @@ class OrderItemServiceTest {
             when(orderItemRepository.findById(1L)).thenReturn(Optional.of(new OrderItem()));
             when(productRepository.findById(1L)).thenReturn(Optional.empty());
 
-            assertThrows(ProductNotFoundException.class, () -> orderItemService.update(orderItemDto));
+            assertThrows(ProductNotFoundException.class, () -> orderItemService.update(1L, orderItemDto));
 
             verify(productRepository, times(1)).findById(1L);
         }
+
+        @Test
+        @DisplayName("should look the item up by its own id and move only its order's totals")
+        void shouldUpdateItemByItsOwnId() throws ProductNotFoundException, OrderItemNotFoundException {
+            Order order = new Order();
+            order.setId(1L);
+            order.setTotalAmount(new BigDecimal("30.00"));
+            order.setItemCount(1);
+            OrderItem orderItem = new OrderItem(7L, order, new Product(), 3, new BigDecimal("10.00"));
+            // owns the item whose id is the product id
+            Order otherOrder = new Order();
+            otherOrder.setId(2L);
+            otherOrder.setTotalAmount(new BigDecimal("5.00"));
+            otherOrder.setItemCount(1);
+            OrderItem otherItem = new OrderItem(3L, otherOrder, new Product(), 1, new BigDecimal("5.00"));
+            Product product = new Product();
+            product.setId(3L);
+
+            when(orderItemRepository.findById(7L)).thenReturn(Optional.of(orderItem));
+            when(orderItemRepository.findById(3L)).thenReturn(Optional.of(otherItem));
+            when(productRepository.findById(3L)).thenReturn(Optional.of(product));
+            when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            var result = orderItemService.update(7L, new OrderItemDto(3L, "ProductName", 2, new BigDecimal("4.00"), 1L));
+
+            assertEquals(3L, result.productId);
+            assertEquals(new BigDecimal("8.00"), order.getTotalAmount());
+            assertEquals(1, order.getItemCount());
+            assertEquals(new BigDecimal("5.00"), otherOrder.getTotalAmount());
+            assertEquals(1, otherOrder.getItemCount());
+            assertEquals(1, otherItem.getQuantity());
+            verify(orderItemRepository, never()).findById(3L);
+        }
     }
 
     @Nested
@@ -230,11 +263,33 @@ class OrderItemServiceTest {
     class DeleteTests {
 
         @Test
-        @DisplayName("should delete order item by id")
+        @DisplayName("should delete order item by id, take it out of its order's totals and mark the order modified")
         void shouldDeleteOrderItemById() {
+            Order order = new Order();
+            order.setTotalAmount(new BigDecimal("80.00"));
+            order.setItemCount(2);
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setQuantity(3);
+            orderItem.setPrice(new BigDecimal("10.00"));
+            when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem));
+
+            orderItemService.delete(1L);
+
+            verify(orderItemRepository, times(1)).delete(orderItem);
+            assertNotNull(order.getLastModified());
+            assertEquals(new BigDecimal("50.00"), order.getTotalAmount());
+            assertEquals(1, order.getItemCount());
+        }
+
+        @Test
+        @DisplayName("should do nothing when the order item does not exist")
+        void shouldDoNothingWhenOrderItemDoesNotExist() {
+            when(orderItemRepository.findById(1L)).thenReturn(Optional.empty());
+
             orderItemService.delete(1L);
 
-            verify(orderItemRepository, times(1)).deleteById(1L);
+            verify(orderItemRepository, never()).delete(any(OrderItem.class));
         }
     }
 }
@@ -0,0 +1,87 @@
+package com.agile.ecommerce.orderItem.mapper;
+
+import com.agile.ecommerce.order.domain.Order;
+import com.agile.ecommerce.orderItem.domain.OrderItem;
+import com.agile.ecommerce.orderItem.dto.OrderItemDto;
+import com.agile.ecommerce.product.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DirectOrderItemMapper Test")
+class DirectOrderItemMapperTest {
+
+    private DirectOrderItemMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new DirectOrderItemMapper();
+    }
+
+    @Nested
+    @DisplayName("toDto Tests")
+    class ToDtoTests {
+
+        @Test
+        @DisplayName("should flatten product and order references into the dto")
+        void shouldFlattenProductAndOrderReferencesIntoTheDto() {
+            var product = new Product();
+            product.setId(2L);
+            product.setName("ProductName");
+            var order = new Order();
+            order.setId(3L);
+            var item = new OrderItem(1L, order, product, 4, BigDecimal.valueOf(9.99));
+
+            var dto = mapper.toDto(item);
+
+            assertThat(dto.productId).isEqualTo(2L);
+            assertThat(dto.productName).isEqualTo("ProductName");
+            assertThat(dto.quantity).isEqualTo(4);
+            assertThat(dto.price).isEqualTo(BigDecimal.valueOf(9.99));
+            assertThat(dto.orderId).isEqualTo(3L);
+        }
+    }
+
+    @Nested
+    @DisplayName("toEntity Tests")
+    class ToEntityTests {
+
+        @Test
+        @DisplayName("should build an item with id-only product and order references")
+        void shouldBuildAnItemWithIdOnlyReferences() {
+            var dto = new OrderItemDto(2L, "ProductName", 4, BigDecimal.valueOf(9.99), 3L);
+
+            var item = mapper.toEntity(dto);
+
+            assertThat(item.getId()).isNull();
+            assertThat(item.getProduct().getId()).isEqualTo(2L);
+            assertThat(item.getOrder().getId()).isEqualTo(3L);
+            assertThat(item.getQuantity()).isEqualTo(4);
+            assertThat(item.getPrice()).isEqualTo(BigDecimal.valueOf(9.99));
+        }
+    }
+
+    @Nested
+    @DisplayName("copyInto Tests")
+    class CopyIntoTests {
+
+        @Test
+        @DisplayName("should only overwrite quantity and price")
+        void shouldOnlyOverwriteQuantityAndPrice() {
+            var product = new Product();
+            product.setId(2L);
+            var item = new OrderItem(1L, new Order(), product, 1, BigDecimal.ONE);
+
+            mapper.copyInto(new OrderItemDto(7L, "Other", 5, BigDecimal.TEN, 8L), item);
+
+            assertThat(item.getQuantity()).isEqualTo(5);
+            assertThat(item.getPrice()).isEqualTo(BigDecimal.TEN);
+            assertThat(item.getProduct().getId()).isEqualTo(2L);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.agile.ecommerce.orderItem.rest;
 
+import com.agile.ecommerce.idempotency.core.IdempotencyProperties;
+import com.agile.ecommerce.idempotency.core.IdempotencyService;
+import com.agile.ecommerce.idempotency.data.IdempotencyRecordRepository;
 import com.agile.ecommerce.order.exception.OrderNotFoundException;
 import com.agile.ecommerce.orderItem.core.OrderItemService;
 import com.agile.ecommerce.orderItem.dto.OrderItemDto;
 import com.agile.ecommerce.orderItem.exception.OrderItemNotFoundException;
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,13 +17,17 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -29,6 +38,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OrderItemController.class)
+@Import(IdempotencyService.class)
+@EnableConfigurationProperties(IdempotencyProperties.class)
 @DisplayName("OrderItemController Tests")
 class OrderItemControllerTest {
 
@@ -38,6 +49,12 @@ class OrderItemControllerTest {
     @MockBean
     private OrderItemService service;
 
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -45,6 +62,8 @@ class OrderItemControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(idempotencyRecordRepository.claim(any(), any(), any(), any())).thenReturn(1);
         orderItemDto = new OrderItemDto(1L, "ProductName", 2, BigDecimal.valueOf(100.0), 1L);
     }
 
@@ -71,6 +90,32 @@ class OrderItemControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("scrollOrderItems Tests")
+    class ScrollOrderItemsTests {
+
+        @Test
+        @DisplayName("should return a keyset page of order items")
+        void shouldReturnKeysetPageOfOrderItems() throws Exception {
+            when(service.scroll(null, 20)).thenReturn(new CursorPage<>(List.of(orderItemDto), 20, null));
+
+            mockMvc.perform(get("/api/order-items/scroll"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].productName").value("ProductName"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("should reject an invalid cursor with BAD_REQUEST")
+        void shouldRejectInvalidCursor() throws Exception {
+            when(service.scroll("bad", 20)).thenThrow(new InvalidCursorException("bad"));
+
+            mockMvc.perform(get("/api/order-items/scroll").param("cursor", "bad"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Invalid cursor bad"));
+        }
+    }
+
     @Nested
     @DisplayName("getOrderItemById Tests")
     class GetOrderItemByIdTests {
@@ -119,6 +164,24 @@ class OrderItemControllerTest {
             verify(service, times(1)).add(any(OrderItemDto.class));
         }
 
+        @Test
+        @DisplayName("should replay the original response to a retry with the same idempotency key")
+        void shouldReplayRetryWithSameIdempotencyKey() throws Exception {
+            when(service.add(any(OrderItemDto.class))).thenReturn(orderItemDto);
+            var body = objectMapper.writeValueAsString(orderItemDto);
+
+            mockMvc.perform(post("/api/order-items").header("Idempotency-Key", "line-1")
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isCreated());
+            mockMvc.perform(post("/api/order-items").header("Idempotency-Key", "line-1")
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(jsonPath("$.productId").value(orderItemDto.productId));
+
+            verify(service, times(1)).add(any(OrderItemDto.class));
+        }
+
         @Test
         @DisplayName("should return 404 when order not found")
         void shouldReturn404WhenOrderNotFound() throws Exception {
@@ -153,41 +216,41 @@ class OrderItemControllerTest {
         @Test
         @DisplayName("should update and return order item")
         void shouldUpdateAndReturnOrderItem() throws Exception {
-            when(service.update(any(OrderItemDto.class))).thenReturn(orderItemDto);
+            when(service.update(eq(1L), any(OrderItemDto.class))).thenReturn(orderItemDto);
 
-            mockMvc.perform(put("/api/order-items")
+            mockMvc.perform(put("/api/order-items/1")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(orderItemDto)))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.productId").value(orderItemDto.productId));
 
-            verify(service, times(1)).update(any(OrderItemDto.class));
+            verify(service, times(1)).update(eq(1L), any(OrderItemDto.class));
         }
 
         @Test
         @DisplayName("should return 404 when order item not found")
         void shouldReturn404WhenOrderItemNotFound() throws Exception {
-            when(service.update(any(OrderItemDto.class))).thenThrow(new OrderItemNotFoundException(1L));
+            when(service.update(eq(1L), any(OrderItemDto.class))).thenThrow(new OrderItemNotFoundException(1L));
 
-            mockMvc.perform(put("/api/order-items")
+            mockMvc.perform(put("/api/order-items/1")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(orderItemDto)))
                     .andExpect(status().isNotFound());
 
-            verify(service, times(1)).update(any(OrderItemDto.class));
+            verify(service, times(1)).update(eq(1L), any(OrderItemDto.class));
         }
 
         @Test
         @DisplayName("should return 404 when product not found")
         void shouldReturn404WhenProductNotFound() throws Exception {
-            when(service.update(any(OrderItemDto.class))).thenThrow(new ProductNotFoundException(1L));
+            when(service.update(eq(1L), any(OrderItemDto.class))).thenThrow(new ProductNotFoundException(1L));
 
-            mockMvc.perform(put("/api/order-items")
+            mockMvc.perform(put("/api/order-items/1")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(orderItemDto)))
                     .andExpect(status().isNotFound());
 
-            verify(service, times(1)).update(any(OrderItemDto.class));
+            verify(service, times(1)).update(eq(1L), any(OrderItemDto.class));
         }
     }
 
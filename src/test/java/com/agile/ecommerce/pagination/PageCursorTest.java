@@ -0,0 +1,66 @@
+package com.agile.ecommerce.pagination;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Nested
+    @DisplayName("encode/decode Tests")
+    class EncodeDecodeTests {
+
+        @Test
+        @DisplayName("should round-trip the keys of its scope")
+        void shouldRoundTripKeys() throws InvalidCursorException {
+            var date = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_000);
+
+            var cursor = PageCursor.decode("orders", PageCursor.encode("orders", date, 42L), 2);
+
+            assertEquals(date, cursor.dateTimeKey(0));
+            assertEquals(42L, cursor.longKey(1));
+        }
+
+        @Test
+        @DisplayName("should be url safe")
+        void shouldBeUrlSafe() {
+            assertTrue(PageCursor.encode("products", Long.MAX_VALUE).matches("[A-Za-z0-9_-]+"));
+        }
+
+        @Test
+        @DisplayName("should reject a cursor of another scope")
+        void shouldRejectCursorOfAnotherScope() {
+            var token = PageCursor.encode("products", 1L);
+
+            var ex = assertThrows(InvalidCursorException.class, () -> PageCursor.decode("order-items", token, 1));
+            assertEquals("Invalid cursor " + token, ex.getMessage());
+        }
+
+        @Test
+        @DisplayName("should reject malformed cursors")
+        void shouldRejectMalformedCursors() throws InvalidCursorException {
+            assertThrows(InvalidCursorException.class, () -> PageCursor.decode("products", "not base64!", 1));
+            assertThrows(InvalidCursorException.class, () -> PageCursor.decode("products", PageCursor.encode("products", 1L, 2L), 1));
+            var cursor = PageCursor.decode("products", PageCursor.encode("products", "abc"), 1);
+            assertThrows(InvalidCursorException.class, () -> cursor.longKey(0));
+            assertThrows(InvalidCursorException.class, () -> cursor.dateTimeKey(0));
+        }
+    }
+
+    @Nested
+    @DisplayName("CursorPage.limit Tests")
+    class LimitTests {
+
+        @Test
+        @DisplayName("should clamp page sizes to the allowed range")
+        void shouldClampPageSizes() {
+            assertEquals(1, CursorPage.limit(0));
+            assertEquals(30, CursorPage.limit(30));
+            assertEquals(CursorPage.MAX_SIZE, CursorPage.limit(10_000));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCacheTest {
+
+    private ProductRepository repository;
+    private AtomicLong nanos;
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductRepository.class);
+        nanos = new AtomicLong();
+        cache = new ProductCache(repository, new ProductCacheProperties(100, Duration.ofMinutes(10)), nanos::get);
+    }
+
+    @Nested
+    @DisplayName("get Tests")
+    class GetTests {
+
+        @Test
+        @DisplayName("should load a product once and serve copies afterwards")
+        void shouldLoadOnceAndServeCopies() {
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L)));
+
+            var first = cache.get(1L).orElseThrow();
+            first.setName("changed by caller");
+            var second = cache.get(1L).orElseThrow();
+
+            assertEquals("Product 1", second.getName());
+            assertNotSame(first, second);
+            verify(repository, times(1)).findById(1L);
+            assertEquals(1, cache.stats().hitCount());
+            assertEquals(1, cache.stats().missCount());
+        }
+
+        @Test
+        @DisplayName("should not cache unknown products")
+        void shouldNotCacheUnknownProducts() {
+            when(repository.findById(9L)).thenReturn(Optional.empty());
+
+            assertTrue(cache.get(9L).isEmpty());
+            assertTrue(cache.get(9L).isEmpty());
+
+            verify(repository, times(2)).findById(9L);
+        }
+
+        @Test
+        @DisplayName("should reload a product once it expires")
+        void shouldReloadExpiredProduct() {
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L)));
+
+            cache.get(1L);
+            nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+            cache.get(1L);
+
+            verify(repository, times(2)).findById(1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("getIfPresent Tests")
+    class GetIfPresentTests {
+
+        @Test
+        @DisplayName("should return a cached product without loading one that is not, counting only hits")
+        void shouldNotLoad() {
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L)));
+
+            assertTrue(cache.getIfPresent(1L).isEmpty());
+            cache.get(1L);
+            assertEquals("Product 1", cache.getIfPresent(1L).orElseThrow().getName());
+
+            verify(repository, times(1)).findById(1L);
+            assertEquals(1, cache.stats().hitCount());
+            assertEquals(1, cache.stats().missCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("getAll Tests")
+    class GetAllTests {
+
+        @Test
+        @DisplayName("should load only the missing products, in one query")
+        void shouldLoadOnlyMissingProducts() {
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L)));
+            when(repository.findAllById(Set.of(2L, 3L))).thenReturn(List.of(product(2L)));
+            cache.get(1L);
+
+            var products = cache.getAll(List.of(1L, 2L, 3L));
+
+            assertEquals(Set.of(1L, 2L), products.keySet());
+            verify(repository, times(1)).findAllById(Set.of(2L, 3L));
+        }
+    }
+
+    @Nested
+    @DisplayName("invalidate Tests")
+    class InvalidateTests {
+
+        @Test
+        @DisplayName("should drop the product immediately")
+        void shouldDropProductImmediately() {
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L)));
+            cache.get(1L);
+
+            cache.invalidate(1L);
+            cache.get(1L);
+
+            verify(repository, times(2)).findById(1L);
+        }
+
+        @Test
+        @DisplayName("should drop the product again after the transaction commits")
+        void shouldDropProductAgainAfterCommit() {
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L)));
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                cache.invalidate(1L);
+                cache.get(1L);
+                TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            cache.get(1L);
+
+            verify(repository, times(2)).findById(1L);
+        }
+    }
+
+    private static Product product(long id) {
+        var product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("Description " + id);
+        product.setPrice(BigDecimal.TEN);
+        product.setQuantity(1);
+        return product;
+    }
+}
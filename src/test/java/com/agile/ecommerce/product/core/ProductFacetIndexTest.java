@@ -0,0 +1,224 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ProductFacetIndexTest {
+
+    private ProductRepository repository;
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductRepository.class);
+        index = new ProductFacetIndex(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("facet value Tests")
+    class FacetValueTests {
+
+        @Test
+        @DisplayName("should put a price in the range including its lower bound")
+        void shouldFindPriceRange() {
+            assertEquals(PriceRange.UNDER_10, PriceRange.of(new BigDecimal("9.99")));
+            assertEquals(PriceRange.FROM_10_TO_25, PriceRange.of(new BigDecimal("10.00")));
+            assertEquals(PriceRange.FROM_100, PriceRange.of(new BigDecimal("2500")));
+        }
+
+        @Test
+        @DisplayName("should take the initial of the first word, accents ignored")
+        void shouldFindNameInitial() {
+            assertEquals(NameInitial.A_TO_E, NameInitial.of("Éclair tin"));
+            assertEquals(NameInitial.U_TO_Z, NameInitial.of("  zebra rug"));
+            assertEquals(NameInitial.OTHER, NameInitial.of("3D printer"));
+            assertEquals(NameInitial.OTHER, NameInitial.of("Ωmega"));
+            assertEquals(NameInitial.OTHER, NameInitial.of(""));
+        }
+    }
+
+    @Nested
+    @DisplayName("find Tests")
+    class FindTests {
+
+        @BeforeEach
+        void setUp() {
+            index.put(product(1, "Apron", "8.00", 3));
+            index.put(product(2, "Blender", "45.00", 0));
+            index.put(product(3, "Kettle", "30.00", 5));
+            index.put(product(4, "Mixer", "120.00", 1));
+            index.put(product(5, "Toaster", "29.50", 0));
+        }
+
+        @Test
+        @DisplayName("should return every product and the overall counts without a selection")
+        void shouldCountEverything() {
+            var page = index.find(List.of(), List.of(), List.of(), 0, 10);
+
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), page.productIds());
+            assertEquals(5, page.totalElements());
+            assertEquals(Map.of(PriceRange.UNDER_10, 1, PriceRange.FROM_10_TO_25, 0, PriceRange.FROM_25_TO_50, 3,
+                    PriceRange.FROM_50_TO_100, 0, PriceRange.FROM_100, 1), page.priceRanges());
+            assertEquals(Map.of(StockStatus.IN_STOCK, 3, StockStatus.OUT_OF_STOCK, 2), page.stock());
+            assertEquals(Map.of(NameInitial.A_TO_E, 2, NameInitial.F_TO_J, 0, NameInitial.K_TO_O, 2,
+                    NameInitial.P_TO_T, 1, NameInitial.U_TO_Z, 0, NameInitial.OTHER, 0), page.nameInitials());
+        }
+
+        @Test
+        @DisplayName("should OR the values of a facet and AND the facets")
+        void shouldCombineSelection() {
+            var page = index.find(List.of(PriceRange.UNDER_10, PriceRange.FROM_25_TO_50), List.of(StockStatus.IN_STOCK),
+                    null, 0, 10);
+
+            assertEquals(List.of(1L, 3L), page.productIds());
+            assertEquals(2, page.totalElements());
+        }
+
+        @Test
+        @DisplayName("should count each facet's values against the selection in the other facets only")
+        void shouldCountAgainstOtherFacets() {
+            var page = index.find(List.of(PriceRange.FROM_25_TO_50), List.of(StockStatus.IN_STOCK), List.of(), 0, 10);
+
+            assertEquals(List.of(3L), page.productIds());
+            // in stock, whatever the price
+            assertEquals(1, page.priceRanges().get(PriceRange.UNDER_10));
+            assertEquals(1, page.priceRanges().get(PriceRange.FROM_25_TO_50));
+            assertEquals(1, page.priceRanges().get(PriceRange.FROM_100));
+            // priced 25 to 50, whatever the stock
+            assertEquals(Map.of(StockStatus.IN_STOCK, 1, StockStatus.OUT_OF_STOCK, 2), page.stock());
+            // both
+            assertEquals(1, page.nameInitials().get(NameInitial.K_TO_O));
+            assertEquals(0, page.nameInitials().get(NameInitial.A_TO_E));
+        }
+
+        @Test
+        @DisplayName("should page through the matches in id order, with the size clamped")
+        void shouldPage() {
+            assertEquals(List.of(3L, 4L), index.find(null, null, null, 1, 2).productIds());
+            assertEquals(List.of(5L), index.find(null, null, null, 2, 2).productIds());
+            assertEquals(List.of(), index.find(null, null, null, 3, 2).productIds());
+            var first = index.find(null, null, null, -1, 0);
+            assertEquals(List.of(1L), first.productIds());
+            assertEquals(0, first.page());
+            assertEquals(1, first.size());
+        }
+
+        @Test
+        @DisplayName("should move a product put again to its new values")
+        void shouldMoveProduct() {
+            index.put(product(1, "Zester", "12.00", 0));
+
+            var page = index.find(List.of(), List.of(StockStatus.OUT_OF_STOCK), List.of(), 0, 10);
+            assertEquals(List.of(1L, 2L, 5L), page.productIds());
+            assertEquals(0, page.priceRanges().get(PriceRange.UNDER_10));
+            assertEquals(1, page.nameInitials().get(NameInitial.U_TO_Z));
+            assertEquals(5, index.size());
+        }
+
+        @Test
+        @DisplayName("should drop a removed product from every facet")
+        void shouldRemoveProduct() {
+            index.remove(4);
+
+            var page = index.find(null, null, null, 0, 10);
+            assertEquals(4, page.totalElements());
+            assertEquals(0, page.priceRanges().get(PriceRange.FROM_100));
+            assertEquals(2, page.stock().get(StockStatus.IN_STOCK));
+        }
+
+        @Test
+        @DisplayName("should move products left without units out of stock")
+        void shouldTakeStock() {
+            index.takeStock(Map.of(1L, 3, 3L, 1, 99L, 1));
+
+            var page = index.find(null, List.of(StockStatus.IN_STOCK), null, 0, 10);
+            assertEquals(List.of(3L, 4L), page.productIds());
+            assertEquals(Map.of(StockStatus.IN_STOCK, 2, StockStatus.OUT_OF_STOCK, 3), page.stock());
+        }
+    }
+
+    @Nested
+    @DisplayName("transaction Tests")
+    class TransactionTests {
+
+        @Test
+        @DisplayName("should apply changes made in a transaction only once it commits")
+        void shouldWaitForCommit() {
+            TransactionSynchronizationManager.initSynchronization();
+            index.put(product(1, "Apron", "8.00", 3));
+
+            assertEquals(0, index.find(null, null, null, 0, 10).totalElements());
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            assertEquals(List.of(1L), index.find(null, null, null, 0, 10).productIds());
+        }
+
+        @Test
+        @DisplayName("should ignore changes of a transaction that rolls back")
+        void shouldIgnoreRollback() {
+            TransactionSynchronizationManager.initSynchronization();
+            index.put(product(1, "Apron", "8.00", 3));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationManager.clearSynchronization();
+
+            assertEquals(0, index.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("startup Tests")
+    class StartupTests {
+
+        @Test
+        @DisplayName("should load every product from the database in chunks")
+        void shouldLoadAllProducts() {
+            var first = LongStream.rangeClosed(1, 1000).mapToObj(id -> product(id, "Apron", "5.00", 1)).toList();
+            when(repository.findChunkAfter(0, Limit.of(1000))).thenReturn(first);
+            when(repository.findChunkAfter(1000, Limit.of(1000))).thenReturn(List.of(product(1001, "Mixer", "75", 0)));
+
+            index.afterSingletonsInstantiated();
+
+            assertEquals(1001, index.size());
+            var page = index.find(List.of(PriceRange.FROM_50_TO_100), null, null, 0, 10);
+            assertEquals(List.of(1001L), page.productIds());
+            assertEquals(1000, page.priceRanges().get(PriceRange.UNDER_10));
+            verify(repository, times(2)).findChunkAfter(anyLong(), any());
+        }
+    }
+
+    private static Product product(long id, String name, String price, int quantity) {
+        var product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(name);
+        product.setPrice(new BigDecimal(price));
+        product.setQuantity(quantity);
+        return product;
+    }
+}
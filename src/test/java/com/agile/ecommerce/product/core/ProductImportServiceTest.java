@@ -0,0 +1,172 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductBulkWriter;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductImportReport;
+import com.agile.ecommerce.product.exception.ProductImportException;
+import com.agile.ecommerce.product.mapper.DirectProductMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProductImportServiceTest {
+
+    private static final String VALID_ROW =
+            "{\"name\":\"Lamp\",\"description\":\"A desk lamp\",\"price\":19.99,\"quantity\":4}";
+
+    private ProductBulkWriter writer;
+    private List<List<Product>> written;
+    private ProductSearchIndex searchIndex;
+    private ProductFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(ProductBulkWriter.class);
+        written = new ArrayList<>();
+        searchIndex = mock(ProductSearchIndex.class);
+        facetIndex = mock(ProductFacetIndex.class);
+        doAnswer(invocation -> written.add(List.copyOf(invocation.<List<Product>>getArgument(0))))
+                .when(writer).insertAll(anyList(), anyBoolean());
+    }
+
+    private ProductImportService service(int chunkSize, int maxErrors) {
+        return new ProductImportService(writer, new DirectProductMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                Jackson2ObjectMapperBuilder.json().build(),
+                new ProductImportProperties(chunkSize, maxErrors, true), searchIndex, facetIndex);
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    @DisplayName("NDJSON import Tests")
+    class NdjsonImportTests {
+
+        @Test
+        @DisplayName("should write valid rows in chunks as new products")
+        void shouldWriteValidRowsInChunks() throws IOException, ProductImportException {
+            var payload = "{\"id\":99,\"name\":\"Lamp\",\"description\":\"A desk lamp\",\"price\":19.99,\"quantity\":4}\n"
+                    + (VALID_ROW + "\n").repeat(3) + "\n" + VALID_ROW;
+
+            var report = service(2, 10).importProducts(body(payload), ProductImportFormat.NDJSON);
+
+            assertEquals(new ProductImportReport(5, 5, 0, List.of(), false), report);
+            assertEquals(List.of(2, 2, 1), written.stream().map(List::size).toList());
+            assertNull(written.get(0).get(0).getId());
+            assertEquals(new BigDecimal("19.99"), written.get(0).get(0).getPrice());
+            verify(writer, times(3)).insertAll(anyList(), eq(true));
+            verify(searchIndex, times(5)).put(any(Product.class));
+            verify(facetIndex, times(5)).put(any(Product.class));
+        }
+
+        @Test
+        @DisplayName("should report malformed and invalid rows and keep importing")
+        void shouldReportMalformedAndInvalidRows() throws IOException, ProductImportException {
+            var payload = VALID_ROW + "\n{\"name\":\n{\"name\":\"L\",\"description\":\"short\",\"price\":-1}\n" + VALID_ROW;
+
+            var report = service(10, 10).importProducts(body(payload), ProductImportFormat.NDJSON);
+
+            assertEquals(4, report.received());
+            assertEquals(2, report.imported());
+            assertEquals(2, report.rejected());
+            assertEquals(2, report.errors().get(0).row());
+            assertTrue(report.errors().get(0).messages().get(0).startsWith("Malformed JSON"));
+            assertEquals(new ProductImportReport.RowError(3, List.of(
+                    "description: Description must be between 10 and 500 characters",
+                    "name: Name must be between 2 and 100 characters",
+                    "price: Price must be non-negative")), report.errors().get(1));
+        }
+
+        @Test
+        @DisplayName("should cap the listed errors but count every rejected row")
+        void shouldCapListedErrors() throws IOException, ProductImportException {
+            var report = service(10, 2).importProducts(body("{}\n".repeat(5)), ProductImportFormat.NDJSON);
+
+            assertEquals(5, report.rejected());
+            assertEquals(List.of(1L, 2L), report.errors().stream().map(ProductImportReport.RowError::row).toList());
+            assertTrue(report.errorsTruncated());
+            verifyNoInteractions(writer);
+        }
+
+        @Test
+        @DisplayName("should reject every row of a chunk the database refuses")
+        void shouldRejectRowsOfFailedChunk() throws IOException, ProductImportException {
+            doThrow(new DataIntegrityViolationException("value too long"))
+                    .doAnswer(invocation -> null)
+                    .when(writer).insertAll(anyList(), anyBoolean());
+
+            var report = service(2, 10).importProducts(body((VALID_ROW + "\n").repeat(3)), ProductImportFormat.NDJSON);
+
+            assertEquals(1, report.imported());
+            assertEquals(2, report.rejected());
+            assertEquals(new ProductImportReport.RowError(2, List.of("Not written: value too long")), report.errors().get(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV import Tests")
+    class CsvImportTests {
+
+        @Test
+        @DisplayName("should match columns by header and unquote fields")
+        void shouldMatchColumnsByHeaderAndUnquoteFields() throws IOException, ProductImportException {
+            var payload = "quantity,id,price,name,description\r\n"
+                    + "3,17,9.50,\"Mug, large\",\"A \"\"big\"\" mug\nfor coffee\"\r\n";
+
+            var report = service(10, 10).importProducts(body(payload), ProductImportFormat.CSV);
+
+            assertEquals(new ProductImportReport(1, 1, 0, List.of(), false), report);
+            var product = written.get(0).get(0);
+            assertNull(product.getId());
+            assertEquals("Mug, large", product.getName());
+            assertEquals("A \"big\" mug\nfor coffee", product.getDescription());
+            assertEquals(new BigDecimal("9.50"), product.getPrice());
+            assertEquals(3, product.getQuantity());
+        }
+
+        @Test
+        @DisplayName("should report rows with unparsable numbers or missing columns")
+        void shouldReportUnparsableRows() throws IOException, ProductImportException {
+            var payload = "name,description,price,quantity\n"
+                    + "Mug,A large coffee mug,abc,1\n"
+                    + "Mug,A large coffee mug\n"
+                    + "Mug,A large coffee mug,,1\n";
+
+            var report = service(10, 10).importProducts(body(payload), ProductImportFormat.CSV);
+
+            assertEquals(List.of(
+                    new ProductImportReport.RowError(1, List.of("price: 'abc' is not a number")),
+                    new ProductImportReport.RowError(2, List.of("Expected at least 4 columns but found 2")),
+                    new ProductImportReport.RowError(3, List.of("price: Price cannot be null"))), report.errors());
+            verifyNoInteractions(writer);
+        }
+
+        @Test
+        @DisplayName("should refuse a payload whose header lacks required columns")
+        void shouldRefuseIncompleteHeader() {
+            var exception = assertThrows(ProductImportException.class,
+                    () -> service(10, 10).importProducts(body("name,description\n"), ProductImportFormat.CSV));
+
+            assertEquals("CSV header is missing columns [price, quantity]", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductSearchHit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    private ProductRepository repository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("tokenize Tests")
+    class TokenizeTests {
+
+        @Test
+        @DisplayName("should split on anything but letters and digits, lower-case and strip accents")
+        void shouldNormalizeWords() {
+            assertEquals(List.of("creme", "brulee", "torch", "2000", "x"),
+                    ProductSearchIndex.tokenize("Crème-Brûlée  TORCH 2000/X"));
+            assertEquals(List.of(), ProductSearchIndex.tokenize(" ,. "));
+            assertEquals(List.of(), ProductSearchIndex.tokenize(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("search Tests")
+    class SearchTests {
+
+        @BeforeEach
+        void setUp() {
+            index.put(product(1, "Desk lamp", "Brass lamp for the office desk", "49.00", 3));
+            index.put(product(2, "Floor lamp", "Tall reading lamp", "89.00", 0));
+            index.put(product(3, "Office chair", "Chair with a desk-height lamp hook", "120.00", 5));
+            index.put(product(4, "Lampshade", "Linen shade", "15.00", 8));
+        }
+
+        @Test
+        @DisplayName("should rank matches in the name above matches in the description")
+        void shouldRankNameMatchesFirst() {
+            assertEquals(List.of(1L, 2L, 4L, 3L), ids(index.search("lamp", null, null, null, 10)));
+        }
+
+        @Test
+        @DisplayName("should match words by prefix, below exact matches")
+        void shouldMatchPrefixes() {
+            var prefix = index.search("lampsh", null, null, null, 10);
+            var exact = index.search("lampshade", null, null, null, 10);
+
+            assertEquals(List.of(4L), ids(prefix));
+            assertEquals(exact.getFirst().score() / 2, prefix.getFirst().score(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("should only match short words in full")
+        void shouldMatchShortWordsInFull() {
+            index.put(product(5, "La lamp", "Lamp by La", "30.00", 1));
+
+            assertEquals(List.of(5L), ids(index.search("la", null, null, null, 10)));
+        }
+
+        @Test
+        @DisplayName("should only return products matching every word")
+        void shouldMatchEveryWord() {
+            assertEquals(List.of(1L, 3L), ids(index.search("desk LAMP", null, null, null, 10)));
+            assertEquals(List.of(), ids(index.search("desk sofa", null, null, null, 10)));
+            assertEquals(List.of(), ids(index.search("  ", null, null, null, 10)));
+        }
+
+        @Test
+        @DisplayName("should filter on price and stock")
+        void shouldFilterOnPriceAndStock() {
+            assertEquals(List.of(1L, 2L), ids(index.search("lamp", new BigDecimal("20"), new BigDecimal("89.00"), null, 10)));
+            assertEquals(List.of(1L, 4L, 3L), ids(index.search("lamp", null, null, true, 10)));
+            assertEquals(List.of(2L), ids(index.search("lamp", null, null, false, 10)));
+        }
+
+        @Test
+        @DisplayName("should return at most limit hits, clamped to the maximum")
+        void shouldLimitHits() {
+            assertEquals(List.of(1L, 2L), ids(index.search("lamp", null, null, null, 2)));
+            assertEquals(List.of(1L), ids(index.search("lamp", null, null, null, 0)));
+        }
+
+        @Test
+        @DisplayName("should replace a product put again and forget its old words")
+        void shouldReplaceProduct() {
+            index.put(product(1, "Desk fan", "Quiet fan", "29.00", 3));
+
+            assertEquals(List.of(2L, 4L, 3L), ids(index.search("lamp", null, null, null, 10)));
+            assertEquals(List.of(1L), ids(index.search("fan", null, null, null, 10)));
+            assertEquals(4, index.size());
+        }
+
+        @Test
+        @DisplayName("should drop a removed product")
+        void shouldRemoveProduct() {
+            index.remove(2);
+
+            assertEquals(List.of(1L, 4L, 3L), ids(index.search("lamp", null, null, null, 10)));
+            assertEquals(3, index.size());
+        }
+
+        @Test
+        @DisplayName("should take units off the stock it filters on")
+        void shouldTakeStock() {
+            index.takeStock(Map.of(1L, 3, 4L, 1));
+
+            assertEquals(List.of(4L, 3L), ids(index.search("lamp", null, null, true, 10)));
+            assertEquals(7, index.search("lampshade", null, null, null, 10).getFirst().quantity());
+        }
+    }
+
+    @Nested
+    @DisplayName("transaction Tests")
+    class TransactionTests {
+
+        @Test
+        @DisplayName("should apply changes made in a transaction only once it commits")
+        void shouldWaitForCommit() {
+            TransactionSynchronizationManager.initSynchronization();
+            index.put(product(1, "Desk lamp", "Brass lamp", "49.00", 3));
+
+            assertEquals(List.of(), ids(index.search("lamp", null, null, null, 10)));
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            assertEquals(List.of(1L), ids(index.search("lamp", null, null, null, 10)));
+        }
+
+        @Test
+        @DisplayName("should ignore changes of a transaction that rolls back")
+        void shouldIgnoreRollback() {
+            TransactionSynchronizationManager.initSynchronization();
+            index.put(product(1, "Desk lamp", "Brass lamp", "49.00", 3));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationManager.clearSynchronization();
+
+            assertEquals(0, index.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("startup Tests")
+    class StartupTests {
+
+        @Test
+        @DisplayName("should load every product from the database in chunks")
+        void shouldLoadAllProducts() {
+            var first = LongStream.rangeClosed(1, 1000).mapToObj(id -> product(id, "Lamp " + id, "Lamp", "1", 1)).toList();
+            when(repository.findChunkAfter(0, Limit.of(1000))).thenReturn(first);
+            when(repository.findChunkAfter(1000, Limit.of(1000))).thenReturn(List.of(product(1001, "Chair", "Chair", "1", 1)));
+
+            index.afterSingletonsInstantiated();
+
+            assertEquals(1001, index.size());
+            assertEquals(List.of(1001L), ids(index.search("chair", null, null, null, 10)));
+            verify(repository, times(2)).findChunkAfter(anyLong(), any());
+        }
+    }
+
+    private static List<Long> ids(List<ProductSearchHit> hits) {
+        return hits.stream().map(ProductSearchHit::id).toList();
+    }
+
+    private static Product product(long id, String name, String description, String price, int quantity) {
+        var product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal(price));
+        product.setQuantity(quantity);
+        return product;
+    }
+}
@@ -1,20 +1,29 @@
 package com.agile.ecommerce.product.core;
 
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.pagination.InvalidCursorException;
+import com.agile.ecommerce.pagination.PageCursor;
+import com.agile.ecommerce.product.data.ProductNameVersion;
 import com.agile.ecommerce.product.data.ProductRepository;
 import com.agile.ecommerce.product.domain.Product;
 import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.dto.ProductSearchHit;
 import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import com.agile.ecommerce.product.mapper.DirectProductMapper;
+import com.agile.ecommerce.versioning.EntityVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,13 +35,16 @@ class ProductServiceTest {
 
     private ProductService productService;
     private ProductRepository productRepository;
-    private ModelMapper modelMapper;
+    private StockService stockService;
 
     @BeforeEach
     void setUp() {
         productRepository = mock(ProductRepository.class);
-        modelMapper = mock(ModelMapper.class);
-        productService = new ProductService(productRepository, modelMapper);
+        stockService = mock(StockService.class);
+        productService = new ProductService(productRepository,
+                new ProductCache(productRepository, new ProductCacheProperties(100, Duration.ofMinutes(10))),
+                new DirectProductMapper(), new ProductSearchIndex(productRepository),
+                new ProductFacetIndex(productRepository), stockService);
     }
 
     @Nested
@@ -57,6 +69,36 @@ class ProductServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("scroll Tests")
+    class ScrollTests {
+
+        @Test
+        @DisplayName("should return the page after the cursor and a cursor at its last product")
+        void shouldReturnPageAfterCursor() throws InvalidCursorException {
+            when(productRepository.findByIdGreaterThanOrderById(5L, Limit.of(3)))
+                    .thenReturn(List.of(product(6L), product(7L), product(8L)));
+
+            var page = productService.scroll(PageCursor.encode(ProductService.CURSOR_SCOPE, 5L), 2);
+
+            assertEquals(List.of(6L, 7L), page.content().stream().map(Product::getId).toList());
+            assertEquals(PageCursor.encode(ProductService.CURSOR_SCOPE, 7L), page.nextCursor());
+        }
+
+        @Test
+        @DisplayName("should start from the first product and cap the page size")
+        void shouldStartFromFirstProductAndCapPageSize() throws InvalidCursorException {
+            when(productRepository.findByIdGreaterThanOrderById(0L, Limit.of(CursorPage.MAX_SIZE + 1)))
+                    .thenReturn(List.of(product(1L)));
+
+            var page = productService.scroll(null, 5000);
+
+            assertEquals(CursorPage.MAX_SIZE, page.size());
+            assertEquals(1, page.content().size());
+            assertNull(page.nextCursor());
+        }
+    }
+
     @Nested
     @DisplayName("getById Tests")
     class GetByIdTests {
@@ -95,12 +137,8 @@ class ProductServiceTest {
         @DisplayName("should add and return product")
         void shouldAddAndReturnProduct() {
             ProductDto productDto = new ProductDto(1L,"ProductName", "ProductDescription", BigDecimal.valueOf(100.0), 10);
-            Product product = new Product();
-            product.setId(1L);
 
-            when(modelMapper.map(productDto, Product.class)).thenReturn(product);
-            when(productRepository.save(any(Product.class))).thenReturn(product);
-            when(modelMapper.map(product, ProductDto.class)).thenReturn(productDto);
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             ProductDto result = productService.add(productDto);
 
@@ -108,6 +146,29 @@ class ProductServiceTest {
             assertEquals(productDto.name(), result.name());
             verify(productRepository, times(1)).save(any(Product.class));
         }
+
+        @Test
+        @DisplayName("should make the product searchable")
+        void shouldIndexProduct() {
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            productService.add(new ProductDto(1L, "Desk lamp", "Brass", BigDecimal.TEN, 3));
+
+            assertEquals(List.of(1L), productService.search("lamp", null, null, null, 10).stream()
+                    .map(ProductSearchHit::id).toList());
+        }
+
+        @Test
+        @DisplayName("should count the product in its facets")
+        void shouldFileProductUnderFacets() {
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            productService.add(new ProductDto(1L, "Desk lamp", "Brass", BigDecimal.TEN, 3));
+
+            var facets = productService.facets(List.of(PriceRange.FROM_10_TO_25), List.of(), List.of(), 0, 10);
+            assertEquals(List.of(1L), facets.productIds());
+            assertEquals(1, facets.nameInitials().get(NameInitial.A_TO_E));
+        }
     }
 
     @Nested
@@ -118,20 +179,65 @@ class ProductServiceTest {
         @DisplayName("should update and return product")
         void shouldUpdateAndReturnProduct() throws ProductNotFoundException {
             ProductDto productDto = new ProductDto(1L,"ProductName", "ProductDescription", BigDecimal.valueOf(100.0), 10);
-            Product product = new Product();
-            product.setId(1L);
 
-            when(productRepository.existsById(1L)).thenReturn(true);
-            when(modelMapper.map(productDto, Product.class)).thenReturn(product);
-            when(productRepository.save(any(Product.class))).thenReturn(product);
-            when(modelMapper.map(product, ProductDto.class)).thenReturn(productDto);
+            when(productRepository.findEntityVersionById(1L)).thenReturn(Optional.of(new EntityVersion(4, Instant.now())));
+            when(productRepository.findNameVersionById(1L)).thenReturn(Optional.of(new ProductNameVersion("ProductName", 2, Instant.now())));
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             ProductDto result = productService.update(productDto);
 
             assertNotNull(result);
             assertEquals(productDto.name(), result.name());
-            verify(productRepository, times(1)).existsById(1L);
-            verify(productRepository, times(1)).save(any(Product.class));
+            verify(productRepository, times(1)).findEntityVersionById(1L);
+            verify(productRepository, times(1)).save(argThat(saved -> saved.getVersion() == 4));
+        }
+
+        @Test
+        @DisplayName("should ready the stock for the new quantity before reading the version to write")
+        void shouldPrepareQuantityChangeBeforeWrite() throws ProductNotFoundException {
+            when(productRepository.findEntityVersionById(1L)).thenReturn(Optional.of(new EntityVersion(4, Instant.now())));
+            when(productRepository.findNameVersionById(1L)).thenReturn(Optional.of(new ProductNameVersion("ProductName", 2, Instant.now())));
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            var order = inOrder(stockService, productRepository);
+
+            productService.update(new ProductDto(1L, "ProductName", "ProductDescription", BigDecimal.ONE, 25));
+
+            order.verify(stockService).prepareQuantityChange(1L, 25);
+            order.verify(productRepository).findEntityVersionById(1L);
+            order.verify(productRepository).save(any(Product.class));
+        }
+
+        @Test
+        @DisplayName("should evict the cached product")
+        void shouldEvictCachedProduct() throws ProductNotFoundException {
+            Product product = new Product();
+            product.setId(1L);
+            when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+            when(productRepository.findEntityVersionById(1L)).thenReturn(Optional.of(new EntityVersion(0, Instant.now())));
+            when(productRepository.findNameVersionById(1L)).thenReturn(Optional.of(new ProductNameVersion("ProductName", 0, Instant.now())));
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            productService.getById(1L);
+            productService.getById(1L);
+            productService.update(new ProductDto(1L, "ProductName", "ProductDescription", BigDecimal.ONE, 1));
+            productService.getById(1L);
+
+            verify(productRepository, times(2)).findById(1L);
+        }
+
+        @Test
+        @DisplayName("should move the name version on only when the name changes")
+        void shouldVersionNameChangesOnly() throws ProductNotFoundException {
+            var named = Instant.parse("2024-03-01T10:15:30Z");
+            when(productRepository.findEntityVersionById(1L)).thenReturn(Optional.of(new EntityVersion(4, Instant.now())));
+            when(productRepository.findNameVersionById(1L)).thenReturn(Optional.of(new ProductNameVersion("ProductName", 2, named)));
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            productService.update(new ProductDto(1L, "ProductName", "ProductDescription", BigDecimal.ONE, 25));
+            productService.update(new ProductDto(1L, "Renamed", "ProductDescription", BigDecimal.ONE, 25));
+
+            verify(productRepository).save(argThat(saved -> saved.getNameVersion() == 2 && named.equals(saved.getNameModified())));
+            verify(productRepository).save(argThat(saved -> saved.getNameVersion() == 3 && saved.getNameModified().isAfter(named)));
         }
 
         @Test
@@ -139,11 +245,34 @@ class ProductServiceTest {
         void shouldThrowExceptionWhenProductNotFound() {
             ProductDto productDto = new ProductDto(1L,"ProductName", "ProductDescription", BigDecimal.valueOf(100.0), 10);
 
-            when(productRepository.existsById(productDto.id())).thenReturn(false);
+            when(productRepository.findEntityVersionById(productDto.id())).thenReturn(Optional.empty());
 
             assertThrows(ProductNotFoundException.class, () -> productService.update(productDto));
 
-            verify(productRepository, times(1)).existsById(productDto.id());
+            verify(productRepository, never()).save(any(Product.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("getVersion Tests")
+    class GetVersionTests {
+
+        @Test
+        @DisplayName("should return the version from the database")
+        void shouldReturnVersionFromDatabase() throws ProductNotFoundException {
+            var version = new EntityVersion(2, Instant.now());
+            when(productRepository.findEntityVersionById(1L)).thenReturn(Optional.of(version));
+
+            assertEquals(version, productService.getVersion(1L));
+            verify(productRepository, never()).findById(anyLong());
+        }
+
+        @Test
+        @DisplayName("should throw exception when product not found")
+        void shouldThrowExceptionWhenProductNotFound() {
+            when(productRepository.findEntityVersionById(1L)).thenReturn(Optional.empty());
+
+            assertThrows(ProductNotFoundException.class, () -> productService.getVersion(1L));
         }
     }
 
@@ -160,6 +289,20 @@ class ProductServiceTest {
 
             verify(productRepository, times(1)).existsById(1L);
             verify(productRepository, times(1)).deleteById(1L);
+            verify(stockService, times(1)).prepareDelete(1L);
+        }
+
+        @Test
+        @DisplayName("should drop the product from search and facets")
+        void shouldUnindexProduct() throws ProductNotFoundException {
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(productRepository.existsById(1L)).thenReturn(true);
+            productService.add(new ProductDto(1L, "Desk lamp", "Brass", BigDecimal.TEN, 3));
+
+            productService.delete(1L);
+
+            assertTrue(productService.search("lamp", null, null, null, 10).isEmpty());
+            assertEquals(0, productService.facets(List.of(), List.of(), List.of(), 0, 10).totalElements());
         }
 
         @Test
@@ -172,4 +315,10 @@ class ProductServiceTest {
             verify(productRepository, times(1)).existsById(1L);
         }
     }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
 }
@@ -0,0 +1,290 @@
+package com.agile.ecommerce.product.core;
+
+import com.agile.ecommerce.product.data.PendingStockDecrementRepository;
+import com.agile.ecommerce.product.data.ProductRepository;
+import com.agile.ecommerce.product.data.ProductStockWriter;
+import com.agile.ecommerce.product.domain.PendingStockDecrement;
+import com.agile.ecommerce.product.domain.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StockServiceTest {
+
+    private ProductStockWriter writer;
+    private PendingStockDecrementRepository pendingRepository;
+    private ProductRepository productRepository;
+    private ProductSearchIndex searchIndex;
+    private ProductFacetIndex facetIndex;
+    private StockService stockService;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(ProductStockWriter.class);
+        pendingRepository = mock(PendingStockDecrementRepository.class);
+        productRepository = mock(ProductRepository.class);
+        searchIndex = mock(ProductSearchIndex.class);
+        facetIndex = mock(ProductFacetIndex.class);
+        var transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        stockService = new StockService(writer, pendingRepository,
+                new ProductCache(productRepository, new ProductCacheProperties(100, Duration.ofMinutes(10))),
+                searchIndex, facetIndex, transactionTemplate, new HotStockProperties(Set.of(7L), 2, Duration.ofSeconds(1)));
+        when(writer.lockQuantity(7L)).thenReturn(Optional.of(10));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Nested
+    @DisplayName("reserve Tests")
+    class ReserveTests {
+
+        @Test
+        @DisplayName("should decrement stored products in the database and put the units back if one is short")
+        void shouldDecrementStoredProducts() {
+            when(writer.decrement(any())).thenReturn(List.of(2L));
+
+            var shortOfStock = stockService.reserve(new TreeMap<>(Map.of(1L, 1, 2L, 5)));
+
+            assertEquals(List.of(2L), shortOfStock);
+            verify(writer, times(1)).decrement(new TreeMap<>(Map.of(1L, 1, 2L, 5)));
+            verify(writer, times(1)).increment(new TreeMap<>(Map.of(1L, 1)));
+            verify(pendingRepository, never()).saveAll(any());
+            verify(searchIndex, never()).takeStock(any());
+            verify(facetIndex, never()).takeStock(any());
+        }
+
+        @Test
+        @DisplayName("should take the reserved units off the search and facet indexes")
+        void shouldTakeStockOffIndexes() {
+            stockService.afterSingletonsInstantiated();
+            when(writer.decrement(any())).thenReturn(List.of());
+
+            stockService.reserve(new TreeMap<>(Map.of(1L, 1, 7L, 4)));
+
+            verify(searchIndex, times(1)).takeStock(new TreeMap<>(Map.of(1L, 1, 7L, 4)));
+            verify(facetIndex, times(1)).takeStock(new TreeMap<>(Map.of(1L, 1, 7L, 4)));
+        }
+
+        @Test
+        @DisplayName("should evict the stored products from the product cache")
+        void shouldEvictStoredProductsFromCache() {
+            when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+            when(writer.decrement(any())).thenReturn(List.of());
+
+            var cache = new ProductCache(productRepository, new ProductCacheProperties(100, Duration.ofMinutes(10)));
+            var service = new StockService(writer, pendingRepository, cache, searchIndex, facetIndex,
+                    mock(TransactionTemplate.class), new HotStockProperties(Set.of(), 2, Duration.ofSeconds(1)));
+            cache.get(1L);
+            service.reserve(new TreeMap<>(Map.of(1L, 1)));
+            cache.get(1L);
+
+            verify(productRepository, times(2)).findById(1L);
+        }
+
+        @Test
+        @DisplayName("should reserve hot products in memory and record the decrement for later")
+        void shouldReserveHotProductsInMemory() {
+            stockService.afterSingletonsInstantiated();
+
+            var shortOfStock = stockService.reserve(new TreeMap<>(Map.of(7L, 4)));
+
+            assertEquals(List.of(), shortOfStock);
+            assertEquals(Map.of(7L, 6L), stockService.hotStockLevels());
+            verify(writer, never()).decrement(any());
+            verify(pendingRepository, times(1)).saveAll(List.of(new PendingStockDecrement(null, 7L, 4)));
+        }
+
+        @Test
+        @DisplayName("should report a hot product as short once its units are gone")
+        void shouldReportHotProductShort() {
+            stockService.afterSingletonsInstantiated();
+
+            assertEquals(List.of(), stockService.reserve(new TreeMap<>(Map.of(7L, 10))));
+            assertEquals(List.of(7L), stockService.reserve(new TreeMap<>(Map.of(7L, 1))));
+            verify(pendingRepository, times(1)).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("should give hot units back when the transaction rolls back")
+        void shouldGiveHotUnitsBackOnRollback() {
+            stockService.afterSingletonsInstantiated();
+
+            stockService.reserve(new TreeMap<>(Map.of(7L, 4)));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            assertEquals(Map.of(7L, 10L), stockService.hotStockLevels());
+        }
+
+        @Test
+        @DisplayName("should give hot units back at once when another product of the order is short")
+        void shouldGiveHotUnitsBackWhenOrderIsShort() {
+            stockService.afterSingletonsInstantiated();
+            when(writer.decrement(any())).thenReturn(List.of(2L));
+
+            assertEquals(List.of(2L), stockService.reserve(new TreeMap<>(Map.of(2L, 1, 7L, 4))));
+
+            assertEquals(Map.of(7L, 10L), stockService.hotStockLevels());
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertEquals(Map.of(7L, 10L), stockService.hotStockLevels(), "a rollback must not give the units back twice");
+            verify(pendingRepository, never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("should also take from the counter of a product that turned hot during a stored decrement")
+        void shouldTakeFromCounterOfProductTurnedHot() {
+            when(writer.lockQuantity(3L)).thenReturn(Optional.of(5));
+            when(writer.decrement(any())).thenAnswer(invocation -> {
+                stockService.enable(3L);
+                return List.of();
+            });
+
+            assertEquals(List.of(), stockService.reserve(new TreeMap<>(Map.of(3L, 2))));
+            assertEquals(3L, stockService.hotStockLevels().get(3L));
+            verify(pendingRepository, never()).saveAll(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("startup Tests")
+    class StartupTests {
+
+        @Test
+        @DisplayName("should apply pending decrements before loading the hot counters")
+        void shouldApplyPendingDecrementsBeforeLoadingCounters() {
+            var order = inOrder(writer);
+
+            stockService.afterSingletonsInstantiated();
+
+            order.verify(writer).applyPendingDecrements();
+            order.verify(writer).lockQuantity(7L);
+            assertEquals(Map.of(7L, 10L), stockService.hotStockLevels());
+        }
+
+        @Test
+        @DisplayName("should fail for an unknown hot product")
+        void shouldFailForUnknownHotProduct() {
+            when(writer.lockQuantity(7L)).thenReturn(Optional.empty());
+
+            assertThrows(IllegalArgumentException.class, () -> stockService.afterSingletonsInstantiated());
+        }
+    }
+
+    @Nested
+    @DisplayName("product write Tests")
+    class ProductWriteTests {
+
+        @Test
+        @DisplayName("should move a hot counter by the quantity change against the stock left, once committed")
+        void shouldMoveCounterByQuantityChange() {
+            stockService.afterSingletonsInstantiated();
+            stockService.reserve(new TreeMap<>(Map.of(7L, 4)));
+            // the 4 units sold are applied before the row is read
+            when(writer.lockQuantity(7L)).thenReturn(Optional.of(6));
+            var order = inOrder(writer);
+
+            stockService.prepareQuantityChange(7L, 20);
+
+            assertEquals(Map.of(7L, 6L), stockService.hotStockLevels());
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            assertEquals(Map.of(7L, 20L), stockService.hotStockLevels());
+            order.verify(writer, times(2)).applyPendingDecrements();
+            order.verify(writer).lockQuantity(7L);
+        }
+
+        @Test
+        @DisplayName("should take a lowered quantity off the hot counter")
+        void shouldLowerCounter() {
+            stockService.afterSingletonsInstantiated();
+
+            stockService.prepareQuantityChange(7L, 3);
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+            assertEquals(Map.of(7L, 3L), stockService.hotStockLevels());
+        }
+
+        @Test
+        @DisplayName("should leave stored products to the caller's write")
+        void shouldIgnoreStoredProducts() {
+            stockService.prepareQuantityChange(1L, 3);
+            stockService.prepareDelete(1L);
+
+            verifyNoInteractions(writer);
+        }
+
+        @Test
+        @DisplayName("should drop the counter of a deleted hot product once committed")
+        void shouldDropCounterOnDelete() {
+            stockService.afterSingletonsInstantiated();
+
+            stockService.prepareDelete(7L);
+
+            assertEquals(Map.of(7L, 10L), stockService.hotStockLevels());
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            assertEquals(Map.of(), stockService.hotStockLevels());
+        }
+    }
+
+    @Nested
+    @DisplayName("flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("should evict the products it changed from the product cache")
+        void shouldEvictChangedProducts() {
+            when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+            when(writer.applyPendingDecrements()).thenReturn(List.of(1L));
+            var cache = new ProductCache(productRepository, new ProductCacheProperties(100, Duration.ofMinutes(10)));
+            var service = new StockService(writer, pendingRepository, cache, searchIndex, facetIndex,
+                    mock(TransactionTemplate.class), new HotStockProperties(Set.of(), 2, Duration.ofSeconds(1)));
+
+            cache.get(1L);
+            TransactionSynchronizationManager.clearSynchronization();
+            service.flush();
+            TransactionSynchronizationManager.initSynchronization();
+            cache.get(1L);
+
+            verify(productRepository, times(2)).findById(1L);
+        }
+    }
+
+    private static Product product(long id) {
+        var product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("Description " + id);
+        product.setPrice(BigDecimal.TEN);
+        product.setQuantity(10);
+        return product;
+    }
+}
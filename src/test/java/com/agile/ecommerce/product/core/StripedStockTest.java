@@ -0,0 +1,114 @@
+package com.agile.ecommerce.product.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockTest {
+
+    @Nested
+    @DisplayName("adjust Tests")
+    class AdjustTests {
+
+        @Test
+        @DisplayName("should add units and take them off down to zero at most")
+        void shouldAdjustDownToZero() {
+            var stock = new StripedStock(6, 4);
+
+            stock.adjust(4);
+            assertEquals(10, stock.available());
+            stock.adjust(-7);
+            assertEquals(3, stock.available());
+            stock.adjust(-5);
+            assertEquals(0, stock.available());
+            assertFalse(stock.tryTake(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("tryTake Tests")
+    class TryTakeTests {
+
+        @Test
+        @DisplayName("should spread the initial quantity over the stripes")
+        void shouldSpreadInitialQuantity() {
+            var stock = new StripedStock(10, 4);
+
+            assertEquals(10, stock.available());
+        }
+
+        @Test
+        @DisplayName("should take units until none are left")
+        void shouldTakeUntilNoneLeft() {
+            var stock = new StripedStock(5, 2);
+
+            assertTrue(stock.tryTake(3));
+            assertTrue(stock.tryTake(2));
+            assertFalse(stock.tryTake(1));
+            assertEquals(0, stock.available());
+        }
+
+        @Test
+        @DisplayName("should gather units from several stripes when no stripe holds enough alone")
+        void shouldGatherUnitsFromSeveralStripes() {
+            var stock = new StripedStock(8, 4);
+
+            assertTrue(stock.tryTake(7));
+            assertEquals(1, stock.available());
+        }
+
+        @Test
+        @DisplayName("should take nothing when all stripes together hold too little")
+        void shouldTakeNothingWhenTooLittleIsLeft() {
+            var stock = new StripedStock(8, 4);
+
+            assertFalse(stock.tryTake(9));
+            assertEquals(8, stock.available());
+        }
+
+        @Test
+        @DisplayName("should make units given back available again")
+        void shouldMakeUnitsGivenBackAvailable() {
+            var stock = new StripedStock(2, 2);
+            stock.tryTake(2);
+
+            stock.giveBack(2);
+
+            assertTrue(stock.tryTake(2));
+        }
+
+        @Test
+        @DisplayName("should never hand out more than the quantity under contention")
+        void shouldNeverOversellUnderContention() throws InterruptedException {
+            var stock = new StripedStock(10_000, 8);
+            var sold = new AtomicLong();
+            var start = new CountDownLatch(1);
+            var executor = Executors.newFixedThreadPool(16);
+            for (int t = 0; t < 16; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 5_000; i++) {
+                        int units = 1 + i % 3;
+                        if (stock.tryTake(units)) {
+                            sold.addAndGet(units);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+            assertEquals(10_000, sold.get() + stock.available());
+            assertTrue(stock.available() < 3);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.agile.ecommerce.product.mapper;
+
+import com.agile.ecommerce.product.domain.Product;
+import com.agile.ecommerce.product.dto.ProductDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DirectProductMapper Test")
+class DirectProductMapperTest {
+
+    private DirectProductMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new DirectProductMapper();
+    }
+
+    @Nested
+    @DisplayName("toDto Tests")
+    class ToDtoTests {
+
+        @Test
+        @DisplayName("should copy every product field into the dto")
+        void shouldCopyEveryProductFieldIntoTheDto() {
+            var product = new Product();
+            product.setId(1L);
+            product.setName("ProductName");
+            product.setDescription("ProductDescription");
+            product.setPrice(BigDecimal.valueOf(10.5));
+            product.setQuantity(3);
+
+            var dto = mapper.toDto(product);
+
+            assertThat(dto).isEqualTo(new ProductDto(1L, "ProductName", "ProductDescription", BigDecimal.valueOf(10.5), 3));
+        }
+    }
+
+    @Nested
+    @DisplayName("toEntity Tests")
+    class ToEntityTests {
+
+        @Test
+        @DisplayName("should copy every dto field into a new product")
+        void shouldCopyEveryDtoFieldIntoANewProduct() {
+            var dto = new ProductDto(1L, "ProductName", "ProductDescription", BigDecimal.valueOf(10.5), 3);
+
+            var product = mapper.toEntity(dto);
+
+            assertThat(product.getId()).isEqualTo(1L);
+            assertThat(product.getName()).isEqualTo("ProductName");
+            assertThat(product.getDescription()).isEqualTo("ProductDescription");
+            assertThat(product.getPrice()).isEqualTo(BigDecimal.valueOf(10.5));
+            assertThat(product.getQuantity()).isEqualTo(3);
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package com.agile.ecommerce.product.rest;
 
+import com.agile.ecommerce.pagination.CursorPage;
+import com.agile.ecommerce.product.core.NameInitial;
+import com.agile.ecommerce.product.core.PriceRange;
+import com.agile.ecommerce.product.core.ProductImportFormat;
+import com.agile.ecommerce.product.core.ProductImportService;
 import com.agile.ecommerce.product.core.ProductService;
+import com.agile.ecommerce.product.core.StockStatus;
 import com.agile.ecommerce.product.domain.Product;
 import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.dto.ProductFacetPage;
+import com.agile.ecommerce.product.dto.ProductImportReport;
+import com.agile.ecommerce.product.dto.ProductSearchHit;
+import com.agile.ecommerce.versioning.EntityVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,13 +20,23 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -29,11 +49,127 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
     private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService)).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, productImportService))
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+    }
+
+    @Nested
+    @DisplayName("getAllProducts Tests")
+    class GetAllProductsTests {
+
+        @Test
+        @DisplayName("should pass the requested page to the service")
+        void shouldPassRequestedPage() throws Exception {
+            // Given
+            var pageable = PageRequest.of(3, 5);
+            when(productService.getAll(pageable)).thenReturn(new PageImpl<>(List.of(new Product()), pageable, 16));
+
+            // When / Then
+            mockMvc.perform(get("/api/products").param("page", "3").param("size", "5"))
+                    .andExpect(status().isOk());
+            Mockito.verify(productService).getAll(pageable);
+        }
+    }
+
+    @Nested
+    @DisplayName("scrollProducts Tests")
+    class ScrollProductsTests {
+
+        @Test
+        @DisplayName("should return a keyset page with its next cursor")
+        void shouldReturnKeysetPage() throws Exception {
+            // Given
+            when(productService.scroll("abc", 2)).thenReturn(new CursorPage<>(List.of(new Product()), 2, "def"));
+
+            // When / Then
+            mockMvc.perform(get("/api/products/scroll").param("cursor", "abc").param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.size").value(2))
+                    .andExpect(jsonPath("$.nextCursor").value("def"));
+        }
+
+        @Test
+        @DisplayName("should default to the first page of the default size")
+        void shouldDefaultToFirstPage() throws Exception {
+            // Given
+            when(productService.scroll(null, CursorPage.DEFAULT_SIZE)).thenReturn(new CursorPage<>(List.of(), 20, null));
+
+            // When / Then
+            mockMvc.perform(get("/api/products/scroll"))
+                    .andExpect(status().isOk());
+            Mockito.verify(productService).scroll(null, CursorPage.DEFAULT_SIZE);
+        }
+    }
+
+    @Nested
+    @DisplayName("searchProducts Tests")
+    class SearchProductsTests {
+
+        @Test
+        @DisplayName("should return the ranked hits for the query and filters")
+        void shouldReturnRankedHits() throws Exception {
+            // Given
+            when(productService.search("desk lamp", new BigDecimal("10"), null, true, 5)).thenReturn(
+                    List.of(new ProductSearchHit(3L, "Desk lamp", "Brass desk lamp", new BigDecimal("19.99"), 4, 2.5)));
+
+            // When / Then
+            mockMvc.perform(get("/api/products/search")
+                            .param("q", "desk lamp").param("minPrice", "10").param("inStock", "true").param("limit", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(3))
+                    .andExpect(jsonPath("$[0].name").value("Desk lamp"))
+                    .andExpect(jsonPath("$[0].score").value(2.5));
+        }
+
+        @Test
+        @DisplayName("should require a query")
+        void shouldRequireQuery() throws Exception {
+            // When / Then
+            mockMvc.perform(get("/api/products/search"))
+                    .andExpect(status().isBadRequest());
+            Mockito.verifyNoInteractions(productService);
+        }
+    }
+
+    @Nested
+    @DisplayName("getProductFacets Tests")
+    class GetProductFacetsTests {
+
+        @Test
+        @DisplayName("should pass the selected values and return the page with the facet counts")
+        void shouldReturnPageAndCounts() throws Exception {
+            // Given
+            when(productService.facets(List.of(PriceRange.UNDER_10, PriceRange.FROM_10_TO_25),
+                    List.of(StockStatus.IN_STOCK), null, 1, 2)).thenReturn(new ProductFacetPage(List.of(5L, 8L), 1, 2, 4,
+                    Map.of(PriceRange.UNDER_10, 3), Map.of(StockStatus.IN_STOCK, 4), Map.of(NameInitial.A_TO_E, 1)));
+
+            // When / Then
+            mockMvc.perform(get("/api/products/facets")
+                            .param("priceRange", "UNDER_10", "FROM_10_TO_25").param("stock", "IN_STOCK")
+                            .param("page", "1").param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.productIds[1]").value(8))
+                    .andExpect(jsonPath("$.totalElements").value(4))
+                    .andExpect(jsonPath("$.priceRanges.UNDER_10").value(3))
+                    .andExpect(jsonPath("$.stock.IN_STOCK").value(4));
+        }
+
+        @Test
+        @DisplayName("should reject an unknown facet value")
+        void shouldRejectUnknownValue() throws Exception {
+            // When / Then
+            mockMvc.perform(get("/api/products/facets").param("stock", "BACKORDERED"))
+                    .andExpect(status().isBadRequest());
+            Mockito.verifyNoInteractions(productService);
+        }
     }
 
     @Nested
@@ -45,15 +181,72 @@ class ProductControllerTest {
         void shouldReturnProductWhenFound() throws Exception {
             // Given
             long productId = 1L;
-            Product product = new Product();
+            Product product = product(4, "2024-03-01T10:15:30Z");
+            when(productService.getVersion(productId)).thenReturn(new EntityVersion(4, Instant.parse("2024-03-01T10:15:30Z")));
             when(productService.getById(productId)).thenReturn(product);
 
             // When / Then
             mockMvc.perform(get("/api/products/{id}", productId)
                             .contentType(MediaType.APPLICATION_JSON))
-                    .andExpect(status().isOk());
+                    .andExpect(status().isOk())
+                    .andExpect(header().stringValues("ETag", "\"4.0\""))
+                    .andExpect(header().string("Last-Modified", "Fri, 01 Mar 2024 10:15:30 GMT"));
             Mockito.verify(productService, Mockito.times(1)).getById(productId);
         }
+
+        @Test
+        @DisplayName("should describe the product loaded when it changed after its version was read")
+        void shouldDescribeLoadedProduct() throws Exception {
+            // Given
+            long productId = 1L;
+            when(productService.getVersion(productId)).thenReturn(new EntityVersion(4, Instant.parse("2024-03-01T10:15:30Z")));
+            when(productService.getById(productId)).thenReturn(product(5, "2024-03-02T08:00:00Z"));
+
+            // When / Then
+            mockMvc.perform(get("/api/products/{id}", productId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().stringValues("ETag", "\"5.0\""))
+                    .andExpect(header().stringValues("Last-Modified", "Sat, 02 Mar 2024 08:00:00 GMT"));
+        }
+
+        @Test
+        @DisplayName("should answer from the cache with the cached product's validators, without reading its version")
+        void shouldAnswerFromCache() throws Exception {
+            // Given
+            long productId = 1L;
+            when(productService.getCachedById(productId)).thenReturn(Optional.of(product(6, "2024-03-01T10:15:30Z")));
+
+            // When / Then
+            mockMvc.perform(get("/api/products/{id}", productId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().stringValues("ETag", "\"6.0\""));
+            mockMvc.perform(get("/api/products/{id}", productId).header("If-None-Match", "\"6.0\""))
+                    .andExpect(status().isNotModified());
+            Mockito.verify(productService, Mockito.never()).getVersion(anyLong());
+            Mockito.verify(productService, Mockito.never()).getById(anyLong());
+        }
+
+        @Test
+        @DisplayName("should return 304 without loading the product when the ETag matches")
+        void shouldReturn304WhenETagMatches() throws Exception {
+            // Given
+            long productId = 1L;
+            when(productService.getVersion(productId)).thenReturn(new EntityVersion(4, Instant.parse("2024-03-01T10:15:30Z")));
+
+            // When / Then
+            mockMvc.perform(get("/api/products/{id}", productId).header("If-None-Match", "\"4.0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().stringValues("ETag", "\"4.0\""));
+            Mockito.verify(productService, Mockito.never()).getById(anyLong());
+        }
+    }
+
+    private static Product product(long version, String lastModified) {
+        Product product = new Product();
+        product.setId(1L);
+        product.setVersion(version);
+        product.setLastModified(Instant.parse(lastModified));
+        return product;
     }
 
     @Nested
@@ -76,6 +269,44 @@ class ProductControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("importProducts Tests")
+    class ImportProductsTests {
+
+        @Test
+        @DisplayName("should import an ndjson body and return the report")
+        void shouldImportNdjsonBody() throws Exception {
+            // Given
+            var report = new ProductImportReport(2, 1, 1,
+                    List.of(new ProductImportReport.RowError(2, List.of("name: Name cannot be blank"))), false);
+            when(productImportService.importProducts(any(InputStream.class), eq(ProductImportFormat.NDJSON))).thenReturn(report);
+
+            // When / Then
+            mockMvc.perform(post("/api/products/import")
+                            .contentType(ProductImportFormat.NDJSON_MEDIA_TYPE)
+                            .content("{\"name\":\"name\"}\n{}\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(1))
+                    .andExpect(jsonPath("$.errors[0].row").value(2));
+            Mockito.verify(productImportService).importProducts(any(InputStream.class), eq(ProductImportFormat.NDJSON));
+        }
+
+        @Test
+        @DisplayName("should import a csv body")
+        void shouldImportCsvBody() throws Exception {
+            // Given
+            var report = new ProductImportReport(0, 0, 0, List.of(), false);
+            when(productImportService.importProducts(any(InputStream.class), eq(ProductImportFormat.CSV))).thenReturn(report);
+
+            // When / Then
+            mockMvc.perform(post("/api/products/import")
+                            .contentType(ProductImportFormat.CSV_MEDIA_TYPE)
+                            .content("name,description,price,quantity\n"))
+                    .andExpect(status().isOk());
+            Mockito.verify(productImportService).importProducts(any(InputStream.class), eq(ProductImportFormat.CSV));
+        }
+    }
+
     @Nested
     @DisplayName("updateProduct Tests")
     class UpdateProductTests {
@@ -0,0 +1,81 @@
+package com.agile.ecommerce.product.rest;
+
+import com.agile.ecommerce.config.GlobalExceptionHandler;
+import com.agile.ecommerce.product.core.ReactiveProductService;
+import com.agile.ecommerce.product.dto.ProductDto;
+import com.agile.ecommerce.product.exception.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ReactiveProductController Tests")
+class ReactiveProductControllerTest {
+    private final ProductDto first = new ProductDto(1L, "Keyboard", "Mechanical keyboard", BigDecimal.TEN, 5);
+    private final ProductDto second = new ProductDto(2L, "Mouse", "Wireless mouse", BigDecimal.ONE, 7);
+
+    private ReactiveProductService productService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ReactiveProductService.class);
+        client = WebTestClient.bindToController(new ReactiveProductController(productService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Nested
+    @DisplayName("getAllProducts Tests")
+    class GetAllProductsTests {
+
+        @Test
+        @DisplayName("should stream the products as NDJSON")
+        void shouldStreamProducts() {
+            when(productService.getAll()).thenReturn(Flux.just(first, second));
+
+            client.get().uri("/api/products").accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    .expectBodyList(ProductDto.class).isEqualTo(List.of(first, second));
+        }
+    }
+
+    @Nested
+    @DisplayName("getProductById Tests")
+    class GetProductByIdTests {
+
+        @Test
+        @DisplayName("should return the product")
+        void shouldReturnProduct() {
+            when(productService.getById(1L)).thenReturn(Mono.just(first));
+
+            client.get().uri("/api/products/1")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(ProductDto.class).isEqualTo(first);
+        }
+
+        @Test
+        @DisplayName("should answer 404 for an unknown product")
+        void shouldReturnNotFound() {
+            when(productService.getById(9L)).thenReturn(Mono.error(new ProductNotFoundException(9L)));
+
+            client.get().uri("/api/products/9")
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectBody().jsonPath("$.error").isEqualTo("Product 9 not found");
+        }
+    }
+}
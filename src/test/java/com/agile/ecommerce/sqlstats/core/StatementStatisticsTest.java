@@ -0,0 +1,99 @@
+package com.agile.ecommerce.sqlstats.core;
+
+import com.agile.ecommerce.config.StatementStatisticsDataSource.Execution;
+import com.agile.ecommerce.sqlstats.dto.StatementStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementStatisticsTest {
+    private static final long MILLISECOND = 1_000_000;
+
+    private StatementStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new StatementStatistics(new SqlStatsProperties(Duration.ofMillis(100), 3));
+    }
+
+    @Nested
+    @DisplayName("top Tests")
+    class TopTests {
+
+        @Test
+        @DisplayName("should sum executions per statement and rank statements by total time")
+        void shouldRankByTotalTime() {
+            statistics.record(new Execution("select a", 10 * MILLISECOND, 5, 0, 1));
+            statistics.record(new Execution("select a", 30 * MILLISECOND, 1, 0, 1));
+            statistics.record(new Execution("insert b", 50 * MILLISECOND, 100, 50, 2));
+            statistics.record(new Execution("insert b", 20 * MILLISECOND, 20, 10, 2));
+            statistics.record(new Execution("delete c", 5 * MILLISECOND, 0, 0, 1));
+
+            assertEquals(List.of(
+                    new StatementStats("insert b", 2, 70, 35, 50, 120, 2, 30),
+                    new StatementStats("select a", 2, 40, 20, 30, 6, 0, 0),
+                    new StatementStats("delete c", 1, 5, 5, 5, 0, 0, 0)), statistics.top(10));
+        }
+
+        @Test
+        @DisplayName("should return at most limit statements, clamped to the maximum")
+        void shouldLimitStatements() {
+            statistics.record(new Execution("select a", 2 * MILLISECOND, 0, 0, 0));
+            statistics.record(new Execution("select b", MILLISECOND, 0, 0, 0));
+
+            assertEquals(List.of("select a"), statistics.top(0).stream().map(StatementStats::sql).toList());
+        }
+
+        @Test
+        @DisplayName("should count statements beyond the maximum together")
+        void shouldBoundStatements() {
+            for (var sql : List.of("select a", "select b", "select c", "select d", "select e", "select a")) {
+                statistics.record(new Execution(sql, MILLISECOND, 1, 0, 0));
+            }
+
+            var top = statistics.top(10);
+            assertEquals(4, top.size());
+            assertEquals(2, top.stream().filter(stats -> stats.sql().equals(StatementStatistics.OTHER_STATEMENTS))
+                    .findFirst().orElseThrow().executions());
+            assertEquals(2, top.stream().filter(stats -> stats.sql().equals("select a"))
+                    .findFirst().orElseThrow().executions());
+        }
+
+        @Test
+        @DisplayName("should forget every statement on reset")
+        void shouldReset() {
+            statistics.record(new Execution("select a", MILLISECOND, 1, 0, 0));
+
+            statistics.reset();
+
+            assertEquals(List.of(), statistics.top(10));
+        }
+    }
+
+    @Nested
+    @ExtendWith(OutputCaptureExtension.class)
+    @DisplayName("slow statement log Tests")
+    class SlowStatementLogTests {
+
+        @Test
+        @DisplayName("should log statements over the threshold as JSON without their values")
+        void shouldLogSlowStatements(CapturedOutput output) {
+            statistics.record(new Execution("select * from orders where customer_name = ?", 250 * MILLISECOND, 3, 0, 1));
+            statistics.record(new Execution("select fast", 99 * MILLISECOND, 1, 0, 0));
+
+            assertTrue(output.getOut().contains("{\"event\":\"slow_statement\","
+                    + "\"sql\":\"select * from orders where customer_name = ?\",\"elapsedMillis\":250.0,\"rows\":3,"
+                    + "\"batchSize\":0,\"parameters\":1}"));
+            assertFalse(output.getOut().contains("select fast"));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.agile.ecommerce.sqlstats.rest;
+
+import com.agile.ecommerce.sqlstats.core.StatementStatistics;
+import com.agile.ecommerce.sqlstats.dto.StatementStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SqlStatsController.class)
+@DisplayName("SqlStatsController Tests")
+class SqlStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StatementStatistics statistics;
+
+    @Nested
+    @DisplayName("getTopStatements Tests")
+    class GetTopStatementsTests {
+
+        @Test
+        @DisplayName("should return the top ten statements by default")
+        void shouldReturnTopTenByDefault() throws Exception {
+            when(statistics.top(10)).thenReturn(
+                    List.of(new StatementStats("insert into orders values (?, ?)", 4, 12.5, 3.125, 6, 200, 4, 50)));
+
+            mockMvc.perform(get("/api/sql/statements"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].sql").value("insert into orders values (?, ?)"))
+                    .andExpect(jsonPath("$[0].totalMillis").value(12.5))
+                    .andExpect(jsonPath("$[0].averageBatchSize").value(50.0));
+        }
+
+        @Test
+        @DisplayName("should pass the limit")
+        void shouldPassLimit() throws Exception {
+            when(statistics.top(3)).thenReturn(List.of());
+
+            mockMvc.perform(get("/api/sql/statements").param("limit", "3"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("resetStatements Tests")
+    class ResetStatementsTests {
+
+        @Test
+        @DisplayName("should clear the statistics")
+        void shouldReset() throws Exception {
+            mockMvc.perform(delete("/api/sql/statements"))
+                    .andExpect(status().isNoContent());
+
+            verify(statistics).reset();
+        }
+    }
+}